@@ -0,0 +1,17 @@
+package org.opensearch.client;
+
+import java.io.IOException;
+import org.opensearch.action.bulk.BulkRequest;
+
+/**
+ * 暴露客户端内部把 {@link BulkRequest} 编码为 NDJSON 请求体的实现，供基准测试调用。
+ */
+public final class BulkRequestEncoder {
+
+    private BulkRequestEncoder() {
+    }
+
+    public static Request encode(BulkRequest bulkRequest) throws IOException {
+        return RequestConverters.bulk(bulkRequest);
+    }
+}
@@ -0,0 +1,92 @@
+package run.halo.meilisearch;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 比较 Jsoup DOM 解析与 {@link HtmlTextExtractor} 流式提取在大篇幅文章上的开销。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HtmlExtractionBenchmark {
+
+    @Param({"article", "code", "cjk"})
+    public String corpus;
+
+    @Param({"10", "100", "500"})
+    public int sizeKb;
+
+    private String html;
+
+    @Setup
+    public void setup() {
+        html = switch (corpus) {
+            case "code" -> repeat(CODE_SECTION, sizeKb * 1024);
+            case "cjk" -> repeat(CJK_SECTION, sizeKb * 1024);
+            default -> repeat(ARTICLE_SECTION, sizeKb * 1024);
+        };
+    }
+
+    @Benchmark
+    public String jsoup() {
+        return HtmlUtils.stripHtml(html, HtmlUtils.Extractor.JSOUP);
+    }
+
+    @Benchmark
+    public String streaming() {
+        return HtmlUtils.stripHtml(html, HtmlUtils.Extractor.STREAMING);
+    }
+
+    private static String repeat(String section, int targetLength) {
+        var sb = new StringBuilder(targetLength + section.length());
+        sb.append("<article>");
+        while (sb.length() < targetLength) {
+            sb.append(section);
+        }
+        return sb.append("</article>").toString();
+    }
+
+    private static final String ARTICLE_SECTION = """
+        <h2 id="section">A section heading</h2>
+        <p>Search engines <strong>tokenize</strong> text into terms, and the <em>inverted
+        index</em> maps each term to the documents containing it. See
+        <a href="https://opensearch.org/docs/latest/" target="_blank" rel="noopener">the docs</a>
+        for details &mdash; including <code>match</code> &amp; <code>multi_match</code>.</p>
+        <ul><li>First point</li><li>Second point with <b>bold</b></li><li>Third&nbsp;point</li></ul>
+        <blockquote><p>Quoted paragraph with an <img src="/upload/a.png" alt="image"> inline.</p>
+        </blockquote>
+        <table><thead><tr><th>Name</th><th>Value</th></tr></thead>
+        <tbody><tr><td>shards</td><td>1</td></tr><tr><td>replicas</td><td>0</td></tr></tbody>
+        </table>
+        """;
+
+    private static final String CODE_SECTION = """
+        <p>Configure the client as follows:</p>
+        <pre><code class="language-java">var client = new RestHighLevelClient(
+            RestClient.builder(new HttpHost("http", "localhost", 9200)));
+        if (a &lt; b &amp;&amp; c &gt; d) {
+            client.search(request, RequestOptions.DEFAULT);
+        }
+        </code></pre>
+        <script>window.dataLayer = window.dataLayer || []; function gtag(){}</script>
+        <style>.hljs { background: #f6f8fa; }</style>
+        <!-- generated by the markdown editor -->
+        """;
+
+    private static final String CJK_SECTION = """
+        <h3>全文检索</h3>
+        <p>Halo 是一款现代化的<strong>开源建站工具</strong>，通过插件可以集成
+        <a href="https://opensearch.org">Opensearch</a> 提供全文检索能力。中文分词使用
+        <code>hanlp_standard</code> 分析器，支持&ldquo;短语查询&rdquo;与高亮。</p>
+        <ol><li>安装插件</li><li>配置服务地址与端口</li><li>重建索引</li></ol>
+        <p>日本語のテキストと한국어 텍스트도 함께 색인됩니다。</p>
+        """;
+}
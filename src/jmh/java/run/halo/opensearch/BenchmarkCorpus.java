@@ -0,0 +1,96 @@
+package run.halo.opensearch;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import run.halo.app.search.HaloDocument;
+
+/**
+ * 基准测试使用的合成文档集，篇幅与标记密度接近真实站点。
+ */
+final class BenchmarkCorpus {
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * @param corpus {@code short}：约 2KB 的短文；{@code article}：约 100KB 的长文，含代码块与表格；
+     * {@code cjk}：约 20KB 以中日韩文字为主的文章
+     */
+    static List<HaloDocument> documents(String corpus, int count) {
+        var documents = new ArrayList<HaloDocument>(count);
+        for (int i = 0; i < count; i++) {
+            documents.add(document(corpus, i));
+        }
+        return documents;
+    }
+
+    static HaloDocument document(String corpus, int i) {
+        var content = switch (corpus) {
+            case "article" -> html(ARTICLE_SECTION, 100 * 1024, i);
+            case "cjk" -> html(CJK_SECTION, 20 * 1024, i);
+            default -> html(SHORT_SECTION, 2 * 1024, i);
+        };
+        var document = new HaloDocument();
+        document.setId("post.content.halo.run-post-" + i);
+        document.setMetadataName("post-" + i);
+        document.setAnnotations(Map.of("content.halo.run/pinned", "false"));
+        document.setTitle("cjk".equals(corpus) ? "全文检索实践 第 " + i + " 篇"
+            : "Full text search in practice, part " + i);
+        document.setDescription("<p>A short <strong>description</strong> of post " + i + "</p>");
+        document.setContent(content);
+        document.setCategories(List.of("category-" + i % 5, "category-" + i % 7));
+        document.setTags(List.of("tag-" + i % 3, "tag-" + i % 11, "tag-" + i % 13));
+        document.setPublished(true);
+        document.setExposed(true);
+        document.setOwnerName("admin");
+        document.setCreationTimestamp(Instant.parse("2024-01-01T00:00:00Z").plusSeconds(i));
+        document.setUpdateTimestamp(Instant.parse("2024-06-01T00:00:00Z").plusSeconds(i));
+        document.setPermalink("/archives/post-" + i);
+        document.setType("post.content.halo.run");
+        return document;
+    }
+
+    private static String html(String section, int targetLength, int i) {
+        var sb = new StringBuilder(targetLength + section.length());
+        // 每篇文档开头不同，避免各文档的指纹与内容完全一致
+        sb.append("<article><h1>Post ").append(i).append("</h1>");
+        while (sb.length() < targetLength) {
+            sb.append(section);
+        }
+        return sb.append("</article>").toString();
+    }
+
+    private static final String SHORT_SECTION = """
+        <p>Search engines <strong>tokenize</strong> text into terms, and the <em>inverted
+        index</em> maps each term to the documents containing it. See
+        <a href="https://opensearch.org/docs/latest/">the docs</a> for details &mdash;
+        including <code>match</code> &amp; <code>multi_match</code>.</p>
+        """;
+
+    private static final String ARTICLE_SECTION = """
+        <h2 id="section">A section heading</h2>
+        <p>Search engines <strong>tokenize</strong> text into terms, and the <em>inverted
+        index</em> maps each term to the documents containing it.</p>
+        <ul><li>First point</li><li>Second point with <b>bold</b></li><li>Third&nbsp;point</li></ul>
+        <pre><code class="language-java">var client = new RestHighLevelClient(
+            RestClient.builder(new HttpHost("http", "localhost", 9200)));
+        if (a &lt; b &amp;&amp; c &gt; d) {
+            client.search(request, RequestOptions.DEFAULT);
+        }
+        </code></pre>
+        <table><thead><tr><th>Name</th><th>Value</th></tr></thead>
+        <tbody><tr><td>shards</td><td>1</td></tr><tr><td>replicas</td><td>0</td></tr></tbody>
+        </table>
+        """;
+
+    private static final String CJK_SECTION = """
+        <h3>全文检索</h3>
+        <p>Halo 是一款现代化的<strong>开源建站工具</strong>，通过插件可以集成全文检索能力。
+        中文分词使用<code>hanlp_standard</code>分析器，支持&ldquo;短语查询&rdquo;与高亮。
+        倒排索引记录每个词项出现在哪些文档中，查询时合并各词项的文档列表并计算相关度。</p>
+        <ol><li>安装插件</li><li>配置服务地址与端口</li><li>重建索引</li></ol>
+        <p>日本語のテキストも一緒にインデックスされます。한국어 텍스트도 함께 색인됩니다。</p>
+        """;
+}
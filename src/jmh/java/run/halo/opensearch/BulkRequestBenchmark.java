@@ -0,0 +1,66 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.client.BulkRequestEncoder;
+import org.opensearch.client.Request;
+import run.halo.meilisearch.HtmlUtils;
+
+/**
+ * 一个 bulk 请求的构建开销：把已序列化的文档加入 {@link BulkRequest}，以及客户端将其编码为
+ * NDJSON 请求体。文档的清洗与序列化见 {@link DocumentPreparationBenchmark}。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BulkRequestBenchmark {
+
+    @Param({"short", "article", "cjk"})
+    public String corpus;
+
+    @Param({"100", "1000"})
+    public int batchSize;
+
+    private List<IndexRequest> requests;
+
+    private BulkRequest bulkRequest;
+
+    @Setup
+    public void setup() throws IOException {
+        requests = new ArrayList<>(batchSize);
+        for (var document : BenchmarkCorpus.documents(corpus, batchSize)) {
+            var serialized = DocumentSerializer.serializeWithFingerprint(document,
+                HtmlUtils.Extractor.STREAMING);
+            requests.add(new IndexRequest("halo")
+                .id(document.getMetadataName())
+                .source(serialized.source()));
+        }
+        bulkRequest = buildBulkRequest();
+    }
+
+    @Benchmark
+    public BulkRequest buildBulkRequest() {
+        var bulk = new BulkRequest();
+        for (var request : requests) {
+            bulk.add(request);
+        }
+        return bulk;
+    }
+
+    @Benchmark
+    public Request encodeBulkBody() throws IOException {
+        return BulkRequestEncoder.encode(bulkRequest);
+    }
+}
@@ -0,0 +1,59 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.opensearch.action.index.IndexRequest;
+import run.halo.app.search.HaloDocument;
+import run.halo.meilisearch.HtmlUtils;
+
+/**
+ * 单个文档写入前的各阶段开销：清洗 HTML、序列化并计算指纹、构建索引请求。
+ *
+ * <p>各阶段依次包含前一阶段，相减即为该阶段本身的耗时。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DocumentPreparationBenchmark {
+
+    @Param({"short", "article", "cjk"})
+    public String corpus;
+
+    @Param({"STREAMING", "JSOUP"})
+    public HtmlUtils.Extractor extractor;
+
+    private HaloDocument document;
+
+    @Setup
+    public void setup() {
+        document = BenchmarkCorpus.document(corpus, 0);
+    }
+
+    @Benchmark
+    public void stripHtml(Blackhole blackhole) {
+        blackhole.consume(HtmlUtils.stripHtmlAndTrim(document.getDescription(), extractor));
+        blackhole.consume(HtmlUtils.stripHtmlAndTrim(document.getContent(), extractor));
+    }
+
+    @Benchmark
+    public DocumentSerializer.Fingerprinted serialize() throws IOException {
+        return DocumentSerializer.serializeWithFingerprint(document, extractor);
+    }
+
+    @Benchmark
+    public IndexRequest indexRequest() throws IOException {
+        var serialized = DocumentSerializer.serializeWithFingerprint(document, extractor);
+        return new IndexRequest("halo")
+            .id(document.getMetadataName())
+            .source(serialized.source());
+    }
+}
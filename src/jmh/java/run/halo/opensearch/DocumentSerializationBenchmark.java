@@ -0,0 +1,86 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.common.xcontent.XContentType;
+import run.halo.app.infra.utils.JsonUtils;
+import run.halo.app.search.HaloDocument;
+import run.halo.meilisearch.HtmlUtils;
+
+/**
+ * 比较单个文档构建索引请求的开销：原先的 JSON 往返克隆 + 字符串 source，
+ * 与 {@link DocumentSerializer} 直接写入 XContent 的方式。
+ *
+ * <p>配合 {@code -prof gc} 查看 {@code gc.alloc.rate.norm}，即每个文档的分配字节数。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DocumentSerializationBenchmark {
+
+    @Param({"2", "100"})
+    public int contentKb;
+
+    private HaloDocument document;
+
+    @Setup
+    public void setup() {
+        document = new HaloDocument();
+        document.setId("post.content.halo.run-benchmark");
+        document.setMetadataName("benchmark");
+        document.setAnnotations(Map.of("content.halo.run/pinned", "false"));
+        document.setTitle("Benchmark post");
+        document.setDescription("<p>A short <strong>description</strong></p>");
+        document.setContent(html(contentKb * 1024));
+        document.setCategories(List.of("category-a", "category-b"));
+        document.setTags(List.of("tag-a", "tag-b", "tag-c"));
+        document.setPublished(true);
+        document.setExposed(true);
+        document.setOwnerName("admin");
+        document.setCreationTimestamp(Instant.parse("2024-01-01T00:00:00Z"));
+        document.setUpdateTimestamp(Instant.parse("2024-06-01T00:00:00Z"));
+        document.setPermalink("/archives/benchmark");
+        document.setType("post.content.halo.run");
+    }
+
+    @Benchmark
+    public IndexRequest jsonRoundTrip() throws IOException {
+        var json = JsonUtils.mapper().writeValueAsString(document);
+        var cleaned = JsonUtils.mapper().readValue(json, HaloDocument.class);
+        cleaned.setDescription(HtmlUtils.stripHtmlAndTrim(document.getDescription()));
+        cleaned.setContent(HtmlUtils.stripHtmlAndTrim(document.getContent()));
+        return new IndexRequest("halo")
+            .id(cleaned.getMetadataName())
+            .source(JsonUtils.mapper().writeValueAsString(cleaned), XContentType.JSON);
+    }
+
+    @Benchmark
+    public IndexRequest streamingSerializer() throws IOException {
+        return new IndexRequest("halo")
+            .id(document.getMetadataName())
+            .source(DocumentSerializer.serialize(document));
+    }
+
+    static String html(int targetLength) {
+        var paragraph = "<p>Halo 是一款现代化的开源建站工具，<strong>Opensearch</strong> provides "
+            + "<a href=\"https://opensearch.org\">full text search</a> &amp; analytics.</p>\n";
+        var sb = new StringBuilder(targetLength + paragraph.length());
+        sb.append("<article><h1>Benchmark</h1>");
+        while (sb.length() < targetLength) {
+            sb.append(paragraph);
+        }
+        return sb.append("</article>").toString();
+    }
+}
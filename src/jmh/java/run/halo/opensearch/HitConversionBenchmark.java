@@ -0,0 +1,126 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.opensearch.action.search.SearchResponse;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.common.xcontent.json.JsonXContent;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.xcontent.DeprecationHandler;
+import org.opensearch.core.xcontent.NamedXContentRegistry;
+import org.opensearch.core.xcontent.XContentBuilder;
+import org.opensearch.search.SearchHit;
+import run.halo.app.search.HaloDocument;
+import run.halo.meilisearch.HtmlUtils;
+
+/**
+ * 搜索响应转换为 {@link HaloDocument} 的开销：客户端解析响应 JSON，以及
+ * {@link OpensearchSearchEngine#convertHits} 从 {@code _source} 反序列化并应用高亮。
+ *
+ * <p>响应 JSON 在 setup 中按 Opensearch 的返回格式生成一次，{@code _source} 即
+ * {@link DocumentSerializer} 写入索引的内容；{@code snippet} 与搜索的默认投影一致，不返回正文。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HitConversionBenchmark {
+
+    @Param({"short", "article", "cjk"})
+    public String corpus;
+
+    @Param({"snippet", "full"})
+    public String projection;
+
+    @Param({"10", "50"})
+    public int hits;
+
+    private byte[] responseJson;
+
+    private SearchHit[] searchHits;
+
+    @Setup
+    public void setup() throws IOException {
+        responseJson = responseJson(BenchmarkCorpus.documents(corpus, hits),
+            "full".equals(projection));
+        searchHits = parseResponse().getHits().getHits();
+    }
+
+    @Benchmark
+    public SearchResponse parseResponse() throws IOException {
+        try (var parser = JsonXContent.jsonXContent.createParser(NamedXContentRegistry.EMPTY,
+            DeprecationHandler.THROW_UNSUPPORTED_OPERATION, responseJson)) {
+            return SearchResponse.fromXContent(parser);
+        }
+    }
+
+    @Benchmark
+    public List<HaloDocument> convertHits() {
+        return OpensearchSearchEngine.convertHits(searchHits);
+    }
+
+    private static byte[] responseJson(List<HaloDocument> documents, boolean fullSource)
+        throws IOException {
+        var builder = XContentFactory.jsonBuilder();
+        builder.startObject()
+            .field("took", 12)
+            .field("timed_out", false);
+        builder.startObject("_shards")
+            .field("total", 1)
+            .field("successful", 1)
+            .field("skipped", 0)
+            .field("failed", 0)
+            .endObject();
+        builder.startObject("hits");
+        builder.startObject("total")
+            .field("value", documents.size())
+            .field("relation", "eq")
+            .endObject();
+        builder.field("max_score", 7.5);
+        builder.startArray("hits");
+        for (int i = 0; i < documents.size(); i++) {
+            writeHit(builder, documents.get(i), 7.5 - i * 0.1, fullSource);
+        }
+        builder.endArray();
+        builder.endObject();
+        builder.endObject();
+        return BytesReference.toBytes(BytesReference.bytes(builder));
+    }
+
+    private static void writeHit(XContentBuilder builder, HaloDocument document, double score,
+        boolean fullSource) throws IOException {
+        var content = HtmlUtils.stripHtmlAndTrim(document.getContent());
+        var source = DocumentSerializer.serializeWithFingerprint(document,
+            HtmlUtils.Extractor.STREAMING).source();
+        builder.startObject()
+            .field("_index", "halo")
+            .field("_id", document.getMetadataName())
+            .field("_score", score);
+        try (var parser = JsonXContent.jsonXContent.createParser(NamedXContentRegistry.EMPTY,
+            DeprecationHandler.THROW_UNSUPPORTED_OPERATION,
+            BytesReference.bytes(source).streamInput())) {
+            var map = parser.map();
+            // 与 buildSearchSource 的 fetchSource 排除项一致
+            map.remove(DocumentSerializer.FINGERPRINT_FIELD);
+            map.remove(DocumentSerializer.SUGGEST_FIELD);
+            if (!fullSource) {
+                map.remove("content");
+            }
+            builder.field("_source", map);
+        }
+        builder.startObject("highlight");
+        builder.array("title", "<B>Full</B> text <B>search</B> " + document.getTitle());
+        builder.array("content", "<B>search</B> " + content.substring(0,
+            Math.min(content.length(), OpensearchSearchEngine.DEFAULT_FRAGMENT_SIZE)));
+        builder.endObject();
+        builder.endObject();
+    }
+}
@@ -0,0 +1,372 @@
+package run.halo.opensearch;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import run.halo.app.extension.ExtensionClient;
+import run.halo.app.infra.utils.JsonUtils;
+import run.halo.app.search.HaloDocument;
+import run.halo.app.search.SearchOption;
+
+/**
+ * 端到端负载测试：以 {@link MockOpensearchServer} 代替集群，通过真实的
+ * {@link OpensearchSearchEngine} 并发执行搜索与全量重建，报告吞吐、延迟与内存分配速率。
+ *
+ * <p>运行 {@code ./gradlew loadTest}，参数以 {@code -PloadTest.<name>=<value>} 传入，见 {@link Config}；
+ * {@code -PloadTest.engine.<property>=<value>} 覆盖引擎配置，例如
+ * {@code -PloadTest.engine.bulkConcurrentRequests=4}。
+ */
+public final class LoadTest {
+
+    private static final String[] VOCABULARY = {
+        "opensearch", "halo", "plugin", "index", "search", "analyzer", "shard", "replica",
+        "bulk", "segment", "merge", "refresh", "highlight", "query", "filter", "score",
+        "检索", "分词", "索引", "插件", "高亮", "文章", "标签", "分类",
+    };
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        var config = Config.fromSystemProperties();
+        System.out.println("Load test: " + config);
+        try (var server = new MockOpensearchServer(config.serverThreads(),
+            config.bulkLatencyMillis(), config.searchLatencyMillis(), config.rejectRate())) {
+            var deadLetters = new AtomicLong();
+            var extensionClient = extensionClient(deadLetters);
+            var metrics = new OpensearchMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP);
+            var opensearchClient = new OpensearchClient();
+            var engine = new OpensearchSearchEngine(extensionClient,
+                new DeadLetterStore(extensionClient), opensearchClient, metrics,
+                Files.createTempDirectory(OpensearchSearchEngine.FALLBACK_DIRECTORY));
+            try {
+                engine.onApplicationEvent(
+                    new ConfigUpdatedEvent(LoadTest.class, properties(server.port())));
+                if (!engine.available()) {
+                    throw new IllegalStateException("Engine failed to start against mock server");
+                }
+                run(config, engine, server, opensearchClient, metrics, deadLetters);
+            } finally {
+                engine.destroy();
+                metrics.destroy();
+                opensearchClient.destroy();
+            }
+        }
+    }
+
+    private static void run(Config config, OpensearchSearchEngine engine,
+        MockOpensearchServer server, OpensearchClient opensearchClient, OpensearchMetrics metrics,
+        AtomicLong deadLetters) throws InterruptedException {
+        var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        var gcBefore = gcStats();
+        var allocatedBefore = threadBean.getTotalThreadAllocatedBytes();
+        var serverAllocatedBefore = allocated(threadBean, server.threadIds());
+
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(config.durationSeconds());
+        var searchLatencies = new ArrayList<long[]>();
+        var searchErrors = new AtomicLong();
+        var done = new CountDownLatch(config.searchThreads() + 1);
+        for (int i = 0; i < config.searchThreads(); i++) {
+            var latencies = new LatencyRecorder();
+            searchLatencies.add(null);
+            var slot = i;
+            Thread.ofPlatform().name("load-search-" + i).start(() -> {
+                try {
+                    while (System.nanoTime() < deadline) {
+                        var start = System.nanoTime();
+                        try {
+                            engine.searchAsync(searchOption()).block(Duration.ofSeconds(30));
+                            latencies.record(System.nanoTime() - start);
+                        } catch (RuntimeException e) {
+                            searchErrors.incrementAndGet();
+                        }
+                    }
+                } finally {
+                    synchronized (searchLatencies) {
+                        searchLatencies.set(slot, latencies.toArray());
+                    }
+                    done.countDown();
+                }
+            });
+        }
+
+        var rounds = new LatencyRecorder();
+        var reindexed = new AtomicLong();
+        var maxLeased = new AtomicLong();
+        Thread.ofPlatform().name("load-reindex").start(() -> {
+            try {
+                for (int round = 1; System.nanoTime() < deadline; round++) {
+                    var start = System.nanoTime();
+                    if (reindex(engine, server, config, round, deadLetters)) {
+                        rounds.record(System.nanoTime() - start);
+                        reindexed.addAndGet(config.documents());
+                    }
+                }
+            } finally {
+                done.countDown();
+            }
+        });
+
+        // 连接池占用只能采样
+        while (!done.await(100, TimeUnit.MILLISECONDS)) {
+            var pool = opensearchClient.poolStats();
+            if (pool != null) {
+                maxLeased.accumulateAndGet(pool.leased(), Math::max);
+            }
+        }
+
+        var elapsedSeconds = config.durationSeconds()
+            + (System.nanoTime() - deadline) / 1e9;
+        var allocated = threadBean.getTotalThreadAllocatedBytes() - allocatedBefore;
+        var serverAllocated = allocated(threadBean, server.threadIds()) - serverAllocatedBefore;
+        var gcAfter = gcStats();
+
+        var latencies = searchLatencies.stream()
+            .filter(Objects::nonNull)
+            .flatMapToLong(Arrays::stream)
+            .sorted()
+            .toArray();
+        var roundLatencies = rounds.toArray();
+        Arrays.sort(roundLatencies);
+        var serverStats = server.stats();
+
+        System.out.println();
+        System.out.printf("Elapsed            %.1f s%n", elapsedSeconds);
+        System.out.printf("Search             %d ok, %d errors, %.1f ops/s, p50 %.2f ms, "
+                + "p99 %.2f ms, max %.2f ms%n",
+            latencies.length, searchErrors.get(), latencies.length / elapsedSeconds,
+            millis(percentile(latencies, 0.5)), millis(percentile(latencies, 0.99)),
+            millis(percentile(latencies, 1)));
+        System.out.printf("Reindex            %d rounds, %d documents, %.1f docs/s, "
+                + "round p50 %.0f ms, max %.0f ms%n",
+            roundLatencies.length, reindexed.get(), reindexed.get() / elapsedSeconds,
+            millis(percentile(roundLatencies, 0.5)), millis(percentile(roundLatencies, 1)));
+        System.out.printf("Bulk               %d requests, %.1f actions and %.1f KB per request, "
+                + "%d items rejected with 429, %d dead letters%n",
+            serverStats.bulkRequests(),
+            (double) serverStats.bulkItems() / Math.max(serverStats.bulkRequests(), 1),
+            serverStats.bulkBytes() / 1024.0 / Math.max(serverStats.bulkRequests(), 1),
+            serverStats.rejectedItems(), deadLetters.get());
+        System.out.printf("Connections        peak %d leased, peak %d concurrent server requests%n",
+            maxLeased.get(), serverStats.maxActiveRequests());
+        System.out.printf("Allocation         engine %.1f MB/s, mock server %.1f MB/s%n",
+            (allocated - serverAllocated) / 1024.0 / 1024 / elapsedSeconds,
+            serverAllocated / 1024.0 / 1024 / elapsedSeconds);
+        System.out.printf("GC                 %d collections, %d ms%n",
+            gcAfter[0] - gcBefore[0], gcAfter[1] - gcBefore[1]);
+        System.out.println();
+        System.out.println("Plugin meters (ms)");
+        for (var meter : metrics.snapshot()) {
+            if (meter.count() == 0 || meter.percentiles().isEmpty()) {
+                continue;
+            }
+            System.out.printf("  %-42s %-36s count %7d, p50 %8.2f, p99 %8.2f, max %8.2f%n",
+                meter.name(), meter.tags(), meter.count(), meter.percentiles().get("p50"),
+                meter.percentiles().get("p99"), meter.max());
+        }
+    }
+
+    /**
+     * 一轮全量重建：清空后提交全部文档，等到模拟服务端确认收到后返回。每轮的文档内容不同，
+     * 不会因指纹未变而被跳过。
+     *
+     * @return 是否在时限内完成
+     */
+    private static boolean reindex(OpensearchSearchEngine engine, MockOpensearchServer server,
+        Config config, int round, AtomicLong deadLetters) {
+        var expected = server.stats().indexedItems() + deadLetters.get() + config.documents();
+        engine.deleteAllAsync().block(Duration.ofSeconds(30));
+        var batch = new ArrayList<HaloDocument>(config.batchSize());
+        for (int i = 0; i < config.documents(); i++) {
+            batch.add(document(i, round, config.contentKb()));
+            if (batch.size() == config.batchSize() || i == config.documents() - 1) {
+                engine.addOrUpdateAsync(List.copyOf(batch)).block(Duration.ofSeconds(30));
+                batch.clear();
+            }
+        }
+        var timeout = System.nanoTime() + TimeUnit.SECONDS.toNanos(120);
+        while (server.stats().indexedItems() + deadLetters.get() < expected) {
+            if (System.nanoTime() > timeout) {
+                System.err.println("Reindex round " + round + " did not complete in 120s");
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static SearchOption searchOption() {
+        var option = new SearchOption();
+        option.setKeyword(VOCABULARY[ThreadLocalRandom.current().nextInt(VOCABULARY.length)]);
+        option.setLimit(10);
+        option.setHighlightPreTag("<B>");
+        option.setHighlightPostTag("</B>");
+        return option;
+    }
+
+    private static HaloDocument document(int i, int round, int contentKb) {
+        var random = ThreadLocalRandom.current();
+        var content = new StringBuilder(contentKb * 1024 + 64).append("<article>");
+        while (content.length() < contentKb * 1024) {
+            content.append("<p>");
+            for (int word = 0; word < 12; word++) {
+                content.append(VOCABULARY[random.nextInt(VOCABULARY.length)]).append(' ');
+            }
+            content.append("<strong>").append(VOCABULARY[random.nextInt(VOCABULARY.length)])
+                .append("</strong></p>");
+        }
+        content.append("</article>");
+
+        var document = new HaloDocument();
+        document.setId("post.content.halo.run-post-" + i);
+        document.setMetadataName("post-" + i);
+        document.setTitle("Post " + i + " " + VOCABULARY[i % VOCABULARY.length]);
+        document.setDescription("<p>Round " + round + " of post " + i + "</p>");
+        document.setContent(content.toString());
+        document.setCategories(List.of("category-" + i % 5));
+        document.setTags(List.of("tag-" + i % 3, "tag-" + i % 7));
+        document.setPublished(true);
+        document.setExposed(true);
+        document.setOwnerName("admin");
+        document.setCreationTimestamp(Instant.parse("2024-01-01T00:00:00Z"));
+        document.setUpdateTimestamp(Instant.parse("2024-01-01T00:00:00Z").plusSeconds(round));
+        document.setPermalink("/archives/post-" + i);
+        document.setType("post.content.halo.run");
+        return document;
+    }
+
+    private static OpensearchProperties properties(int port) {
+        var values = new HashMap<String, Object>();
+        values.put("host", "127.0.0.1");
+        values.put("port", port);
+        values.put("indexName", "halo");
+        // 默认关闭结果缓存，每次搜索都经过连接池与模拟服务端
+        values.put("searchCacheEnabled", false);
+        var prefix = "loadTest.engine.";
+        System.getProperties().forEach((key, value) -> {
+            if (key.toString().startsWith(prefix)) {
+                values.put(key.toString().substring(prefix.length()), value);
+            }
+        });
+        return JsonUtils.mapper().convertValue(values, OpensearchProperties.class);
+    }
+
+    /**
+     * 只统计死信写入次数的 {@link ExtensionClient}，负载测试不需要持久化。
+     */
+    private static ExtensionClient extensionClient(AtomicLong deadLetters) {
+        return (ExtensionClient) Proxy.newProxyInstance(LoadTest.class.getClassLoader(),
+            new Class<?>[] {ExtensionClient.class}, (proxy, method, args) -> {
+                if ("create".equals(method.getName())) {
+                    deadLetters.incrementAndGet();
+                    return null;
+                }
+                if ("fetch".equals(method.getName())) {
+                    return Optional.empty();
+                }
+                if ("toString".equals(method.getName())) {
+                    return "LoadTestExtensionClient";
+                }
+                if (method.getReturnType() == List.class) {
+                    return List.of();
+                }
+                return null;
+            });
+    }
+
+    private static long allocated(com.sun.management.ThreadMXBean threadBean, long[] threadIds) {
+        return Arrays.stream(threadBean.getThreadAllocatedBytes(threadIds))
+            .filter(bytes -> bytes > 0)
+            .sum();
+    }
+
+    private static long[] gcStats() {
+        long count = 0;
+        long time = 0;
+        for (var gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(gc.getCollectionCount(), 0);
+            time += Math.max(gc.getCollectionTime(), 0);
+        }
+        return new long[] {count, time};
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        var index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /**
+     * 单个线程记录的耗时（纳秒）。
+     */
+    private static final class LatencyRecorder {
+
+        private long[] values = new long[1024];
+        private int size;
+
+        synchronized void record(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        synchronized long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    /**
+     * @param durationSeconds 运行时长
+     * @param searchThreads 并发搜索的线程数
+     * @param documents 每轮重建提交的文档数
+     * @param batchSize 每次 {@code addOrUpdate} 提交的文档数，与 Halo 重建时的分批相近
+     * @param contentKb 每个文档正文的大小
+     * @param bulkLatencyMillis 模拟服务端处理每个 bulk 请求的延迟
+     * @param searchLatencyMillis 模拟服务端处理每个搜索请求的延迟
+     * @param rejectRate bulk 条目与搜索请求被以 429 拒绝的比例
+     * @param serverThreads 模拟服务端的处理线程数
+     */
+    record Config(int durationSeconds, int searchThreads, int documents, int batchSize,
+                  int contentKb, int bulkLatencyMillis, int searchLatencyMillis,
+                  double rejectRate, int serverThreads) {
+
+        static Config fromSystemProperties() {
+            return new Config(
+                Integer.getInteger("loadTest.durationSeconds", 30),
+                Integer.getInteger("loadTest.searchThreads", 8),
+                Integer.getInteger("loadTest.documents", 2000),
+                Integer.getInteger("loadTest.batchSize", 100),
+                Integer.getInteger("loadTest.contentKb", 8),
+                Integer.getInteger("loadTest.bulkLatencyMillis", 20),
+                Integer.getInteger("loadTest.searchLatencyMillis", 5),
+                Double.parseDouble(System.getProperty("loadTest.rejectRate", "0.01")),
+                Integer.getInteger("loadTest.serverThreads", 64));
+        }
+    }
+}
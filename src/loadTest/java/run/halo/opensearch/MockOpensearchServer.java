@@ -0,0 +1,301 @@
+package run.halo.opensearch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import lombok.extern.slf4j.Slf4j;
+import run.halo.app.infra.utils.JsonUtils;
+
+/**
+ * 在本地模拟 Opensearch 的 HTTP 接口，供负载测试驱动真实的客户端与引擎。
+ *
+ * <p>只实现引擎用到的接口：ping、索引是否存在与创建、索引设置、刷新、{@code _bulk}、
+ * {@code _search}（含加载指纹所用的 scroll）与 {@code _delete_by_query}。文档保存在内存中，
+ * 搜索不做相关度计算，直接返回已写入的前 {@code size} 个文档，{@code _source} 与默认的摘要投影一样不含正文。
+ *
+ * <p>{@code _bulk} 与 {@code _search} 可配置固定延迟，并按比例返回 429：bulk 中的单个条目被拒绝，
+ * 搜索则整个请求被拒绝，与节点写入、搜索线程池队列满时的表现一致。
+ */
+@Slf4j
+class MockOpensearchServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Set<Long> threadIds = ConcurrentHashMap.newKeySet();
+    private final int bulkLatencyMillis;
+    private final int searchLatencyMillis;
+    private final double rejectRate;
+
+    /**
+     * 文档 ID 到搜索结果中 {@code _source} 的 JSON。
+     */
+    private final Map<String, String> documents = new ConcurrentHashMap<>();
+
+    private final AtomicLong bulkRequests = new AtomicLong();
+    private final AtomicLong bulkItems = new AtomicLong();
+    private final AtomicLong bulkBytes = new AtomicLong();
+    private final AtomicLong indexedItems = new AtomicLong();
+    private final AtomicLong deletedItems = new AtomicLong();
+    private final AtomicLong rejectedItems = new AtomicLong();
+    private final AtomicLong searchRequests = new AtomicLong();
+    private final AtomicLong rejectedSearches = new AtomicLong();
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicInteger maxActiveRequests = new AtomicInteger();
+
+    MockOpensearchServer(int threads, int bulkLatencyMillis, int searchLatencyMillis,
+        double rejectRate) throws IOException {
+        this.bulkLatencyMillis = bulkLatencyMillis;
+        this.searchLatencyMillis = searchLatencyMillis;
+        this.rejectRate = rejectRate;
+        var threadNumber = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            var thread = new Thread(() -> {
+                threadIds.add(Thread.currentThread().threadId());
+                runnable.run();
+            }, "mock-opensearch-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 128);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * 处理请求的线程，负载测试据此把服务端的内存分配从客户端中扣除。
+     */
+    long[] threadIds() {
+        return threadIds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    Stats stats() {
+        return new Stats(bulkRequests.get(), bulkItems.get(), bulkBytes.get(), indexedItems.get(),
+            deletedItems.get(), rejectedItems.get(), searchRequests.get(), rejectedSearches.get(),
+            maxActiveRequests.get(), documents.size());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        var active = activeRequests.incrementAndGet();
+        maxActiveRequests.accumulateAndGet(active, Math::max);
+        try (exchange) {
+            var method = exchange.getRequestMethod();
+            var path = exchange.getRequestURI().getPath();
+            var query = exchange.getRequestURI().getRawQuery();
+            var body = readBody(exchange);
+            if ("HEAD".equals(method)) {
+                // ping 与索引是否存在
+                exchange.sendResponseHeaders(200, -1);
+            } else if (path.endsWith("/_bulk")) {
+                respond(exchange, 200, bulk(body));
+            } else if (path.equals("/_search/scroll")) {
+                respond(exchange, 200, "DELETE".equals(method)
+                    ? "{\"succeeded\":true,\"num_freed\":1}"
+                    : searchResponse(0, true));
+            } else if (path.endsWith("/_search")) {
+                search(exchange, body, query != null && query.contains("scroll="));
+            } else if (path.endsWith("/_delete_by_query")) {
+                respond(exchange, 200, deleteByQuery());
+            } else if (path.contains("/_settings") && "GET".equals(method)) {
+                var index = path.substring(1, path.indexOf('/', 1));
+                respond(exchange, 200, "{\"" + index + "\":{\"settings\":{\"index\":"
+                    + "{\"refresh_interval\":\"1s\",\"number_of_replicas\":\"0\"}}}}");
+            } else if (path.endsWith("/_refresh") || path.endsWith("/_forcemerge")) {
+                respond(exchange, 200,
+                    "{\"_shards\":{\"total\":1,\"successful\":1,\"failed\":0}}");
+            } else if ("PUT".equals(method)) {
+                // 创建索引与更新设置
+                var index = path.substring(1).split("/")[0];
+                respond(exchange, 200, "{\"acknowledged\":true,\"shards_acknowledged\":true,"
+                    + "\"index\":\"" + index + "\"}");
+            } else {
+                respond(exchange, 404, "{\"error\":{\"type\":\"resource_not_found_exception\","
+                    + "\"reason\":\"" + method + " " + path + " is not mocked\"},\"status\":404}");
+            }
+        } catch (RuntimeException e) {
+            log.warn("Mock Opensearch failed to handle request", e);
+            throw e;
+        } finally {
+            activeRequests.decrementAndGet();
+        }
+    }
+
+    private String bulk(byte[] body) throws IOException {
+        bulkRequests.incrementAndGet();
+        bulkBytes.addAndGet(body.length);
+        sleep(bulkLatencyMillis);
+        var lines = new String(body, StandardCharsets.UTF_8).split("\n");
+        var items = new StringBuilder();
+        var errors = false;
+        for (int i = 0; i < lines.length; i++) {
+            if (lines[i].isBlank()) {
+                continue;
+            }
+            var action = JsonUtils.mapper().readTree(lines[i]);
+            var operation = action.fieldNames().next();
+            var metadata = action.get(operation);
+            var index = metadata.path("_index").asText();
+            var id = metadata.path("_id").asText();
+            String source = null;
+            if (!"delete".equals(operation)) {
+                source = lines[++i];
+            }
+            bulkItems.incrementAndGet();
+            if (!items.isEmpty()) {
+                items.append(',');
+            }
+            items.append("{\"").append(operation).append("\":{\"_index\":\"").append(index)
+                .append("\",\"_id\":\"").append(id).append('"');
+            if (reject()) {
+                errors = true;
+                rejectedItems.incrementAndGet();
+                items.append(",\"status\":429,\"error\":{\"type\":")
+                    .append("\"rejected_execution_exception\",\"reason\":")
+                    .append("\"rejected execution of write on mock node\"}}}");
+                continue;
+            }
+            int status;
+            if (source == null) {
+                status = documents.remove(id) != null ? 200 : 404;
+                deletedItems.incrementAndGet();
+            } else {
+                status = documents.put(id, hitSource(source)) == null ? 201 : 200;
+                indexedItems.incrementAndGet();
+            }
+            items.append(",\"_version\":1,\"result\":\"")
+                .append(source == null ? (status == 200 ? "deleted" : "not_found")
+                    : (status == 201 ? "created" : "updated"))
+                .append("\",\"_shards\":{\"total\":1,\"successful\":1,\"failed\":0},")
+                .append("\"_seq_no\":0,\"_primary_term\":1,\"status\":").append(status)
+                .append("}}");
+        }
+        return "{\"took\":" + bulkLatencyMillis + ",\"errors\":" + errors + ",\"items\":["
+            + items + "]}";
+    }
+
+    private static String hitSource(String source) throws IOException {
+        var node = (ObjectNode) JsonUtils.mapper().readTree(source);
+        node.remove("content");
+        node.remove(DocumentSerializer.FINGERPRINT_FIELD);
+        node.remove(DocumentSerializer.SUGGEST_FIELD);
+        return JsonUtils.mapper().writeValueAsString(node);
+    }
+
+    private void search(HttpExchange exchange, byte[] body, boolean scroll) throws IOException {
+        searchRequests.incrementAndGet();
+        sleep(searchLatencyMillis);
+        if (scroll) {
+            // 加载指纹：模拟的索引中没有指纹，返回空结果即可
+            respond(exchange, 200, searchResponse(0, true));
+            return;
+        }
+        if (reject()) {
+            rejectedSearches.incrementAndGet();
+            respond(exchange, 429, "{\"error\":{\"type\":\"rejected_execution_exception\","
+                + "\"reason\":\"rejected execution of search on mock node\"},\"status\":429}");
+            return;
+        }
+        JsonNode request = body.length > 0 ? JsonUtils.mapper().readTree(body) : null;
+        var size = request != null ? request.path("size").asInt(10) : 10;
+        respond(exchange, 200, searchResponse(size, false));
+    }
+
+    private String searchResponse(int size, boolean scroll) {
+        var hits = new StringBuilder();
+        var count = 0;
+        for (var entry : documents.entrySet()) {
+            if (count >= size) {
+                break;
+            }
+            if (count > 0) {
+                hits.append(',');
+            }
+            hits.append("{\"_index\":\"halo\",\"_id\":\"").append(entry.getKey())
+                .append("\",\"_score\":1.0,\"_source\":").append(entry.getValue())
+                .append(",\"sort\":[1.0,\"").append(entry.getKey()).append("\"]}");
+            count++;
+        }
+        return "{" + (scroll ? "\"_scroll_id\":\"mock-scroll\"," : "")
+            + "\"took\":" + searchLatencyMillis + ",\"timed_out\":false,"
+            + "\"_shards\":{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0},"
+            + "\"hits\":{\"total\":{\"value\":" + (scroll ? 0 : documents.size())
+            + ",\"relation\":\"eq\"},\"max_score\":1.0,\"hits\":[" + hits + "]}}";
+    }
+
+    private String deleteByQuery() {
+        var deleted = documents.size();
+        documents.clear();
+        return "{\"took\":1,\"timed_out\":false,\"total\":" + deleted + ",\"deleted\":" + deleted
+            + ",\"batches\":1,\"version_conflicts\":0,\"noops\":0,"
+            + "\"retries\":{\"bulk\":0,\"search\":0},\"throttled_millis\":0,"
+            + "\"requests_per_second\":-1.0,\"throttled_until_millis\":0,\"failures\":[]}";
+    }
+
+    private boolean reject() {
+        return rejectRate > 0 && ThreadLocalRandom.current().nextDouble() < rejectRate;
+    }
+
+    private static byte[] readBody(HttpExchange exchange) throws IOException {
+        InputStream body = exchange.getRequestBody();
+        // 客户端默认压缩请求体
+        var gzip = "gzip".equalsIgnoreCase(
+            exchange.getRequestHeaders().getFirst("Content-Encoding"));
+        try (var in = gzip ? new GZIPInputStream(body) : body) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json)
+        throws IOException {
+        var bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (var out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static void sleep(int millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @param maxActiveRequests 同时处理中的请求数峰值，受客户端连接池上限约束
+     * @param documents 当前保存的文档数
+     */
+    record Stats(long bulkRequests, long bulkItems, long bulkBytes, long indexedItems,
+                 long deletedItems, long rejectedItems, long searchRequests,
+                 long rejectedSearches, int maxActiveRequests, int documents) {
+    }
+}
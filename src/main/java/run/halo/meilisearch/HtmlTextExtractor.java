@@ -0,0 +1,389 @@
+package run.halo.meilisearch;
+
+import java.util.Locale;
+import java.util.Set;
+import org.jsoup.nodes.Entities;
+
+/**
+ * 单遍扫描的 HTML 文本提取器，不构建 DOM。
+ *
+ * <p>输出与 {@code Jsoup.parse(html).text()} 保持一致：块级元素与 {@code <br>} 之间以空格分隔，
+ * 空白折叠为单个空格，{@code <pre>}/{@code <textarea>}/{@code <title>} 内保留原始空白，
+ * 跳过 {@code <script>}、{@code <style>} 等原始文本元素以及注释，并解码字符实体。
+ * 对于严重错误嵌套的标记，结果可能与 Jsoup 的树构建有细微差异；
+ * 指向 U+0000 或代理区的数字字符引用会替换为 U+FFFD，而 Jsoup 原样保留，
+ * 这类孤立代理字符无法被 JSON 序列化。
+ */
+public final class HtmlTextExtractor {
+
+    private static final Set<String> BLOCK_TAGS = Set.of(
+        "html", "head", "body", "frameset", "script", "noscript", "style", "meta", "link",
+        "title", "frame", "noframes", "section", "nav", "aside", "hgroup", "header", "footer",
+        "p", "h1", "h2", "h3", "h4", "h5", "h6", "ul", "ol", "pre", "div", "blockquote", "hr",
+        "address", "figure", "figcaption", "form", "fieldset", "ins", "del", "dl", "dt", "dd",
+        "li", "table", "caption", "thead", "tfoot", "tbody", "colgroup", "col", "tr", "th", "td",
+        "video", "audio", "canvas", "details", "menu", "plaintext", "template", "article", "main",
+        "center", "dir", "applet", "marquee", "listing", "br", "button");
+
+    /**
+     * 内容不计入文本的原始文本元素。
+     */
+    private static final Set<String> SKIPPED_RAW_TEXT_TAGS = Set.of(
+        "script", "style", "xmp", "iframe", "noembed", "noframes");
+
+    /**
+     * 内容按文本处理（解码实体但不解析标签）且保留空白的元素。
+     */
+    private static final Set<String> ESCAPABLE_RAW_TEXT_TAGS = Set.of("title", "textarea");
+
+    /**
+     * 数字字符引用 0x80-0x9F 按 windows-1252 映射，与 HTML 规范及 Jsoup 一致。
+     */
+    private static final char[] WIN1252_EXTENSIONS = {
+        0x20AC, 0x0081, 0x201A, 0x0192, 0x201E, 0x2026, 0x2020, 0x2021,
+        0x02C6, 0x2030, 0x0160, 0x2039, 0x0152, 0x008D, 0x017D, 0x008F,
+        0x0090, 0x2018, 0x2019, 0x201C, 0x201D, 0x2022, 0x2013, 0x2014,
+        0x02DC, 0x2122, 0x0161, 0x203A, 0x0153, 0x009D, 0x017E, 0x0178,
+    };
+
+    private final String html;
+    private final int length;
+    private final StringBuilder out;
+    private int pos;
+    private int preserveDepth;
+
+    private HtmlTextExtractor(String html) {
+        this.html = html;
+        this.length = html.length();
+        // 纯文本通常不到原始 HTML 的一半，避免为大文档一次性分配同等大小的缓冲区
+        this.out = new StringBuilder(Math.min(length, 1 << 16));
+    }
+
+    public static String extract(String html) {
+        if (html == null || html.isEmpty()) {
+            return html;
+        }
+        return new HtmlTextExtractor(html).run();
+    }
+
+    private String run() {
+        while (pos < length) {
+            char c = html.charAt(pos);
+            if (c == '<') {
+                markup();
+            } else if (c == '&') {
+                entity();
+            } else {
+                appendText(c);
+                pos++;
+            }
+        }
+        return trim();
+    }
+
+    private void markup() {
+        int next = pos + 1;
+        if (next >= length) {
+            appendText('<');
+            pos++;
+            return;
+        }
+        char c = html.charAt(next);
+        if (isAsciiLetter(c)) {
+            startTag();
+        } else if (c == '/') {
+            endTag();
+        } else if (c == '!') {
+            if (html.startsWith("--", next + 1)) {
+                skipPast("-->", next + 3);
+            } else {
+                skipPast(">", next + 1);
+            }
+        } else if (c == '?') {
+            skipPast(">", next + 1);
+        } else {
+            appendText('<');
+            pos++;
+        }
+    }
+
+    private void startTag() {
+        int nameStart = pos + 1;
+        int nameEnd = tagNameEnd(nameStart);
+        var name = html.substring(nameStart, nameEnd).toLowerCase(Locale.ROOT);
+        int tagEnd = findTagEnd(nameEnd);
+        if (tagEnd < 0) {
+            // 未闭合的标签在文档末尾，按 HTML 规范丢弃
+            pos = length;
+            return;
+        }
+        pos = tagEnd + 1;
+
+        if (BLOCK_TAGS.contains(name)) {
+            separate();
+        }
+        if (SKIPPED_RAW_TEXT_TAGS.contains(name)) {
+            pos = rawTextEnd(name);
+            return;
+        }
+        if (ESCAPABLE_RAW_TEXT_TAGS.contains(name)) {
+            escapableRawText(name);
+            return;
+        }
+        if ("pre".equals(name) || "listing".equals(name)) {
+            preserveDepth++;
+            skipLeadingNewline();
+        }
+    }
+
+    private void endTag() {
+        int nameStart = pos + 2;
+        if (nameStart >= length) {
+            appendText('<');
+            appendText('/');
+            pos = length;
+            return;
+        }
+        char c = html.charAt(nameStart);
+        if (c == '>') {
+            pos = nameStart + 1;
+            return;
+        }
+        if (!isAsciiLetter(c)) {
+            skipPast(">", nameStart);
+            return;
+        }
+        int nameEnd = tagNameEnd(nameStart);
+        var name = html.substring(nameStart, nameEnd).toLowerCase(Locale.ROOT);
+        int tagEnd = findTagEnd(nameEnd);
+        pos = tagEnd < 0 ? length : tagEnd + 1;
+
+        if (BLOCK_TAGS.contains(name)) {
+            separate();
+        }
+        if (("pre".equals(name) || "listing".equals(name)) && preserveDepth > 0) {
+            preserveDepth--;
+        }
+    }
+
+    private void escapableRawText(String name) {
+        if ("textarea".equals(name)) {
+            skipLeadingNewline();
+        }
+        int end = rawTextEnd(name);
+        preserveDepth++;
+        while (pos < end) {
+            if (html.charAt(pos) == '&') {
+                entity();
+            } else {
+                appendText(html.charAt(pos++));
+            }
+        }
+        preserveDepth--;
+    }
+
+    /**
+     * 返回原始文本元素的结束标签位置，没有结束标签时返回文档末尾。
+     */
+    private int rawTextEnd(String name) {
+        int from = pos;
+        while (true) {
+            int lt = html.indexOf("</", from);
+            if (lt < 0) {
+                return length;
+            }
+            int nameEnd = lt + 2 + name.length();
+            if (html.regionMatches(true, lt + 2, name, 0, name.length())
+                && (nameEnd >= length || isTagNameTerminator(html.charAt(nameEnd)))) {
+                return lt;
+            }
+            from = lt + 2;
+        }
+    }
+
+    private void entity() {
+        int start = pos + 1;
+        if (start < length && html.charAt(start) == '#') {
+            numericEntity(start + 1);
+            return;
+        }
+        int i = start;
+        while (i < length && isAsciiLetter(html.charAt(i))) {
+            i++;
+        }
+        while (i < length && isAsciiDigit(html.charAt(i))) {
+            i++;
+        }
+        if (i > start) {
+            var name = html.substring(start, i);
+            boolean terminated = i < length && html.charAt(i) == ';';
+            if (terminated && Entities.isNamedEntity(name)) {
+                appendDecoded(Entities.getByName(name));
+                pos = i + 1;
+                return;
+            }
+            // 不带分号时只接受基础实体，且与浏览器一样取最长的基础实体前缀，如 &notit -> ¬it
+            for (int end = name.length(); end > 0; end--) {
+                var prefix = name.substring(0, end);
+                if (Entities.isBaseNamedEntity(prefix)) {
+                    appendDecoded(Entities.getByName(prefix));
+                    pos = start + end;
+                    return;
+                }
+            }
+        }
+        appendText('&');
+        pos++;
+    }
+
+    private void numericEntity(int start) {
+        boolean hex = start < length && (html.charAt(start) == 'x' || html.charAt(start) == 'X');
+        int digitsStart = hex ? start + 1 : start;
+        int i = digitsStart;
+        long value = 0;
+        while (i < length) {
+            int digit = Character.digit(html.charAt(i), hex ? 16 : 10);
+            if (digit < 0) {
+                break;
+            }
+            // 超出范围后不再累加，避免溢出
+            if (value <= Character.MAX_CODE_POINT) {
+                value = value * (hex ? 16 : 10) + digit;
+            }
+            i++;
+        }
+        if (i == digitsStart) {
+            appendText('&');
+            pos++;
+            return;
+        }
+        if (i < length && html.charAt(i) == ';') {
+            i++;
+        }
+        pos = i;
+
+        int codePoint;
+        if (value == 0 || value > Character.MAX_CODE_POINT
+            || (value >= Character.MIN_SURROGATE && value <= Character.MAX_SURROGATE)) {
+            codePoint = 0xFFFD;
+        } else if (value >= 0x80 && value < 0x80 + WIN1252_EXTENSIONS.length) {
+            codePoint = WIN1252_EXTENSIONS[(int) value - 0x80];
+        } else {
+            codePoint = (int) value;
+        }
+        if (Character.isBmpCodePoint(codePoint)) {
+            appendText((char) codePoint);
+        } else {
+            appendText(Character.highSurrogate(codePoint));
+            appendText(Character.lowSurrogate(codePoint));
+        }
+    }
+
+    private void appendDecoded(String decoded) {
+        for (int i = 0; i < decoded.length(); i++) {
+            appendText(decoded.charAt(i));
+        }
+    }
+
+    private void appendText(char c) {
+        if (preserveDepth > 0) {
+            out.append(c);
+            return;
+        }
+        if (isWhitespace(c)) {
+            separate();
+        } else if (c != '\u200B' && c != '\u00AD') {
+            // 零宽空格与软连字符不可见，Jsoup 同样会丢弃
+            out.append(c);
+        }
+    }
+
+    /**
+     * 在已有文本后补一个空格作为分隔，已有空格时不重复添加。
+     */
+    private void separate() {
+        int len = out.length();
+        if (len > 0 && out.charAt(len - 1) != ' ') {
+            out.append(' ');
+        }
+    }
+
+    private void skipLeadingNewline() {
+        if (pos < length && html.charAt(pos) == '\n') {
+            pos++;
+        } else if (html.startsWith("\r\n", pos)) {
+            pos += 2;
+        }
+    }
+
+    private void skipPast(String terminator, int from) {
+        int index = html.indexOf(terminator, from);
+        pos = index < 0 ? length : index + terminator.length();
+    }
+
+    private int tagNameEnd(int from) {
+        int i = from;
+        while (i < length && !isTagNameTerminator(html.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * 从标签名之后查找标签结束的 {@code >}，跳过引号包围的属性值。
+     */
+    private int findTagEnd(int from) {
+        int i = from;
+        boolean afterEquals = false;
+        while (i < length) {
+            char c = html.charAt(i);
+            if (c == '>') {
+                return i;
+            }
+            if (afterEquals && (c == '"' || c == '\'')) {
+                int close = html.indexOf(c, i + 1);
+                if (close < 0) {
+                    return -1;
+                }
+                i = close + 1;
+                afterEquals = false;
+                continue;
+            }
+            if (c == '=') {
+                afterEquals = true;
+            } else if (!isWhitespace(c)) {
+                afterEquals = false;
+            }
+            i++;
+        }
+        return -1;
+    }
+
+    private String trim() {
+        int start = 0;
+        int end = out.length();
+        while (start < end && out.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && out.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return out.substring(start, end);
+    }
+
+    private static boolean isTagNameTerminator(char c) {
+        return c == '>' || c == '/' || isWhitespace(c);
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == '\u00A0';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -1,22 +1,46 @@
 package run.halo.meilisearch;
 
 import org.jsoup.Jsoup;
-import org.jsoup.safety.Safelist;
 
 public final class HtmlUtils {
 
     private HtmlUtils() {
     }
 
+    /**
+     * HTML 转纯文本的实现方式。
+     */
+    public enum Extractor {
+        /**
+         * 单遍扫描，不构建 DOM，见 {@link HtmlTextExtractor}。
+         */
+        STREAMING,
+        /**
+         * 使用 Jsoup 解析为完整 DOM 后取文本，作为兼容回退。
+         */
+        JSOUP
+    }
+
     public static String stripHtml(String content) {
+        return stripHtml(content, Extractor.STREAMING);
+    }
+
+    public static String stripHtml(String content, Extractor extractor) {
         if (content == null || content.isEmpty()) {
             return content;
         }
-        return Jsoup.parse(content).text();
+        if (extractor == Extractor.JSOUP) {
+            return Jsoup.parse(content).text();
+        }
+        return HtmlTextExtractor.extract(content);
     }
 
     public static String stripHtmlAndTrim(String content) {
-        String cleaned = stripHtml(content);
+        return stripHtmlAndTrim(content, Extractor.STREAMING);
+    }
+
+    public static String stripHtmlAndTrim(String content, Extractor extractor) {
+        String cleaned = stripHtml(content, extractor);
         return cleaned != null ? cleaned.trim() : null;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,116 @@
+package run.halo.opensearch;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.opensearch.OpenSearchException;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.core.rest.RestStatus;
+import reactor.core.publisher.Mono;
+
+/**
+ * 按 AIMD（加性增、乘性减）自适应调整的并发上限。
+ *
+ * <p>在途请求达到上限时新请求立即以 429 失败，不排队等待。请求成功且并发已用到上限的一半以上时上限加一；
+ * 请求超过截止时间或集群返回 429、503 时上限乘以 {@value #BACKOFF_RATIO}，最低为 1。
+ * 集群变慢时上限随之收缩，调用线程不会堆积在集群后面。
+ */
+class AdaptiveLimiter {
+
+    static final int INITIAL_LIMIT = 10;
+    static final double BACKOFF_RATIO = 0.9;
+
+    private final String name;
+    private final int maxLimit;
+
+    private int limit;
+    private int inflight;
+
+    AdaptiveLimiter(String name, int maxLimit) {
+        this.name = name;
+        this.maxLimit = Math.max(maxLimit, 1);
+        this.limit = Math.min(INITIAL_LIMIT, this.maxLimit);
+    }
+
+    synchronized int limit() {
+        return limit;
+    }
+
+    synchronized int inflight() {
+        return inflight;
+    }
+
+    synchronized boolean tryAcquire() {
+        if (inflight >= limit) {
+            return false;
+        }
+        inflight++;
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        if (inflight * 2 >= limit) {
+            limit = Math.min(limit + 1, maxLimit);
+        }
+        inflight--;
+    }
+
+    synchronized void onDropped() {
+        limit = Math.max((int) (limit * BACKOFF_RATIO), 1);
+        inflight--;
+    }
+
+    synchronized void onIgnored() {
+        inflight--;
+    }
+
+    /**
+     * 在并发上限内执行 {@code action}，超出上限时立即失败。
+     */
+    <T> Mono<T> execute(Mono<T> action) {
+        return Mono.defer(() -> {
+            if (!tryAcquire()) {
+                return Mono.error(new OpenSearchStatusException(
+                    "Too many concurrent " + name + " requests", RestStatus.TOO_MANY_REQUESTS));
+            }
+            var released = new AtomicBoolean();
+            return action
+                .doOnSuccess(value -> {
+                    if (released.compareAndSet(false, true)) {
+                        onSuccess();
+                    }
+                })
+                .doOnError(e -> {
+                    if (released.compareAndSet(false, true)) {
+                        if (isOverload(e)) {
+                            onDropped();
+                        } else {
+                            onIgnored();
+                        }
+                    }
+                })
+                .doOnCancel(() -> {
+                    if (released.compareAndSet(false, true)) {
+                        onIgnored();
+                    }
+                });
+        });
+    }
+
+    /**
+     * 在并发上限内、截止时间（见 {@link Deadline#apply}）之前执行 {@code action}。
+     * 超时在限流器之内生效，记为过载使上限收缩；在外层超时只会表现为取消，不影响上限。
+     */
+    <T> Mono<T> execute(Mono<T> action, Duration defaultTimeout) {
+        return execute(Deadline.apply(action, defaultTimeout));
+    }
+
+    static boolean isOverload(Throwable failure) {
+        if (failure instanceof TimeoutException) {
+            return true;
+        }
+        return failure instanceof OpenSearchException e
+            && (e.status() == RestStatus.TOO_MANY_REQUESTS
+            || e.status() == RestStatus.SERVICE_UNAVAILABLE);
+    }
+}
@@ -0,0 +1,203 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.admin.indices.alias.IndicesAliasesRequest;
+import org.opensearch.action.admin.indices.alias.IndicesAliasesRequest.AliasActions;
+import org.opensearch.action.admin.indices.alias.get.GetAliasesRequest;
+import org.opensearch.action.admin.indices.delete.DeleteIndexRequest;
+import org.opensearch.action.delete.DeleteRequest;
+import org.opensearch.client.RequestOptions;
+import org.opensearch.client.RestHighLevelClient;
+import org.opensearch.client.indices.GetIndexRequest;
+import org.opensearch.common.settings.Settings;
+
+/**
+ * 一次蓝绿重建：写入新的版本索引 {@code <alias>_v<N>}，完成后原子地把别名切换过去。
+ *
+ * <p>重建期间搜索仍通过别名访问旧索引，不会看到不完整的结果，也不会产生 delete-by-query 的墓碑文档。
+ * 新索引在加载期间使用 {@link BulkLoadProfile}，完成时恢复。旧版本按保留数量删除。
+ */
+@Slf4j
+class BlueGreenRebuild {
+
+    static final int DEFAULT_RETAIN_VERSIONS = 1;
+    static final int DEFAULT_QUIET_SECONDS = 30;
+
+    private final RestHighLevelClient client;
+    private final String alias;
+    private final String targetIndex;
+    private final int retainVersions;
+    private final BulkIndexer indexer;
+    private final BulkLoadProfile bulkLoadProfile;
+    private final boolean forceMerge;
+    private final List<DocWriteRequest<?>> lateRequests = new ArrayList<>();
+    private boolean completing;
+
+    private BlueGreenRebuild(RestHighLevelClient client, String alias, String targetIndex,
+        int retainVersions, BulkIndexer indexer, BulkLoadProfile bulkLoadProfile,
+        boolean forceMerge) {
+        this.client = client;
+        this.alias = alias;
+        this.targetIndex = targetIndex;
+        this.retainVersions = retainVersions;
+        this.indexer = indexer;
+        this.bulkLoadProfile = bulkLoadProfile;
+        this.forceMerge = forceMerge;
+    }
+
+    /**
+     * 创建下一个版本的索引并开始接收写入。
+     */
+    static BlueGreenRebuild start(RestHighLevelClient client, CircuitBreaker circuitBreaker,
+        OpensearchProperties properties, DeadLetterStore deadLetterStore, Runnable afterBulk,
+        Consumer<DocWriteRequest<?>> onDeadLetter, OpensearchMetrics metrics) throws IOException {
+        var alias = properties.getIndexName();
+        var versions = listVersions(client, alias);
+        int next = versions.isEmpty() ? 1 : versions.get(versions.size() - 1).version() + 1;
+        var targetIndex = versionedName(alias, next);
+
+        var request = IndexTemplate.createIndexRequest(targetIndex, properties);
+        if (properties.isBulkLoadEnabled()) {
+            request.settings(Settings.builder()
+                .put(request.settings())
+                .put(BulkLoadProfile.SETTINGS));
+        }
+        client.indices().create(request, RequestOptions.DEFAULT);
+        log.info("Started blue/green rebuild of [{}] into [{}]", alias, targetIndex);
+
+        var retain = properties.getRebuildRetainVersions() >= 0
+            ? properties.getRebuildRetainVersions() : DEFAULT_RETAIN_VERSIONS;
+        return new BlueGreenRebuild(client, alias, targetIndex, retain,
+            new BulkIndexer(client, circuitBreaker, properties, deadLetterStore, afterBulk, onDeadLetter,
+                metrics),
+            BulkLoadProfile.forNewIndex(client, targetIndex,
+                IndexTemplate.numberOfReplicas(properties)),
+            properties.isForceMergeAfterRebuild());
+    }
+
+    String targetIndex() {
+        return targetIndex;
+    }
+
+    /**
+     * 将写入请求转到新索引。完成阶段开始后不再接收，返回 {@code false}，
+     * 由调用方写入当前别名，切换后这些请求会再次写入新索引。
+     */
+    synchronized boolean offer(DocWriteRequest<?> request) {
+        if (completing) {
+            lateRequests.add(request);
+            return false;
+        }
+        if (request instanceof DeleteRequest delete) {
+            // 删除同时作用于当前别名，这里使用副本，避免修改调用方仍要发往别名的请求
+            indexer.add(new DeleteRequest(targetIndex, delete.id()));
+        } else {
+            request.index(targetIndex);
+            indexer.add(request);
+        }
+        return true;
+    }
+
+    /**
+     * 等待写入完成，恢复索引设置并切换别名。
+     *
+     * @return 完成阶段期间写入旧索引、需要在切换后重新写入的请求
+     */
+    List<DocWriteRequest<?>> complete() throws IOException {
+        synchronized (this) {
+            completing = true;
+        }
+        indexer.close();
+
+        bulkLoadProfile.restore(forceMerge);
+        swapAlias();
+        log.info("Alias [{}] now points to [{}]", alias, targetIndex);
+        deleteOldVersions();
+
+        synchronized (this) {
+            return List.copyOf(lateRequests);
+        }
+    }
+
+    /**
+     * 放弃本次重建并删除新索引。
+     */
+    void abort() {
+        synchronized (this) {
+            completing = true;
+        }
+        indexer.close();
+        try {
+            client.indices().delete(new DeleteIndexRequest(targetIndex), RequestOptions.DEFAULT);
+            log.info("Aborted blue/green rebuild, deleted [{}]", targetIndex);
+        } catch (Exception e) {
+            log.warn("Failed to delete index [{}] of aborted rebuild", targetIndex, e);
+        }
+    }
+
+    private void swapAlias() throws IOException {
+        var request = new IndicesAliasesRequest();
+        var holders = client.indices().getAlias(new GetAliasesRequest(alias),
+            RequestOptions.DEFAULT).getAliases().keySet();
+        for (var holder : holders) {
+            request.addAliasAction(AliasActions.remove().index(holder).alias(alias));
+        }
+        if (holders.isEmpty() && client.indices().exists(new GetIndexRequest(alias),
+            RequestOptions.DEFAULT)) {
+            // 旧版本直接使用别名作为索引名，在同一请求中删除该索引，别名才能占用这个名字
+            request.addAliasAction(AliasActions.removeIndex().index(alias));
+        }
+        request.addAliasAction(AliasActions.add().index(targetIndex).alias(alias));
+        client.indices().updateAliases(request, RequestOptions.DEFAULT);
+    }
+
+    private void deleteOldVersions() {
+        try {
+            var previous = listVersions(client, alias).stream()
+                .filter(version -> !version.name().equals(targetIndex))
+                .sorted(Comparator.comparingInt(IndexVersion::version).reversed())
+                .skip(retainVersions)
+                .map(IndexVersion::name)
+                .toArray(String[]::new);
+            if (previous.length > 0) {
+                client.indices().delete(new DeleteIndexRequest(previous), RequestOptions.DEFAULT);
+                log.info("Deleted previous index versions {}", List.of(previous));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to delete previous versions of [{}]", alias, e);
+        }
+    }
+
+    static String versionedName(String alias, int version) {
+        return alias + "_v" + version;
+    }
+
+    /**
+     * 按版本号升序列出 {@code <alias>_v<N>} 形式的索引。
+     */
+    static List<IndexVersion> listVersions(RestHighLevelClient client, String alias)
+        throws IOException {
+        var pattern = Pattern.compile(Pattern.quote(alias) + "_v(\\d+)");
+        var indices = client.indices().get(new GetIndexRequest(alias + "_v*"),
+            RequestOptions.DEFAULT).getIndices();
+        var versions = new ArrayList<IndexVersion>();
+        for (var index : indices) {
+            var matcher = pattern.matcher(index);
+            if (matcher.matches()) {
+                versions.add(new IndexVersion(index, Integer.parseInt(matcher.group(1))));
+            }
+        }
+        versions.sort(Comparator.comparingInt(IndexVersion::version));
+        return versions;
+    }
+
+    record IndexVersion(String name, int version) {
+    }
+}
@@ -0,0 +1,301 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.OpenSearchException;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.bulk.BackoffPolicy;
+import org.opensearch.action.bulk.BulkProcessor;
+import org.opensearch.action.bulk.BulkRequest;
+import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.client.RequestOptions;
+import org.opensearch.client.ResponseException;
+import org.opensearch.client.RestHighLevelClient;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.core.common.unit.ByteSizeUnit;
+import org.opensearch.core.common.unit.ByteSizeValue;
+import org.opensearch.core.rest.RestStatus;
+
+/**
+ * 后台批量写入管道。
+ *
+ * <p>写入请求先进入缓冲区，达到条数上限、字节上限或刷新间隔任一条件时作为一个 bulk 请求发送。
+ * 同时在途的 bulk 数量受 {@code bulkConcurrentRequests} 限制，超出时 {@link #add} 会阻塞调用方，
+ * 以此在集群变慢时形成背压，而不是在内存中无限堆积请求。
+ *
+ * <p>bulk 响应按条目检查：可重试的失败（429、502、503、504 或连接异常）只重新提交失败的条目，
+ * 按指数退避延迟；不可重试或重试耗尽的条目写入 {@link DeadLetterStore}。
+ */
+@Slf4j
+class BulkIndexer implements AutoCloseable {
+
+    static final int DEFAULT_BULK_ACTIONS = 1000;
+    static final int DEFAULT_BULK_SIZE_MB = 5;
+    static final int DEFAULT_FLUSH_INTERVAL_SECONDS = 5;
+    static final int DEFAULT_CONCURRENT_REQUESTS = 1;
+    static final int DEFAULT_MAX_RETRIES = 5;
+    static final int DEFAULT_RETRY_BACKOFF_MILLIS = 500;
+
+    private static final long MAX_RETRY_BACKOFF_MILLIS = 60_000;
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final BulkProcessor processor;
+    private final DeadLetterStore deadLetterStore;
+    private final Runnable afterBulk;
+    private final Consumer<DocWriteRequest<?>> onDeadLetter;
+    private final OpensearchMetrics metrics;
+
+    /**
+     * 发送中的 bulk 请求的开始时间，用于记录客户端观察到的耗时。
+     */
+    private final Map<Long, Long> bulkStartNanos = new ConcurrentHashMap<>();
+    private final int maxRetries;
+    private final long retryBackoffMillis;
+
+    /**
+     * 正在重试中的请求及其已失败次数，按对象身份区分。
+     */
+    private final Map<DocWriteRequest<?>, Integer> attempts =
+        Collections.synchronizedMap(new IdentityHashMap<>());
+
+    /**
+     * 已安排但尚未重新提交的重试，关闭时转入死信。
+     */
+    private final Set<PendingRetry> pendingRetries = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 重试与死信写入都可能阻塞，因此不能在 bulk 回调所在的 I/O 线程上执行。
+     */
+    private final ScheduledExecutorService retryExecutor =
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "opensearch-bulk-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    /**
+     * @param circuitBreaker 熔断打开时 bulk 请求不发出，按 503 失败进入重试
+     * @param afterBulk 每个 bulk 请求完成（无论成功与否）后执行的回调，在 I/O 线程上调用，
+     * 不能阻塞
+     * @param onDeadLetter 请求最终失败、转入死信时执行的回调
+     */
+    BulkIndexer(RestHighLevelClient client, CircuitBreaker circuitBreaker,
+        OpensearchProperties properties, DeadLetterStore deadLetterStore, Runnable afterBulk,
+        Consumer<DocWriteRequest<?>> onDeadLetter, OpensearchMetrics metrics) {
+        this.deadLetterStore = deadLetterStore;
+        this.afterBulk = afterBulk;
+        this.onDeadLetter = onDeadLetter;
+        this.metrics = metrics;
+        var bulkActions = positiveOrDefault(properties.getBulkActions(), DEFAULT_BULK_ACTIONS);
+        var bulkSizeMb = positiveOrDefault(properties.getBulkSizeMb(), DEFAULT_BULK_SIZE_MB);
+        var flushInterval = positiveOrDefault(properties.getBulkFlushIntervalSeconds(),
+            DEFAULT_FLUSH_INTERVAL_SECONDS);
+        // 0 表示同步发送（add 的调用线程直接等待 bulk 完成），因此这里允许 0
+        var concurrentRequests = properties.getBulkConcurrentRequests() >= 0
+            ? properties.getBulkConcurrentRequests() : DEFAULT_CONCURRENT_REQUESTS;
+        this.maxRetries = properties.getBulkMaxRetries() >= 0
+            ? properties.getBulkMaxRetries() : DEFAULT_MAX_RETRIES;
+        this.retryBackoffMillis = positiveOrDefault(properties.getBulkRetryBackoffMillis(),
+            DEFAULT_RETRY_BACKOFF_MILLIS);
+
+        this.processor = BulkProcessor.builder(
+                (request, listener) -> {
+                    if (!circuitBreaker.tryAcquire()) {
+                        listener.onFailure(CircuitBreaker.openException());
+                        return;
+                    }
+                    client.bulkAsync(request, RequestOptions.DEFAULT,
+                        circuitBreaker.guard(listener));
+                },
+                new RetryingListener())
+            .setBulkActions(bulkActions)
+            .setBulkSize(new ByteSizeValue(bulkSizeMb, ByteSizeUnit.MB))
+            .setFlushInterval(TimeValue.timeValueSeconds(flushInterval))
+            .setConcurrentRequests(concurrentRequests)
+            // 重试由 RetryingListener 按条目处理
+            .setBackoffPolicy(BackoffPolicy.noBackoff())
+            .build();
+        log.info("Bulk indexer started: actions={}, size={}MB, flushInterval={}s, concurrent={}, "
+                + "maxRetries={}",
+            bulkActions, bulkSizeMb, flushInterval, concurrentRequests, maxRetries);
+    }
+
+    void add(DocWriteRequest<?> request) {
+        processor.add(request);
+    }
+
+    /**
+     * 立即发送缓冲区中的请求，不等待其完成。
+     */
+    void flush() {
+        processor.flush();
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (!processor.awaitClose(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                log.warn("Bulk indexer did not finish pending requests within {}s",
+                    CLOSE_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while closing bulk indexer", e);
+        }
+        retryExecutor.shutdownNow();
+        for (var retry : pendingRetries) {
+            onDeadLetter.accept(retry.request());
+            deadLetterStore.save(retry.request(), retry.status(),
+                "Bulk indexer closed before retry: " + retry.reason(), retry.attempt());
+        }
+        pendingRetries.clear();
+        attempts.clear();
+    }
+
+    static boolean isRetryable(RestStatus status) {
+        return status == RestStatus.TOO_MANY_REQUESTS
+            || status == RestStatus.BAD_GATEWAY
+            || status == RestStatus.SERVICE_UNAVAILABLE
+            || status == RestStatus.GATEWAY_TIMEOUT;
+    }
+
+    static boolean isRetryable(Throwable failure) {
+        if (failure instanceof OpenSearchException e) {
+            return isRetryable(e.status());
+        }
+        if (failure instanceof ResponseException e) {
+            var status = RestStatus.fromCode(e.getResponse().getStatusLine().getStatusCode());
+            return status != null && isRetryable(status);
+        }
+        // 连接失败、超时等网络异常
+        return failure instanceof IOException;
+    }
+
+    /**
+     * 第 {@code attempt} 次重试前的等待时间：指数增长并带有随机抖动，上限为一分钟。
+     */
+    long backoffMillis(int attempt) {
+        var exponential = retryBackoffMillis << Math.min(attempt - 1, 16);
+        var capped = Math.min(exponential, MAX_RETRY_BACKOFF_MILLIS);
+        return capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+    }
+
+    private void handleFailure(DocWriteRequest<?> request, int status, String reason,
+        boolean retryable) {
+        int attempt = attempts.merge(request, 1, Integer::sum);
+        if (retryable && attempt <= maxRetries) {
+            var retry = new PendingRetry(request, status, reason, attempt);
+            pendingRetries.add(retry);
+            try {
+                retryExecutor.schedule(() -> resubmit(retry), backoffMillis(attempt),
+                    TimeUnit.MILLISECONDS);
+                return;
+            } catch (RejectedExecutionException e) {
+                pendingRetries.remove(retry);
+            }
+        }
+        attempts.remove(request);
+        deadLetter(request, status, reason, attempt);
+    }
+
+    private void resubmit(PendingRetry retry) {
+        if (!pendingRetries.remove(retry)) {
+            return;
+        }
+        try {
+            processor.add(retry.request());
+        } catch (Exception e) {
+            attempts.remove(retry.request());
+            onDeadLetter.accept(retry.request());
+            deadLetterStore.save(retry.request(), retry.status(),
+                "Failed to resubmit: " + e.getMessage(), retry.attempt());
+        }
+    }
+
+    private void deadLetter(DocWriteRequest<?> request, int status, String reason, int attempt) {
+        onDeadLetter.accept(request);
+        try {
+            retryExecutor.execute(() -> deadLetterStore.save(request, status, reason, attempt));
+        } catch (RejectedExecutionException e) {
+            deadLetterStore.save(request, status, reason, attempt);
+        }
+    }
+
+    private static int positiveOrDefault(int value, int defaultValue) {
+        return value > 0 ? value : defaultValue;
+    }
+
+    private record PendingRetry(DocWriteRequest<?> request, int status, String reason,
+                                int attempt) {
+    }
+
+    private class RetryingListener implements BulkProcessor.Listener {
+
+        @Override
+        public void beforeBulk(long executionId, BulkRequest request) {
+            bulkStartNanos.put(executionId, System.nanoTime());
+            log.debug("Executing bulk [{}] with {} actions, {} bytes", executionId,
+                request.numberOfActions(), request.estimatedSizeInBytes());
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, BulkResponse response) {
+            afterBulk.run();
+            var elapsedNanos = elapsedNanos(executionId);
+            var requests = request.requests();
+            int failed = 0;
+            for (var item : response.getItems()) {
+                var docRequest = requests.get(item.getItemId());
+                if (!item.isFailed()) {
+                    attempts.remove(docRequest);
+                    continue;
+                }
+                failed++;
+                var failure = item.getFailure();
+                metrics.recordItemFailure(failure.getStatus().getStatus());
+                handleFailure(docRequest, failure.getStatus().getStatus(), failure.getMessage(),
+                    isRetryable(failure.getStatus()));
+            }
+            metrics.recordBulk(request.numberOfActions(), request.estimatedSizeInBytes(),
+                elapsedNanos, response.getTook().getMillis(), failed);
+            if (failed > 0) {
+                log.warn("Bulk [{}] has {} failed items of {}", executionId, failed,
+                    response.getItems().length);
+            } else {
+                log.info("Bulk [{}] successfully processed {} actions in {}ms", executionId,
+                    response.getItems().length, response.getTook().getMillis());
+            }
+        }
+
+        @Override
+        public void afterBulk(long executionId, BulkRequest request, Throwable failure) {
+            afterBulk.run();
+            metrics.recordBulkFailure(request.numberOfActions(), elapsedNanos(executionId));
+            log.error("Bulk [{}] with {} actions failed", executionId,
+                request.numberOfActions(), failure);
+            var retryable = isRetryable(failure);
+            var status = failure instanceof OpenSearchException e ? e.status().getStatus() : 0;
+            for (var docRequest : request.requests()) {
+                metrics.recordItemFailure(status);
+                handleFailure(docRequest, status, String.valueOf(failure.getMessage()),
+                    retryable);
+            }
+        }
+
+        private long elapsedNanos(long executionId) {
+            var start = bulkStartNanos.remove(executionId);
+            return start != null ? System.nanoTime() - start : 0;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.action.admin.indices.forcemerge.ForceMergeRequest;
+import org.opensearch.action.admin.indices.refresh.RefreshRequest;
+import org.opensearch.action.admin.indices.settings.get.GetSettingsRequest;
+import org.opensearch.action.admin.indices.settings.put.UpdateSettingsRequest;
+import org.opensearch.client.RequestOptions;
+import org.opensearch.client.RestHighLevelClient;
+import org.opensearch.common.settings.Settings;
+
+/**
+ * 批量加载期间的索引设置：关闭定时刷新、去掉副本并使用异步 translog，
+ * 避免每个 bulk 都承担刷新与副本写入的开销。加载结束后恢复原设置并强制刷新一次。
+ */
+@Slf4j
+final class BulkLoadProfile {
+
+    static final String REFRESH_INTERVAL = "index.refresh_interval";
+    static final String NUMBER_OF_REPLICAS = "index.number_of_replicas";
+    static final String TRANSLOG_DURABILITY = "index.translog.durability";
+
+    static final Settings SETTINGS = Settings.builder()
+        .put(REFRESH_INTERVAL, "-1")
+        .put(NUMBER_OF_REPLICAS, 0)
+        .put(TRANSLOG_DURABILITY, "async")
+        .build();
+
+    private final RestHighLevelClient client;
+    private final String index;
+    private final Settings restoreTo;
+
+    private BulkLoadProfile(RestHighLevelClient client, String index, Settings restoreTo) {
+        this.client = client;
+        this.index = index;
+        this.restoreTo = restoreTo;
+    }
+
+    /**
+     * 记录已有索引的当前设置后切换到批量加载设置。
+     */
+    static BulkLoadProfile apply(RestHighLevelClient client, String index) throws IOException {
+        var response = client.indices().getSettings(new GetSettingsRequest()
+            .indices(index)
+            .names(REFRESH_INTERVAL, NUMBER_OF_REPLICAS, TRANSLOG_DURABILITY), RequestOptions.DEFAULT);
+        // index 可能是别名，响应以实际索引名为键
+        var current = response.getIndexToSettings().values().stream()
+            .findFirst()
+            .orElse(Settings.EMPTY);
+        var restoreTo = Settings.builder();
+        for (var key : new String[] {REFRESH_INTERVAL, NUMBER_OF_REPLICAS, TRANSLOG_DURABILITY}) {
+            var value = current.get(key);
+            if (value != null) {
+                restoreTo.put(key, value);
+            } else {
+                restoreTo.putNull(key);
+            }
+        }
+        client.indices().putSettings(new UpdateSettingsRequest(index).settings(SETTINGS),
+            RequestOptions.DEFAULT);
+        log.info("Index [{}] switched to bulk load settings", index);
+        return new BulkLoadProfile(client, index, restoreTo.build());
+    }
+
+    /**
+     * 以批量加载设置创建的新索引，结束时恢复为模板中的副本数并使用默认的刷新与 translog 设置。
+     */
+    static BulkLoadProfile forNewIndex(RestHighLevelClient client, String index,
+        int numberOfReplicas) {
+        return new BulkLoadProfile(client, index, Settings.builder()
+            .putNull(REFRESH_INTERVAL)
+            .put(NUMBER_OF_REPLICAS, numberOfReplicas)
+            .putNull(TRANSLOG_DURABILITY)
+            .build());
+    }
+
+    /**
+     * 恢复设置并刷新，使加载的文档可被搜索。
+     *
+     * @param forceMerge 是否在刷新后合并为单个段，适合加载后基本只读的索引
+     */
+    void restore(boolean forceMerge) throws IOException {
+        client.indices().putSettings(new UpdateSettingsRequest(index).settings(restoreTo),
+            RequestOptions.DEFAULT);
+        client.indices().refresh(new RefreshRequest(index), RequestOptions.DEFAULT);
+        log.info("Index [{}] restored from bulk load settings", index);
+        if (forceMerge) {
+            client.indices().forcemerge(new ForceMergeRequest(index).maxNumSegments(1),
+                RequestOptions.DEFAULT);
+            log.info("Force merged index [{}]", index);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.OpenSearchException;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.client.ResponseException;
+import org.opensearch.core.action.ActionListener;
+import org.opensearch.core.rest.RestStatus;
+
+/**
+ * 集群调用的熔断器。
+ *
+ * <p>连续 {@code failureThreshold} 次健康失败（连接异常、超时或 502、503、504）后打开，打开期间请求直接失败，
+ * 不再等待集群。打开 {@code openDuration} 后进入半开状态，只放行一个探测请求：成功则关闭，失败则重新打开。
+ * 周期性的健康检查通过 {@link #recordProbe} 提前结束打开状态或累计失败。
+ * 4xx 响应说明集群可以正常响应，视为成功；429 是过载信号，由并发限制处理，不计入熔断。
+ */
+@Slf4j
+class CircuitBreaker {
+
+    static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    static final int DEFAULT_OPEN_SECONDS = 30;
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final LongSupplier nanoClock;
+
+    private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    private long openNanos = Duration.ofSeconds(DEFAULT_OPEN_SECONDS).toNanos();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean probeInFlight;
+
+    CircuitBreaker() {
+        this(System::nanoTime);
+    }
+
+    CircuitBreaker(LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+    }
+
+    synchronized void configure(int failureThreshold, int openSeconds) {
+        this.failureThreshold = failureThreshold > 0 ? failureThreshold : DEFAULT_FAILURE_THRESHOLD;
+        this.openNanos = Duration.ofSeconds(openSeconds > 0 ? openSeconds : DEFAULT_OPEN_SECONDS)
+            .toNanos();
+    }
+
+    /**
+     * 切换到另一个集群时清除状态。
+     */
+    synchronized void reset() {
+        transition(State.CLOSED);
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized boolean isOpen() {
+        return state == State.OPEN && nanoClock.getAsLong() - openedAtNanos < openNanos;
+    }
+
+    /**
+     * 请求能否发出。返回 {@code true} 时调用方必须以 {@link #onSuccess}、{@link #onFailure}
+     * 或 {@link #onCancel} 之一报告结果。
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoClock.getAsLong() - openedAtNanos < openNanos) {
+                    return false;
+                }
+                transition(State.HALF_OPEN);
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        if (state != State.CLOSED) {
+            transition(State.CLOSED);
+        }
+    }
+
+    synchronized void onFailure() {
+        probeInFlight = false;
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN
+            || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            openedAtNanos = nanoClock.getAsLong();
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * 请求被调用方取消（例如超过截止时间），不能说明集群的健康状况，只释放半开状态的探测名额。
+     */
+    synchronized void onCancel() {
+        probeInFlight = false;
+    }
+
+    void onComplete(Throwable failure) {
+        if (failure == null || !isHealthFailure(failure)) {
+            onSuccess();
+        } else {
+            onFailure();
+        }
+    }
+
+    /**
+     * 记录一次健康检查的结果。检查成功时打开状态直接转为半开，由下一个请求确认集群已恢复。
+     */
+    synchronized void recordProbe(boolean healthy) {
+        if (!healthy) {
+            if (state != State.OPEN) {
+                onFailure();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            transition(State.HALF_OPEN);
+        } else if (state == State.CLOSED) {
+            consecutiveFailures = 0;
+        }
+    }
+
+    /**
+     * 包装回调，按结果更新熔断状态。
+     */
+    <T> ActionListener<T> guard(ActionListener<T> listener) {
+        return new ActionListener<>() {
+            @Override
+            public void onResponse(T response) {
+                onSuccess();
+                listener.onResponse(response);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                onComplete(e);
+                listener.onFailure(e);
+            }
+        };
+    }
+
+    static OpenSearchStatusException openException() {
+        return new OpenSearchStatusException("Opensearch circuit breaker is open",
+            RestStatus.SERVICE_UNAVAILABLE);
+    }
+
+    static boolean isHealthFailure(Throwable failure) {
+        RestStatus status = null;
+        if (failure instanceof OpenSearchException e) {
+            status = e.status();
+        } else if (failure instanceof ResponseException e) {
+            status = RestStatus.fromCode(e.getResponse().getStatusLine().getStatusCode());
+        } else {
+            // 连接失败、超时等网络异常
+            return failure instanceof IOException;
+        }
+        return status == RestStatus.BAD_GATEWAY
+            || status == RestStatus.SERVICE_UNAVAILABLE
+            || status == RestStatus.GATEWAY_TIMEOUT;
+    }
+
+    private void transition(State next) {
+        if (state != next) {
+            log.info("Opensearch circuit breaker changed from {} to {}", state, next);
+            state = next;
+        }
+    }
+}
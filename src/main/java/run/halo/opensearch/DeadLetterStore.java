@@ -0,0 +1,71 @@
+package run.halo.opensearch;
+
+import java.time.Instant;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.delete.DeleteRequest;
+import org.opensearch.action.index.IndexRequest;
+import org.opensearch.common.xcontent.XContentType;
+import org.springframework.stereotype.Component;
+import run.halo.app.extension.ExtensionClient;
+import run.halo.app.extension.Metadata;
+
+/**
+ * 以 {@link IndexDeadLetter} 扩展持久化写入失败的请求。
+ */
+@Slf4j
+@Component
+public class DeadLetterStore {
+
+    private final ExtensionClient client;
+
+    public DeadLetterStore(ExtensionClient client) {
+        this.client = client;
+    }
+
+    /**
+     * 保存一条死信，会阻塞调用线程直到写入完成，不要在 I/O 线程上调用。
+     */
+    void save(DocWriteRequest<?> request, int status, String reason, int attempts) {
+        var spec = new IndexDeadLetter.Spec();
+        spec.setIndexName(request.index());
+        spec.setDocumentId(request.id());
+        if (request instanceof IndexRequest indexRequest) {
+            spec.setOperation(IndexDeadLetter.Operation.INDEX);
+            spec.setSource(indexRequest.source().utf8ToString());
+        } else {
+            spec.setOperation(IndexDeadLetter.Operation.DELETE);
+        }
+        spec.setStatus(status);
+        spec.setReason(reason);
+        spec.setAttempts(attempts);
+        spec.setFailedAt(Instant.now());
+
+        var metadata = new Metadata();
+        metadata.setGenerateName("dead-letter-");
+        var deadLetter = new IndexDeadLetter();
+        deadLetter.setMetadata(metadata);
+        deadLetter.setSpec(spec);
+        try {
+            client.create(deadLetter);
+            log.warn("Moved {} of document [{}] to dead letter store after {} attempts: {}",
+                spec.getOperation(), spec.getDocumentId(), attempts, reason);
+        } catch (Exception e) {
+            log.error("Failed to persist dead letter for document [{}], the write is lost",
+                spec.getDocumentId(), e);
+        }
+    }
+
+    /**
+     * 将死信还原为写入请求，写入目标为当前的索引名而不是失败时记录的索引名。
+     */
+    static DocWriteRequest<?> toRequest(IndexDeadLetter deadLetter, String indexName) {
+        var spec = deadLetter.getSpec();
+        if (spec.getOperation() == IndexDeadLetter.Operation.DELETE) {
+            return new DeleteRequest(indexName, spec.getDocumentId());
+        }
+        return new IndexRequest(indexName)
+            .id(spec.getDocumentId())
+            .source(spec.getSource(), XContentType.JSON);
+    }
+}
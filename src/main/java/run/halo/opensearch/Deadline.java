@@ -0,0 +1,55 @@
+package run.halo.opensearch;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * 请求的截止时间，通过 Reactor {@link Context} 从入站请求传递到集群调用。
+ *
+ * <p>集群调用在剩余时间内没有完成即取消（同时取消底层 HTTP 请求）并以 {@link TimeoutException} 失败；
+ * 到达时已经超时的调用不会发出。上下文中没有截止时间时使用配置的默认超时。
+ */
+record Deadline(long deadlineNanos) {
+
+    /**
+     * 入站请求携带剩余时间（毫秒）的请求头。
+     */
+    static final String HEADER = "X-Request-Timeout";
+
+    static Deadline after(Duration timeout) {
+        return new Deadline(System.nanoTime() + timeout.toNanos());
+    }
+
+    Duration remaining() {
+        return Duration.ofNanos(deadlineNanos - System.nanoTime());
+    }
+
+    /**
+     * 将截止时间写入上下文，已有更早的截止时间时保留更早的一个。
+     */
+    Context writeTo(Context context) {
+        var existing = context.<Deadline>getOrEmpty(Deadline.class);
+        if (existing.isPresent() && existing.get().deadlineNanos - deadlineNanos < 0) {
+            return context;
+        }
+        return context.put(Deadline.class, this);
+    }
+
+    /**
+     * 在上下文中的截止时间与 {@code defaultTimeout} 中较早的一个之前完成 {@code action}。
+     */
+    static <T> Mono<T> apply(Mono<T> action, Duration defaultTimeout) {
+        return Mono.deferContextual(context -> {
+            var remaining = context.<Deadline>getOrEmpty(Deadline.class)
+                .map(Deadline::remaining)
+                .filter(duration -> duration.compareTo(defaultTimeout) < 0)
+                .orElse(defaultTimeout);
+            if (remaining.isNegative() || remaining.isZero()) {
+                return Mono.error(new TimeoutException("Deadline exceeded before the request"));
+            }
+            return action.timeout(remaining);
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * 文档预处理（HTML 清洗与序列化）阶段。
+ *
+ * <p>批量小于阈值时在调用线程上顺序处理；达到阈值后切分为若干块交给固定大小的线程池并行处理，
+ * 再按原始顺序逐块交给下游，保证同一文档的多次更新仍按提交顺序写入。同时在途的块数有上限，
+ * 避免超大批量一次性把所有序列化结果堆在内存中。
+ */
+@Slf4j
+class DocumentPreparer<T, R> implements AutoCloseable {
+
+    static final int DEFAULT_PARALLEL_THRESHOLD = 200;
+
+    private static final int CHUNK_SIZE = 32;
+
+    private final PreparationStep<T, R> step;
+    private final int parallelism;
+    private final int threshold;
+    private final ExecutorService executor;
+
+    DocumentPreparer(PreparationStep<T, R> step, int parallelism, int threshold) {
+        this.step = step;
+        this.parallelism = parallelism > 0
+            ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.threshold = threshold > 0 ? threshold : DEFAULT_PARALLEL_THRESHOLD;
+        if (this.parallelism > 1) {
+            var counter = new AtomicInteger();
+            this.executor = Executors.newFixedThreadPool(this.parallelism, runnable -> {
+                var thread = new Thread(runnable,
+                    "opensearch-prepare-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.executor = null;
+        }
+    }
+
+    /**
+     * 处理全部元素并按输入顺序交给 {@code sink}，{@code sink} 始终在调用线程上执行。
+     */
+    void prepare(List<T> items, Consumer<R> sink) throws IOException {
+        if (executor == null || items.size() < threshold) {
+            for (var item : items) {
+                sink.accept(step.apply(item));
+            }
+            return;
+        }
+
+        var inFlight = new ArrayDeque<CompletableFuture<List<R>>>();
+        var maxInFlight = parallelism * 2;
+        try {
+            for (int from = 0; from < items.size(); from += CHUNK_SIZE) {
+                var chunk = items.subList(from, Math.min(from + CHUNK_SIZE, items.size()));
+                inFlight.add(CompletableFuture.supplyAsync(() -> prepareChunk(chunk), executor));
+                if (inFlight.size() >= maxInFlight) {
+                    inFlight.poll().join().forEach(sink);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                inFlight.poll().join().forEach(sink);
+            }
+        } catch (CompletionException e) {
+            inFlight.forEach(future -> future.cancel(false));
+            if (e.getCause() instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private List<R> prepareChunk(List<T> chunk) {
+        var results = new ArrayList<R>(chunk.size());
+        try {
+            for (var item : chunk) {
+                results.add(step.apply(item));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return results;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    interface PreparationStep<T, R> {
+        R apply(T item) throws IOException;
+    }
+}
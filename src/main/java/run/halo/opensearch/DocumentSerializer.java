@@ -0,0 +1,134 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import java.time.Instant;
+import org.opensearch.common.hash.MurmurHash3;
+import org.opensearch.common.io.stream.BytesStreamOutput;
+import org.opensearch.common.xcontent.XContentFactory;
+import org.opensearch.common.xcontent.json.JsonXContent;
+import org.opensearch.core.xcontent.XContentBuilder;
+import run.halo.app.search.HaloDocument;
+import run.halo.meilisearch.HtmlUtils;
+
+/**
+ * 将 {@link HaloDocument} 直接写为 bulk 请求的文档源。
+ *
+ * <p>清洗（去除 description 与 content 中的 HTML）在写出字段时完成，不复制文档，
+ * 也不经过中间 JSON 字符串。输出与 Halo 的 {@code JsonUtils.mapper()} 序列化结果一致：
+ * 跳过 null 字段，时间戳写为 ISO-8601 字符串；此外额外写出标题补全字段 {@value #SUGGEST_FIELD}。
+ */
+final class DocumentSerializer {
+
+    /**
+     * 文档指纹字段，保存其余字段序列化结果的哈希值。
+     */
+    static final String FINGERPRINT_FIELD = "fingerprint";
+
+    /**
+     * 标题补全字段（completion 类型），按可见性区分上下文，只有对访客可见的文档参与补全。
+     */
+    static final String SUGGEST_FIELD = "suggest";
+    static final String VISIBILITY_CONTEXT = "visibility";
+    static final String VISIBLE = "visible";
+    static final String HIDDEN = "hidden";
+
+    private DocumentSerializer() {
+    }
+
+    static XContentBuilder serialize(HaloDocument document) throws IOException {
+        return serialize(document, HtmlUtils.Extractor.STREAMING);
+    }
+
+    static XContentBuilder serialize(HaloDocument document, HtmlUtils.Extractor extractor)
+        throws IOException {
+        var builder = XContentFactory.jsonBuilder();
+        builder.startObject();
+        writeFields(builder, document,
+            HtmlUtils.stripHtmlAndTrim(document.getDescription(), extractor),
+            HtmlUtils.stripHtmlAndTrim(document.getContent(), extractor));
+        builder.endObject();
+        return builder;
+    }
+
+    /**
+     * 序列化文档并在末尾追加指纹。指纹是其余字段（已清洗）序列化结果的 128 位 MurmurHash3 的前 64 位，
+     * 与文档源一次写出，不额外序列化。
+     */
+    static Fingerprinted serializeWithFingerprint(HaloDocument document,
+        HtmlUtils.Extractor extractor) throws IOException {
+        var stripStart = System.nanoTime();
+        var description = HtmlUtils.stripHtmlAndTrim(document.getDescription(), extractor);
+        var content = HtmlUtils.stripHtmlAndTrim(document.getContent(), extractor);
+        var stripNanos = System.nanoTime() - stripStart;
+
+        var out = new BytesStreamOutput();
+        var builder = new XContentBuilder(JsonXContent.jsonXContent, out);
+        builder.startObject();
+        writeFields(builder, document, description, content);
+        builder.flush();
+        var bytes = out.bytes().toBytesRef();
+        var fingerprint = MurmurHash3.hash128(bytes.bytes, bytes.offset, bytes.length, 0,
+            new MurmurHash3.Hash128()).h1;
+        builder.field(FINGERPRINT_FIELD, fingerprint);
+        builder.endObject();
+        return new Fingerprinted(builder, fingerprint, stripNanos, description, content);
+    }
+
+    private static void writeFields(XContentBuilder builder, HaloDocument document,
+        String description, String content) throws IOException {
+        field(builder, "id", document.getId());
+        field(builder, "metadataName", document.getMetadataName());
+        if (document.getAnnotations() != null) {
+            builder.field("annotations", document.getAnnotations());
+        }
+        field(builder, "title", document.getTitle());
+        field(builder, "description", description);
+        field(builder, "content", content);
+        if (document.getCategories() != null) {
+            builder.array("categories", document.getCategories().toArray(String[]::new));
+        }
+        if (document.getTags() != null) {
+            builder.array("tags", document.getTags().toArray(String[]::new));
+        }
+        builder.field("published", document.isPublished());
+        builder.field("recycled", document.isRecycled());
+        builder.field("exposed", document.isExposed());
+        field(builder, "ownerName", document.getOwnerName());
+        field(builder, "creationTimestamp", document.getCreationTimestamp());
+        field(builder, "updateTimestamp", document.getUpdateTimestamp());
+        field(builder, "permalink", document.getPermalink());
+        field(builder, "type", document.getType());
+        if (document.getTitle() != null && !document.getTitle().isBlank()) {
+            var visible = document.isPublished() && document.isExposed() && !document.isRecycled();
+            builder.startObject(SUGGEST_FIELD)
+                .array("input", document.getTitle())
+                .startObject("contexts")
+                .array(VISIBILITY_CONTEXT, visible ? VISIBLE : HIDDEN)
+                .endObject()
+                .endObject();
+        }
+    }
+
+    private static void field(XContentBuilder builder, String name, String value)
+        throws IOException {
+        if (value != null) {
+            builder.field(name, value);
+        }
+    }
+
+    private static void field(XContentBuilder builder, String name, Instant value)
+        throws IOException {
+        if (value != null) {
+            builder.field(name, value.toString());
+        }
+    }
+
+    /**
+     * @param stripNanos 清洗 HTML 的耗时
+     * @param description 清洗后的描述，供本地备用索引复用，不再清洗一次
+     * @param content 清洗后的正文
+     */
+    record Fingerprinted(XContentBuilder source, long fingerprint, long stripNanos,
+                         String description, String content) {
+    }
+}
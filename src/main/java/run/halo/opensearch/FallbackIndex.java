@@ -0,0 +1,363 @@
+package run.halo.opensearch;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.cjk.CJKAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.highlight.Highlighter;
+import org.apache.lucene.search.highlight.InvalidTokenOffsetsException;
+import org.apache.lucene.search.highlight.NullFragmenter;
+import org.apache.lucene.search.highlight.QueryScorer;
+import org.apache.lucene.search.highlight.SimpleHTMLFormatter;
+import org.apache.lucene.search.highlight.SimpleSpanFragmenter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.opensearch.core.common.bytes.BytesReference;
+import run.halo.app.infra.utils.JsonUtils;
+import run.halo.app.search.HaloDocument;
+import run.halo.app.search.SearchOption;
+import run.halo.app.search.SearchResult;
+import run.halo.meilisearch.HtmlUtils;
+
+/**
+ * 集群不可用时提供搜索的本地 Lucene 索引。
+ *
+ * <p>与远程索引接收同一份写入，索引文件通过 {@link MMapDirectory} 内存映射读取。
+ * 存储字段直接保存 {@link DocumentSerializer} 生成的文档源，既用于返回搜索结果，
+ * 也用于恢复后把 {@link ReplayLog} 中的变更补发到集群。
+ * 查询与过滤条件与远程搜索一致（标题、描述、正文加权匹配，只返回对访客可见的文档），
+ * 中文按 CJK 二元切分，不依赖集群上的 hanlp 分析器。
+ *
+ * <p>写入后通过近实时读取器立即可搜索，索引文件每 {@value #COMMIT_INTERVAL_SECONDS} 秒及关闭时提交一次。
+ * 记入重放日志的写入立即提交：日志中的变更在恢复后要从这里读取文档内容，不能因进程退出而丢失。
+ */
+@Slf4j
+final class FallbackIndex implements Closeable {
+
+    static final String REPLAY_LOG_FILE = "replay.log";
+    static final long COMMIT_INTERVAL_SECONDS = 5;
+
+    /**
+     * 文档源中还有补全与指纹字段，{@link HaloDocument} 没有对应的属性。
+     */
+    private static final ObjectReader SOURCE_READER = JsonUtils.mapper()
+        .readerFor(HaloDocument.class)
+        .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    private static final String ID_FIELD = "metadataName";
+    private static final String VISIBLE_FIELD = "visible";
+    private static final String SOURCE_FIELD = "_source";
+    private static final Map<String, Float> BOOSTS = Map.of(
+        "title", 3.0f, "description", 2.0f, "content", 1.0f);
+
+    private final Path path;
+    private final HtmlUtils.Extractor extractor;
+    private final Analyzer analyzer = new CJKAnalyzer();
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final ReplayLog replayLog;
+    private final ScheduledExecutorService committer =
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "opensearch-fallback-commit");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    private FallbackIndex(Path path, HtmlUtils.Extractor extractor) throws IOException {
+        this.path = path;
+        this.extractor = extractor;
+        Files.createDirectories(path);
+        this.directory = new MMapDirectory(path.resolve("index"));
+        try {
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            this.searcherManager = new SearcherManager(writer, null);
+        } catch (IOException | RuntimeException e) {
+            directory.close();
+            throw e;
+        }
+        this.replayLog = new ReplayLog(path.resolve(REPLAY_LOG_FILE));
+        committer.scheduleWithFixedDelay(this::commitIfChanged, COMMIT_INTERVAL_SECONDS,
+            COMMIT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    static FallbackIndex open(Path path, HtmlUtils.Extractor extractor) throws IOException {
+        return new FallbackIndex(path, extractor);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    ReplayLog replayLog() {
+        return replayLog;
+    }
+
+    /**
+     * 清洗并写入文档。{@code logged} 为 {@code true} 时同时记入重放日志，用于集群不可用期间的写入。
+     */
+    void upsert(List<HaloDocument> documents, boolean logged) throws IOException {
+        var entries = new ArrayList<Entry>(documents.size());
+        for (var document : documents) {
+            entries.add(Entry.of(document, extractor));
+        }
+        upsertPrepared(entries, logged);
+    }
+
+    /**
+     * 写入已经为远程索引清洗、序列化过的文档，不再重复处理。
+     */
+    void upsertPrepared(List<Entry> entries, boolean logged) throws IOException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        var metadataNames = new ArrayList<String>(entries.size());
+        for (var entry : entries) {
+            var metadataName = entry.document().getMetadataName();
+            if (metadataName == null) {
+                continue;
+            }
+            writer.updateDocument(new Term(ID_FIELD, metadataName), toLuceneDocument(entry));
+            metadataNames.add(metadataName);
+        }
+        if (logged) {
+            commit();
+            replayLog.append(ReplayLog.Operation.UPSERT, metadataNames);
+        } else {
+            searcherManager.maybeRefresh();
+        }
+    }
+
+    void delete(List<String> metadataNames, boolean logged) throws IOException {
+        if (metadataNames.isEmpty()) {
+            return;
+        }
+        writer.deleteDocuments(metadataNames.stream()
+            .map(metadataName -> new Term(ID_FIELD, metadataName))
+            .toArray(Term[]::new));
+        if (logged) {
+            commit();
+            replayLog.append(ReplayLog.Operation.DELETE, metadataNames);
+        } else {
+            searcherManager.maybeRefresh();
+        }
+    }
+
+    void deleteAll() throws IOException {
+        writer.deleteAll();
+        commit();
+    }
+
+    int documentCount() {
+        return writer.getDocStats().numDocs;
+    }
+
+    /**
+     * 按 metadataName 读取已保存的文档，不存在的文档被忽略。
+     */
+    List<HaloDocument> get(Collection<String> metadataNames) throws IOException {
+        var documents = new ArrayList<HaloDocument>(metadataNames.size());
+        var searcher = searcherManager.acquire();
+        try {
+            var storedFields = searcher.storedFields();
+            for (var metadataName : metadataNames) {
+                var topDocs = searcher.search(new TermQuery(new Term(ID_FIELD, metadataName)), 1);
+                if (topDocs.scoreDocs.length > 0) {
+                    documents.add(toHaloDocument(
+                        storedFields.document(topDocs.scoreDocs[0].doc)));
+                }
+            }
+        } finally {
+            searcherManager.release(searcher);
+        }
+        return documents;
+    }
+
+    SearchResult search(SearchOption option) throws IOException {
+        var start = System.nanoTime();
+        var query = buildQuery(option.getKeyword());
+        var result = new SearchResult();
+        result.setKeyword(option.getKeyword());
+        result.setLimit(option.getLimit());
+        var searcher = searcherManager.acquire();
+        try {
+            var topDocs = searcher.search(query, Math.max(option.getLimit(), 1));
+            var storedFields = searcher.storedFields();
+            var hits = new ArrayList<HaloDocument>(topDocs.scoreDocs.length);
+            for (var scoreDoc : topDocs.scoreDocs) {
+                var document = toHaloDocument(storedFields.document(scoreDoc.doc));
+                highlight(document, query, option);
+                hits.add(document);
+            }
+            result.setHits(hits);
+            result.setTotal(topDocs.totalHits.value());
+        } finally {
+            searcherManager.release(searcher);
+        }
+        result.setProcessingTimeMillis((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    private Query buildQuery(String keyword) {
+        Query match = new MatchAllDocsQuery();
+        if (keyword != null && !keyword.isBlank()) {
+            var parser = new MultiFieldQueryParser(BOOSTS.keySet().toArray(String[]::new),
+                analyzer, BOOSTS);
+            try {
+                match = parser.parse(QueryParser.escape(keyword));
+            } catch (ParseException e) {
+                throw new IllegalArgumentException("Invalid keyword: " + keyword, e);
+            }
+        }
+        return new BooleanQuery.Builder()
+            .add(match, BooleanClause.Occur.MUST)
+            .add(new TermQuery(new Term(VISIBLE_FIELD, "true")), BooleanClause.Occur.FILTER)
+            .build();
+    }
+
+    /**
+     * 与远程搜索一致：标题整体高亮，描述与正文只返回一个片段，正文未命中时返回开头的一段。
+     */
+    private void highlight(HaloDocument document, Query query, SearchOption option)
+        throws IOException {
+        var formatter = new SimpleHTMLFormatter(
+            Objects.toString(option.getHighlightPreTag(), ""),
+            Objects.toString(option.getHighlightPostTag(), ""));
+        var fragmentSize = OpensearchSearchEngine.DEFAULT_FRAGMENT_SIZE;
+        var title = bestFragment(formatter, query, "title", document.getTitle(), 0);
+        if (title != null) {
+            document.setTitle(title);
+        }
+        var description = bestFragment(formatter, query, "description",
+            document.getDescription(), fragmentSize);
+        if (description != null) {
+            document.setDescription(description);
+        }
+        var content = bestFragment(formatter, query, "content", document.getContent(),
+            fragmentSize);
+        if (content != null) {
+            document.setContent(content);
+        } else if (document.getContent() != null
+            && document.getContent().length() > fragmentSize) {
+            document.setContent(document.getContent().substring(0, fragmentSize));
+        }
+    }
+
+    /**
+     * @return 最佳高亮片段，没有命中时为 {@code null}
+     */
+    private String bestFragment(SimpleHTMLFormatter formatter, Query query, String field,
+        String text, int fragmentSize) throws IOException {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        var scorer = new QueryScorer(query, field);
+        var highlighter = new Highlighter(formatter, scorer);
+        highlighter.setTextFragmenter(fragmentSize > 0
+            ? new SimpleSpanFragmenter(scorer, fragmentSize) : new NullFragmenter());
+        try {
+            return highlighter.getBestFragment(analyzer, field, text);
+        } catch (InvalidTokenOffsetsException e) {
+            return null;
+        }
+    }
+
+    private static Document toLuceneDocument(Entry entry) {
+        var document = entry.document();
+        var luceneDocument = new Document();
+        luceneDocument.add(new StringField(ID_FIELD, document.getMetadataName(), Field.Store.NO));
+        var visible = document.isPublished() && document.isExposed() && !document.isRecycled();
+        luceneDocument.add(new StringField(VISIBLE_FIELD, String.valueOf(visible),
+            Field.Store.NO));
+        addText(luceneDocument, "title", document.getTitle());
+        addText(luceneDocument, "description", entry.description());
+        addText(luceneDocument, "content", entry.content());
+        luceneDocument.add(new StoredField(SOURCE_FIELD, entry.source().toBytesRef()));
+        return luceneDocument;
+    }
+
+    private static void addText(Document document, String field, String value) {
+        if (value != null) {
+            document.add(new TextField(field, value, Field.Store.NO));
+        }
+    }
+
+    private static HaloDocument toHaloDocument(Document document) throws IOException {
+        var source = document.getBinaryValue(SOURCE_FIELD);
+        return SOURCE_READER.readValue(source.bytes, source.offset, source.length);
+    }
+
+    private void commit() throws IOException {
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+
+    private void commitIfChanged() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to commit the local fallback index at [{}]", path, e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        committer.shutdownNow();
+        try {
+            searcherManager.close();
+            // 默认在关闭时提交未提交的写入
+            writer.close();
+        } finally {
+            directory.close();
+            analyzer.close();
+        }
+    }
+
+    /**
+     * 一个待写入的文档，描述与正文已去除 HTML。
+     *
+     * @param source 与 bulk 请求相同的文档源
+     */
+    record Entry(HaloDocument document, String description, String content,
+                 BytesReference source) {
+
+        static Entry of(HaloDocument document, HtmlUtils.Extractor extractor) throws IOException {
+            var serialized = DocumentSerializer.serializeWithFingerprint(document, extractor);
+            return new Entry(document, serialized.description(), serialized.content(),
+                BytesReference.bytes(serialized.source()));
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.action.search.ClearScrollRequest;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchScrollRequest;
+import org.opensearch.client.RequestOptions;
+import org.opensearch.client.RestHighLevelClient;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.builder.SearchSourceBuilder;
+
+/**
+ * 索引中文档指纹的本地镜像：{@code metadataName -> 指纹}。
+ *
+ * <p>写入前比较指纹，内容未变的文档不再发送。只有镜像与索引一致（{@link #isSynced()}）时才跳过写入：
+ * 启动时从索引加载，索引被清空后视为一致；蓝绿重建中止等无法确认的情况下停止跳过，
+ * 直到重新加载或下一次全量重建。
+ *
+ * <p>镜像一致时 Halo 的重建不再清空索引，重新提交的文档中未变化的完全不需要写入，
+ * 已不存在的文档由 {@link ReindexJob} 在写完全部文档后删除。
+ */
+@Slf4j
+class FingerprintStore {
+
+    private static final int LOAD_BATCH_SIZE = 1000;
+    private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+    private final ConcurrentHashMap<String, Long> fingerprints = new ConcurrentHashMap<>();
+    private final AtomicLong skipped = new AtomicLong();
+    private volatile boolean synced;
+
+    boolean isSynced() {
+        return synced;
+    }
+
+    /**
+     * 文档指纹与索引中的一致时返回 {@code true}，此时无需写入。
+     */
+    boolean unchanged(String metadataName, long fingerprint) {
+        if (!synced) {
+            return false;
+        }
+        var current = fingerprints.get(metadataName);
+        if (current != null && current == fingerprint) {
+            skipped.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    void put(String metadataName, long fingerprint) {
+        fingerprints.put(metadataName, fingerprint);
+    }
+
+    void remove(String metadataName) {
+        fingerprints.remove(metadataName);
+    }
+
+    /**
+     * 索引已被清空：清空镜像，此后的写入使其重新与索引一致。
+     */
+    void reset() {
+        fingerprints.clear();
+        synced = true;
+    }
+
+    /**
+     * 清空镜像并停止跳过，下一次重建会清空索引并重新写入全部文档。
+     */
+    void invalidate() {
+        synced = false;
+        fingerprints.clear();
+    }
+
+    /**
+     * 从索引重新加载指纹。加载期间停止跳过；加载期间写入的新指纹不会被索引中的旧值覆盖。
+     * 没有指纹字段的旧文档以指纹 0 加入镜像，与新计算的指纹不会相同，下次提交时照常写入。
+     *
+     * @return 加载的文档数
+     */
+    long load(RestHighLevelClient client, String index) throws IOException {
+        invalidate();
+        var source = new SearchSourceBuilder()
+            .query(QueryBuilders.matchAllQuery())
+            .size(LOAD_BATCH_SIZE)
+            .fetchSource(false)
+            .docValueField(DocumentSerializer.FINGERPRINT_FIELD)
+            .sort("_doc");
+        var response = client.search(new SearchRequest(index).source(source)
+            .scroll(SCROLL_KEEP_ALIVE), RequestOptions.DEFAULT);
+        var scrollId = response.getScrollId();
+        long loaded = 0;
+        try {
+            while (response.getHits().getHits().length > 0) {
+                for (var hit : response.getHits().getHits()) {
+                    var field = hit.field(DocumentSerializer.FINGERPRINT_FIELD);
+                    var fingerprint = field != null && field.getValue() instanceof Number number
+                        ? number.longValue() : 0L;
+                    fingerprints.putIfAbsent(hit.getId(), fingerprint);
+                    loaded++;
+                }
+                response = client.scroll(new SearchScrollRequest(scrollId)
+                    .scroll(SCROLL_KEEP_ALIVE), RequestOptions.DEFAULT);
+                scrollId = response.getScrollId();
+            }
+        } finally {
+            var clearScroll = new ClearScrollRequest();
+            clearScroll.addScrollId(scrollId);
+            try {
+                client.clearScroll(clearScroll, RequestOptions.DEFAULT);
+            } catch (IOException e) {
+                log.debug("Failed to clear scroll of index [{}]", index, e);
+            }
+        }
+        synced = true;
+        log.info("Loaded {} document fingerprints from index [{}]", loaded, index);
+        return loaded;
+    }
+
+    Stats stats() {
+        return new Stats(fingerprints.size(), synced, skipped.get());
+    }
+
+    /**
+     * @param documents 镜像中的文档数
+     * @param synced 镜像是否与索引一致，不一致时不跳过写入
+     * @param skipped 因指纹未变化而跳过的写入数
+     */
+    public record Stats(int documents, boolean synced, long skipped) {
+    }
+}
@@ -0,0 +1,56 @@
+package run.halo.opensearch;
+
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import run.halo.app.extension.AbstractExtension;
+import run.halo.app.extension.GVK;
+
+/**
+ * 重试耗尽或不可重试的写入操作，保留原始请求以便之后重放。
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@GVK(group = "opensearch.halo.run", version = "v1alpha1", kind = "IndexDeadLetter",
+    plural = "indexdeadletters", singular = "indexdeadletter")
+public class IndexDeadLetter extends AbstractExtension {
+
+    @Schema(requiredMode = REQUIRED)
+    private Spec spec;
+
+    @Data
+    public static class Spec {
+
+        @Schema(requiredMode = REQUIRED)
+        private Operation operation;
+
+        private String indexName;
+
+        @Schema(requiredMode = REQUIRED)
+        private String documentId;
+
+        /**
+         * 索引操作的文档 JSON，删除操作为空。
+         */
+        private String source;
+
+        /**
+         * 最后一次失败的 HTTP 状态码，整批请求失败且无状态码时为 0。
+         */
+        private int status;
+
+        private String reason;
+
+        private int attempts;
+
+        private Instant failedAt;
+    }
+
+    public enum Operation {
+        INDEX,
+        DELETE
+    }
+}
@@ -0,0 +1,100 @@
+package run.halo.opensearch;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.opensearch.client.indices.CreateIndexRequest;
+import org.opensearch.common.settings.Settings;
+
+/**
+ * HaloDocument 索引的设置与映射。
+ */
+final class IndexTemplate {
+
+    static final int DEFAULT_NUMBER_OF_SHARDS = 1;
+    static final int DEFAULT_NUMBER_OF_REPLICAS = 1;
+
+    private IndexTemplate() {
+    }
+
+    static CreateIndexRequest createIndexRequest(String indexName,
+        OpensearchProperties properties) {
+        CreateIndexRequest createIndexRequest = new CreateIndexRequest(indexName);
+        // Specify in the settings how many shards you want in the index
+        createIndexRequest.settings(Settings.builder()
+            .put("index.number_of_shards", numberOfShards(properties))
+            .put("index.number_of_replicas", numberOfReplicas(properties))
+        );
+        createIndexRequest.mapping(mapping(properties.getHighlighterType()));
+        return createIndexRequest;
+    }
+
+    static int numberOfShards(OpensearchProperties properties) {
+        return properties.getNumberOfShards() > 0
+            ? properties.getNumberOfShards() : DEFAULT_NUMBER_OF_SHARDS;
+    }
+
+    static int numberOfReplicas(OpensearchProperties properties) {
+        return properties.getNumberOfReplicas() >= 0
+            ? properties.getNumberOfReplicas() : DEFAULT_NUMBER_OF_REPLICAS;
+    }
+
+    static Map<String, Object> mapping(OpensearchProperties.HighlighterType highlighterType) {
+        // Define mapping for HaloDocument fields
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("id", Map.of("type", "keyword"));
+        properties.put("metadataName", Map.of("type", "keyword"));
+        var title = highlightedText(highlighterType);
+        title.put("fields", Map.of("keyword", Map.of("type", "keyword")));
+        properties.put("title", title);
+        properties.put("description", highlightedText(highlighterType));
+        properties.put("content", highlightedText(highlighterType));
+        properties.put("categories", Map.of("type", "keyword"));
+        properties.put("tags", Map.of("type", "keyword"));
+        properties.put("published", Map.of("type", "boolean"));
+        properties.put("recycled", Map.of("type", "boolean"));
+        properties.put("exposed", Map.of("type", "boolean"));
+        properties.put("ownerName", Map.of("type", "keyword"));
+        properties.put("type", Map.of("type", "keyword"));
+        properties.put("creationTimestamp", Map.of("type", "date"));
+        properties.put("updateTimestamp", Map.of("type", "date"));
+        properties.put("permalink", Map.of("type", "keyword"));
+        properties.put("annotations", Map.of("type", "object", "enabled", false));
+        // 指纹只用于比较，不需要倒排，保留 doc values 以便加载
+        properties.put(DocumentSerializer.FINGERPRINT_FIELD,
+            Map.of("type", "long", "index", false));
+        properties.put(DocumentSerializer.SUGGEST_FIELD, suggestMapping());
+
+        Map<String, Object> mapping = new HashMap<>();
+        mapping.put("properties", properties);
+        return mapping;
+    }
+
+    /**
+     * 标题补全字段。completion 字段以 FST 常驻内存，前缀查找不经过倒排与打分。
+     * simple 分析器只转小写并按非字母切分，中文标题整体作为一个词，按标题开头匹配。
+     */
+    static Map<String, Object> suggestMapping() {
+        return Map.of("type", "completion",
+            "analyzer", "simple",
+            "contexts", List.of(Map.of("name", DocumentSerializer.VISIBILITY_CONTEXT,
+                "type", "category")));
+    }
+
+    /**
+     * 需要高亮的文本字段。记录偏移信息后高亮无需重新分析原文：
+     * unified 高亮器使用倒排中的 offsets，fvh 使用词向量。
+     */
+    private static Map<String, Object> highlightedText(
+        OpensearchProperties.HighlighterType highlighterType) {
+        Map<String, Object> field = new HashMap<>();
+        field.put("type", "text");
+        field.put("analyzer", "hanlp_standard");
+        if (highlighterType == OpensearchProperties.HighlighterType.FVH) {
+            field.put("term_vector", "with_positions_offsets");
+        } else {
+            field.put("index_options", "offsets");
+        }
+        return field;
+    }
+}
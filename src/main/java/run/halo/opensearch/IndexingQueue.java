@@ -0,0 +1,203 @@
+package run.halo.opensearch;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import run.halo.app.search.HaloDocument;
+
+/**
+ * 位于写入管道之前的增量变更队列，按 {@code metadataName} 合并变更。
+ *
+ * <p>编辑器自动保存会在短时间内多次写入同一篇文章。变更先在队列中停留一个防抖窗口，
+ * 同一文档的多次更新只保留最新版本，更新后又删除的只保留删除，然后按批次交给写入管道。
+ * 队列中的文档数达到上限时立即刷新，不等待窗口结束。
+ */
+@Slf4j
+class IndexingQueue implements AutoCloseable {
+
+    static final int DEFAULT_DEBOUNCE_MILLIS = 1000;
+    static final int DEFAULT_MAX_PENDING = 1000;
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private final Consumer<List<HaloDocument>> upsertSink;
+    private final Consumer<List<String>> deleteSink;
+    private final long debounceMillis;
+    private final int maxPending;
+
+    /**
+     * 按加入顺序保存每个文档最后一次的变更，{@code null} 值表示删除。
+     */
+    private Map<String, HaloDocument> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * 所有刷新都在同一线程上执行，保证先后两批变更按顺序进入写入管道。
+     */
+    private final ScheduledExecutorService executor =
+        Executors.newSingleThreadScheduledExecutor(runnable -> {
+            var thread = new Thread(runnable, "opensearch-indexing-queue");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    IndexingQueue(Consumer<List<HaloDocument>> upsertSink, Consumer<List<String>> deleteSink,
+        long debounceMillis, int maxPending) {
+        this.upsertSink = upsertSink;
+        this.deleteSink = deleteSink;
+        this.debounceMillis = debounceMillis;
+        this.maxPending = maxPending > 0 ? maxPending : DEFAULT_MAX_PENDING;
+    }
+
+    void upsert(Iterable<HaloDocument> documents) {
+        synchronized (this) {
+            for (var document : documents) {
+                enqueue(document.getMetadataName(), document);
+            }
+            scheduleFlush();
+        }
+    }
+
+    void delete(Iterable<String> metadataNames) {
+        synchronized (this) {
+            for (var metadataName : metadataNames) {
+                enqueue(metadataName, null);
+            }
+            scheduleFlush();
+        }
+    }
+
+    private void enqueue(String metadataName, HaloDocument document) {
+        received.incrementAndGet();
+        // 先移除再放入，使文档按最后一次变更的顺序排列。
+        // 更新后又删除时只保留删除：无法得知文档此前是否已写入索引，删除本身是幂等的
+        if (pending.containsKey(metadataName)) {
+            pending.remove(metadataName);
+            coalesced.incrementAndGet();
+        }
+        pending.put(metadataName, document);
+    }
+
+    private void scheduleFlush() {
+        try {
+            if (pending.size() >= maxPending) {
+                executor.execute(this::flush);
+            } else if (scheduledFlush == null || scheduledFlush.isDone()) {
+                scheduledFlush = executor.schedule(this::flush, debounceMillis,
+                    TimeUnit.MILLISECONDS);
+            }
+        } catch (RejectedExecutionException e) {
+            // 队列已关闭，直接在调用线程上写入
+            flush();
+        }
+    }
+
+    /**
+     * 立即把队列中的变更交给写入管道，并等待其完成。
+     */
+    void flushNow() {
+        try {
+            executor.submit(this::flush).get(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Failed to flush indexing queue", e);
+        }
+    }
+
+    private void flush() {
+        Map<String, HaloDocument> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashMap<>();
+            // 正在执行的刷新不会再处理之后进入的变更，它们需要安排自己的一次刷新
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+        }
+        var upserts = new ArrayList<HaloDocument>();
+        var deletes = new ArrayList<String>();
+        // 相邻的同类变更合为一批，删除与写入交替时保持原有顺序
+        for (var entry : batch.entrySet()) {
+            if (entry.getValue() == null) {
+                if (!upserts.isEmpty()) {
+                    drainUpserts(upserts);
+                }
+                deletes.add(entry.getKey());
+            } else {
+                if (!deletes.isEmpty()) {
+                    drainDeletes(deletes);
+                }
+                upserts.add(entry.getValue());
+            }
+        }
+        drainUpserts(upserts);
+        drainDeletes(deletes);
+    }
+
+    private void drainUpserts(List<HaloDocument> upserts) {
+        if (upserts.isEmpty()) {
+            return;
+        }
+        try {
+            upsertSink.accept(List.copyOf(upserts));
+        } catch (Exception e) {
+            log.error("Failed to index {} queued documents", upserts.size(), e);
+        }
+        upserts.clear();
+    }
+
+    private void drainDeletes(List<String> deletes) {
+        if (deletes.isEmpty()) {
+            return;
+        }
+        try {
+            deleteSink.accept(List.copyOf(deletes));
+        } catch (Exception e) {
+            log.error("Failed to delete {} queued documents", deletes.size(), e);
+        }
+        deletes.clear();
+    }
+
+    /**
+     * 收到的变更数与被合并掉的变更数。
+     */
+    Stats stats() {
+        int size;
+        synchronized (this) {
+            size = pending.size();
+        }
+        return new Stats(received.get(), coalesced.get(), size);
+    }
+
+    @Override
+    public void close() {
+        flushNow();
+        executor.shutdownNow();
+        // 关闭期间仍可能有变更进入，此时直接写入
+        flush();
+    }
+
+    record Stats(long received, long coalesced, int pending) {
+    }
+}
@@ -0,0 +1,68 @@
+package run.halo.opensearch;
+
+import java.util.function.Predicate;
+import org.opensearch.client.Node;
+import org.opensearch.client.NodeSelector;
+
+/**
+ * 按节点角色分流写入与搜索的 {@link NodeSelector}。
+ *
+ * <p>节点角色只有通过嗅探发现的节点才有，手工配置的节点角色未知，总是可被选中。
+ * 没有符合条件的节点时不做过滤，退回到所有存活节点，而不是让请求失败。
+ * 专职集群管理节点不处理读写请求，始终排除。
+ */
+final class NodeSelectors {
+
+    /**
+     * bulk 等写入请求优先发往 ingest 节点。
+     */
+    static final NodeSelector WRITE = preferring("write", Node.Roles::isIngest);
+
+    /**
+     * 搜索优先发往非 ingest 的数据或搜索节点，避免与写入争用同一批协调节点。
+     */
+    static final NodeSelector SEARCH = preferring("search",
+        roles -> !roles.isIngest() && (roles.isData() || roles.isSearch()));
+
+    private NodeSelectors() {
+    }
+
+    static NodeSelector of(OpensearchProperties.NodeRouting routing, boolean write) {
+        if (routing != OpensearchProperties.NodeRouting.BY_ROLE) {
+            return NodeSelector.SKIP_DEDICATED_CLUSTER_MANAGERS;
+        }
+        return write ? WRITE : SEARCH;
+    }
+
+    private static NodeSelector preferring(String name, Predicate<Node.Roles> preferred) {
+        return new NodeSelector() {
+            @Override
+            public void select(Iterable<Node> nodes) {
+                NodeSelector.SKIP_DEDICATED_CLUSTER_MANAGERS.select(nodes);
+                Predicate<Node> accepts = node -> node.getRoles() == null
+                    || preferred.test(node.getRoles());
+                var matched = false;
+                for (var node : nodes) {
+                    if (accepts.test(node)) {
+                        matched = true;
+                        break;
+                    }
+                }
+                if (!matched) {
+                    return;
+                }
+                var iterator = nodes.iterator();
+                while (iterator.hasNext()) {
+                    if (!accepts.test(iterator.next())) {
+                        iterator.remove();
+                    }
+                }
+            }
+
+            @Override
+            public String toString() {
+                return name;
+            }
+        };
+    }
+}
@@ -1,39 +1,490 @@
 package run.halo.opensearch;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import javax.net.ssl.SSLContext;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.hc.client5.http.auth.AuthScope;
+import org.apache.hc.client5.http.auth.UsernamePasswordCredentials;
+import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
 import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.opensearch.client.Cancellable;
+import org.opensearch.client.NodeSelector;
+import org.opensearch.client.Request;
+import org.opensearch.client.RequestOptions;
+import org.opensearch.client.Response;
+import org.opensearch.client.ResponseListener;
 import org.opensearch.client.RestClient;
 import org.opensearch.client.RestClientBuilder;
 import org.opensearch.client.RestHighLevelClient;
-import org.opensearch.transport.client.OpenSearchClient;
-import java.util.Objects;
+import org.opensearch.client.sniff.OpenSearchNodesSniffer;
+import org.opensearch.client.sniff.SniffOnFailureListener;
+import org.opensearch.client.sniff.Sniffer;
+import org.opensearch.core.action.ActionListener;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * 管理 {@link RestHighLevelClient} 的生命周期。
+ *
+ * <p>请求在配置的全部节点间轮询。节点请求失败（连接异常或 502、503、504）时，底层客户端将其标记为失效并
+ * 改由下一个节点重试，失效节点按指数退避（1 分钟起，最长 30 分钟）暂不使用；开启嗅探时节点列表由集群的
+ * {@code _nodes/http} 定期刷新。写入与搜索使用各自的 {@link NodeSelector}，按角色分流时两者是两个独立的客户端。
+ *
+ * <p>客户端按连接配置区分：配置未变化时复用当前客户端；变化时先创建并预热新客户端，
+ * 确认可用后再原子地替换。被替换的旧客户端不再接受新请求，等其上的在途请求全部结束
+ * （或超过排空时限）后才关闭，因此切换期间的搜索不会失败，I/O 线程与连接也不会泄漏。
+ *
+ * <p>所有请求经过同一个 {@link CircuitBreaker}，集群持续不可用时请求立即失败而不是等待超时。
+ */
+@Slf4j
+@Component
+public class OpensearchClient implements DisposableBean {
+    static final int DEFAULT_MAX_CONN_TOTAL = 50;
+    static final int DEFAULT_MAX_CONN_PER_ROUTE = 50;
+    static final int DEFAULT_CONNECT_TIMEOUT_MILLIS = RestClientBuilder.DEFAULT_CONNECT_TIMEOUT_MILLIS;
+    static final int DEFAULT_SOCKET_TIMEOUT_MILLIS = 30_000;
+    static final int DEFAULT_RESPONSE_TIMEOUT_MILLIS = RestClientBuilder.DEFAULT_RESPONSE_TIMEOUT_MILLIS;
+    static final int DEFAULT_KEEP_ALIVE_SECONDS = 60;
+    static final int DEFAULT_SNIFF_INTERVAL_SECONDS = 300;
+    static final int DEFAULT_PORT = 9200;
+
+    /**
+     * 节点请求失败后等待多久再次嗅探。
+     */
+    private static final int SNIFF_AFTER_FAILURE_DELAY_MILLIS = 60_000;
+
+    private volatile ManagedClient current;
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    /**
+     * 返回与配置对应的客户端：配置与当前客户端一致时直接返回当前客户端，
+     * 否则创建新客户端并通过 ping 预热。新客户端在 {@link #activate} 之前不会被其他请求使用。
+     *
+     * @throws IOException 新客户端无法连接到集群
+     */
+    synchronized ManagedClient prepare(OpensearchProperties properties) throws IOException {
+        var key = ConnectionKey.of(properties);
+        var active = this.current;
+        if (active != null && active.key.equals(key)) {
+            return active;
+        }
+        var candidate = new ManagedClient(key, properties);
+        try {
+            if (!candidate.client.ping(RequestOptions.DEFAULT)) {
+                throw new IOException("Opensearch did not respond to ping at "
+                    + key.endpoints());
+            }
+        } catch (IOException | RuntimeException e) {
+            candidate.closeNow();
+            throw e;
+        }
+        return candidate;
+    }
 
-public final class OpensearchClient {
-    private static volatile RestHighLevelClient INSTANCE;
     /**
-     * 初始化单例（只应调用一次）。如果多次调用，后续调用将返回已存在实例。
+     * 将客户端设为当前客户端，旧客户端在在途请求结束后关闭。
      */
-    public static RestHighLevelClient getInstance(String host, int port, String username, String password, boolean sslEnabled) {
-        if (Objects.isNull(INSTANCE)) {
-            synchronized (OpenSearchClient.class) {
-                if (Objects.isNull(INSTANCE)) {
-                    final HttpHost httpHost;
-                    if (!sslEnabled) {
-                        httpHost = new HttpHost("http", host, port);
-                    } else {
-                        httpHost = new HttpHost("https", host, port);
+    synchronized void activate(ManagedClient client) {
+        var previous = this.current;
+        if (previous == client) {
+            return;
+        }
+        this.current = client;
+        // 熔断状态属于旧的集群配置
+        circuitBreaker.reset();
+        if (previous != null) {
+            log.info("Opensearch client switched to {}, draining the previous client",
+                client.key.endpoints());
+            previous.retire();
+        }
+    }
+
+    /**
+     * 放弃一个已 {@link #prepare} 但未激活的客户端。
+     */
+    synchronized void discard(ManagedClient client) {
+        if (client != this.current) {
+            client.closeNow();
+        }
+    }
+
+    /**
+     * 使用当前客户端执行异步请求。请求持有客户端租约直至完成，期间客户端即使被替换也不会关闭。
+     */
+    <T> Mono<T> execute(BiFunction<RestHighLevelClient, ActionListener<T>, Cancellable> action) {
+        return Mono.usingWhen(Mono.fromCallable(this::lease),
+            managed -> Mono.defer(() -> {
+                if (!circuitBreaker.tryAcquire()) {
+                    return Mono.error(CircuitBreaker.openException());
+                }
+                return ReactiveActions.<T>execute(listener -> action.apply(managed.client,
+                        circuitBreaker.guard(listener)))
+                    // 调用方取消（例如超过截止时间）不说明集群的健康状况
+                    .doOnCancel(circuitBreaker::onCancel);
+            }),
+            managed -> Mono.fromRunnable(managed::release));
+    }
+
+    /**
+     * 轻量的健康检查（{@code HEAD /}），不受熔断限制，结果记入熔断器。
+     *
+     * @return 集群是否在 {@code timeout} 内正常响应
+     */
+    Mono<Boolean> ping(Duration timeout) {
+        return Mono.usingWhen(Mono.fromCallable(this::lease),
+                managed -> ReactiveActions.<Boolean>execute(listener ->
+                    managed.client.getLowLevelClient().performRequestAsync(
+                        new Request("HEAD", "/"), new ResponseListener() {
+                            @Override
+                            public void onSuccess(Response response) {
+                                listener.onResponse(true);
+                            }
+
+                            @Override
+                            public void onFailure(Exception exception) {
+                                listener.onFailure(exception);
+                            }
+                        })),
+                managed -> Mono.fromRunnable(managed::release))
+            .timeout(timeout)
+            .onErrorReturn(false)
+            .doOnNext(circuitBreaker::recordProbe);
+    }
+
+    CircuitBreaker circuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * 获取当前客户端的租约，调用方必须在请求结束后调用 {@link ManagedClient#release()}。
+     */
+    ManagedClient lease() {
+        while (true) {
+            var managed = this.current;
+            if (managed == null) {
+                throw new IllegalStateException("Opensearch client is not initialized");
+            }
+            if (managed.tryAcquire()) {
+                return managed;
+            }
+            // 读取到的客户端恰好已被替换并关闭，重新读取当前客户端
+        }
+    }
+
+    /**
+     * 当前连接池的使用情况，客户端尚未初始化时返回 {@code null}。
+     */
+    public ConnectionPoolStats poolStats() {
+        var managed = this.current;
+        if (managed == null) {
+            return null;
+        }
+        var totalStats = managed.connectionManager.getTotalStats();
+        var stats = new ConnectionPoolStats(totalStats.getLeased(), totalStats.getPending(),
+            totalStats.getAvailable(), totalStats.getMax(),
+            managed.connectionManager.getDefaultMaxPerRoute());
+        if (managed.writeConnectionManager == managed.connectionManager) {
+            return stats;
+        }
+        var writeStats = managed.writeConnectionManager.getTotalStats();
+        return new ConnectionPoolStats(stats.leased() + writeStats.getLeased(),
+            stats.pending() + writeStats.getPending(),
+            stats.available() + writeStats.getAvailable(),
+            stats.maxTotal() + writeStats.getMax(), stats.maxPerRoute());
+    }
+
+    @Override
+    public synchronized void destroy() {
+        var managed = this.current;
+        this.current = null;
+        if (managed != null) {
+            managed.closeNow();
+        }
+    }
+
+    private static int positiveOrDefault(int value, int defaultValue) {
+        return value > 0 ? value : defaultValue;
+    }
+
+    /**
+     * 决定是否需要重建客户端的连接配置。
+     */
+    record ConnectionKey(List<String> endpoints, String username, String password,
+                         int maxConnTotal, int maxConnPerRoute, int connectTimeoutMillis,
+                         int socketTimeoutMillis, int responseTimeoutMillis,
+                         int keepAliveSeconds, boolean compressionEnabled, int ioThreadCount,
+                         boolean sniffEnabled, int sniffIntervalSeconds,
+                         OpensearchProperties.NodeRouting nodeRouting) {
+
+        static ConnectionKey of(OpensearchProperties properties) {
+            return new ConnectionKey(endpoints(properties),
+                properties.getUsername(), properties.getPassword(),
+                positiveOrDefault(properties.getMaxConnTotal(), DEFAULT_MAX_CONN_TOTAL),
+                positiveOrDefault(properties.getMaxConnPerRoute(), DEFAULT_MAX_CONN_PER_ROUTE),
+                positiveOrDefault(properties.getConnectTimeoutMillis(),
+                    DEFAULT_CONNECT_TIMEOUT_MILLIS),
+                positiveOrDefault(properties.getSocketTimeoutMillis(),
+                    DEFAULT_SOCKET_TIMEOUT_MILLIS),
+                positiveOrDefault(properties.getResponseTimeoutMillis(),
+                    DEFAULT_RESPONSE_TIMEOUT_MILLIS),
+                positiveOrDefault(properties.getKeepAliveSeconds(), DEFAULT_KEEP_ALIVE_SECONDS),
+                properties.isCompressionEnabled(),
+                Math.max(properties.getIoThreadCount(), 0),
+                properties.isSniffEnabled(),
+                positiveOrDefault(properties.getSniffIntervalSeconds(),
+                    DEFAULT_SNIFF_INTERVAL_SECONDS),
+                properties.getNodeRouting() != null ? properties.getNodeRouting()
+                    : OpensearchProperties.NodeRouting.ANY);
+        }
+
+        /**
+         * 服务地址与其他节点，规范为 {@code scheme://host:port} 并去重，服务地址在最前。
+         */
+        static List<String> endpoints(OpensearchProperties properties) {
+            var port = positiveOrDefault(properties.getPort(), DEFAULT_PORT);
+            var endpoints = new LinkedHashSet<String>();
+            endpoints.add(normalize(properties.getHost(), port));
+            if (StringUtils.isNotBlank(properties.getEndpoints())) {
+                for (var endpoint : properties.getEndpoints().split("[\\s,]+")) {
+                    if (!endpoint.isBlank()) {
+                        endpoints.add(normalize(endpoint, port));
                     }
-                    final BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-                    //Only for demo purposes. Don't specify your credentials in code.
-                    RestClientBuilder
-                        builder = RestClient.builder(httpHost)
-                        .setHttpClientConfigCallback(
-                            httpClientBuilder -> httpClientBuilder.setDefaultCredentialsProvider(credentialsProvider));
-
-                    INSTANCE = new RestHighLevelClient(builder);
                 }
             }
+            return List.copyOf(endpoints);
+        }
+
+        private static String normalize(String endpoint, int defaultPort) {
+            var trimmed = StringUtils.trimToEmpty(endpoint);
+            var uri = URI.create(trimmed.contains("://") ? trimmed : "http://" + trimmed);
+            if (uri.getHost() == null) {
+                throw new IllegalArgumentException("Invalid Opensearch endpoint: " + endpoint);
+            }
+            var port = uri.getPort() > 0 ? uri.getPort() : defaultPort;
+            return uri.getScheme().toLowerCase() + "://" + uri.getHost() + ":" + port;
+        }
+
+        @Override
+        public String toString() {
+            // 避免密码出现在日志中
+            return "ConnectionKey[" + endpoints + ", user=" + username + "]";
+        }
+    }
+
+    /**
+     * 一个客户端实例及其租约计数。计数为 -1 表示已关闭。
+     */
+    static final class ManagedClient {
+
+        private static final int CLOSED = -1;
+
+        private final ConnectionKey key;
+        private final RestHighLevelClient client;
+        private final PoolingAsyncClientConnectionManager connectionManager;
+        private final RestHighLevelClient writeClient;
+        private final PoolingAsyncClientConnectionManager writeConnectionManager;
+        private final List<Sniffer> sniffers = new ArrayList<>();
+        private final AtomicInteger leases = new AtomicInteger();
+        private volatile boolean retired;
+
+        private ManagedClient(ConnectionKey key, OpensearchProperties properties) {
+            this.key = key;
+            this.connectionManager = createConnectionManager(key);
+            this.client = createClient(key, connectionManager,
+                NodeSelectors.of(key.nodeRouting(), false));
+            if (key.nodeRouting() == OpensearchProperties.NodeRouting.BY_ROLE) {
+                this.writeConnectionManager = createConnectionManager(key);
+                this.writeClient = createClient(key, writeConnectionManager,
+                    NodeSelectors.WRITE);
+            } else {
+                this.writeConnectionManager = connectionManager;
+                this.writeClient = client;
+            }
+        }
+
+        @SuppressWarnings("deprecation")
+        private RestHighLevelClient createClient(ConnectionKey key,
+            PoolingAsyncClientConnectionManager connectionManager, NodeSelector nodeSelector) {
+            var httpHosts = key.endpoints().stream()
+                .map(ManagedClient::httpHost)
+                .toArray(HttpHost[]::new);
+            final BasicCredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+            if (StringUtils.isNotBlank(key.username())) {
+                // 嗅探到的节点事先未知，凭据对所有节点有效
+                credentialsProvider.setCredentials(new AuthScope(null, -1),
+                    new UsernamePasswordCredentials(key.username(),
+                        Objects.toString(key.password(), "").toCharArray()));
+            }
+            var connectTimeout = Timeout.ofMilliseconds(key.connectTimeoutMillis());
+            var responseTimeout = Timeout.ofMilliseconds(key.responseTimeoutMillis());
+            var keepAlive = TimeValue.ofSeconds(key.keepAliveSeconds());
+            var ioReactorConfig = IOReactorConfig.custom()
+                .setSoKeepAlive(true);
+            if (key.ioThreadCount() > 0) {
+                ioReactorConfig.setIoThreadCount(key.ioThreadCount());
+            }
+            var sniffOnFailure = key.sniffEnabled() ? new SniffOnFailureListener() : null;
+            RestClientBuilder
+                builder = RestClient.builder(httpHosts)
+                .setNodeSelector(nodeSelector)
+                // 请求体（主要是 bulk）以 gzip 压缩发送，并接受压缩的响应
+                .setCompressionEnabled(key.compressionEnabled())
+                // RestClientBuilder 会在 RequestConfig 上设置默认的连接超时，它优先于 ConnectionConfig，
+                // 这里必须覆盖同一字段（该方法已被标记为过时）
+                .setRequestConfigCallback(requestConfig -> requestConfig
+                    .setConnectTimeout(connectTimeout)
+                    .setResponseTimeout(responseTimeout))
+                .setHttpClientConfigCallback(
+                    httpClientBuilder -> httpClientBuilder
+                        .setDefaultCredentialsProvider(credentialsProvider)
+                        .setConnectionManager(connectionManager)
+                        .setIOReactorConfig(ioReactorConfig.build())
+                        // 服务端未返回 Keep-Alive 头时连接也只复用这么久，避免使用已被中间设备断开的连接
+                        .setKeepAliveStrategy((response, context) -> keepAlive)
+                        .evictIdleConnections(keepAlive));
+            if (sniffOnFailure != null) {
+                builder.setFailureListener(sniffOnFailure);
+            }
+            var highLevelClient = new RestHighLevelClient(builder);
+            if (sniffOnFailure != null) {
+                var lowLevelClient = highLevelClient.getLowLevelClient();
+                var scheme = httpHosts[0].getSchemeName().equals("https")
+                    ? OpenSearchNodesSniffer.Scheme.HTTPS : OpenSearchNodesSniffer.Scheme.HTTP;
+                var sniffer = Sniffer.builder(lowLevelClient)
+                    .setSniffIntervalMillis(
+                        (int) TimeUnit.SECONDS.toMillis(key.sniffIntervalSeconds()))
+                    .setSniffAfterFailureDelayMillis(SNIFF_AFTER_FAILURE_DELAY_MILLIS)
+                    .setNodesSniffer(new OpenSearchNodesSniffer(lowLevelClient,
+                        OpenSearchNodesSniffer.DEFAULT_SNIFF_REQUEST_TIMEOUT, scheme))
+                    .build();
+                sniffOnFailure.setSniffer(sniffer);
+                sniffers.add(sniffer);
+            }
+            return highLevelClient;
+        }
+
+        private static HttpHost httpHost(String endpoint) {
+            try {
+                return HttpHost.create(endpoint);
+            } catch (URISyntaxException e) {
+                throw new IllegalArgumentException("Invalid Opensearch endpoint: " + endpoint, e);
+            }
+        }
+
+        RestHighLevelClient client() {
+            return client;
+        }
+
+        /**
+         * 用于 bulk 写入的客户端，未按角色分流时与 {@link #client()} 相同。
+         */
+        RestHighLevelClient writeClient() {
+            return writeClient;
+        }
+
+        boolean isClosed() {
+            return leases.get() == CLOSED;
+        }
+
+        private boolean tryAcquire() {
+            return leases.getAndUpdate(count -> count == CLOSED ? CLOSED : count + 1) != CLOSED;
+        }
+
+        void release() {
+            // 客户端被强制关闭后仍可能有租约归还，计数不能低于 CLOSED
+            if (leases.getAndUpdate(count -> count > 0 ? count - 1 : count) > 0) {
+                closeIfDrained();
+            }
+        }
+
+        private void retire() {
+            this.retired = true;
+            closeIfDrained();
+            if (!isClosed()) {
+                // 排空时限与响应超时一致，超过该时间的请求已经会因超时失败
+                Mono.delay(Duration.ofMillis(key.responseTimeoutMillis()))
+                    .subscribe(tick -> {
+                        if (!isClosed()) {
+                            log.warn("Closing previous Opensearch client with {} requests in flight",
+                                leases.get());
+                            closeNow();
+                        }
+                    });
+            }
+        }
+
+        private void closeIfDrained() {
+            if (retired && leases.compareAndSet(0, CLOSED)) {
+                doClose();
+            }
+        }
+
+        private void closeNow() {
+            if (leases.getAndSet(CLOSED) != CLOSED) {
+                doClose();
+            }
+        }
+
+        private void doClose() {
+            // 嗅探器使用客户端发送请求，必须先关闭
+            sniffers.forEach(Sniffer::close);
+            try {
+                client.close();
+                if (writeClient != client) {
+                    writeClient.close();
+                }
+                log.info("Closed Opensearch client for {}", key.endpoints());
+            } catch (IOException e) {
+                log.warn("Failed to close Opensearch client", e);
+            }
         }
-        return INSTANCE;
+
+        private static PoolingAsyncClientConnectionManager createConnectionManager(
+            ConnectionKey key) {
+            try {
+                return PoolingAsyncClientConnectionManagerBuilder.create()
+                    .setMaxConnTotal(key.maxConnTotal())
+                    .setMaxConnPerRoute(key.maxConnPerRoute())
+                    .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(key.connectTimeoutMillis()))
+                        .setSocketTimeout(Timeout.ofMilliseconds(key.socketTimeoutMillis()))
+                        .build())
+                    // 自定义连接管理器会替换 RestClientBuilder 的默认实现，因此需要同样提供 TLS 策略
+                    .setTlsStrategy(ClientTlsStrategyBuilder.create()
+                        .setSslContext(SSLContext.getDefault())
+                        .build())
+                    .build();
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("could not create the default ssl context", e);
+            }
+        }
+    }
+
+    /**
+     * 连接池统计。{@code pending} 持续大于 0 说明请求在等待连接，应调大连接数上限。
+     */
+    public record ConnectionPoolStats(int leased, int pending, int available, int maxTotal,
+                                      int maxPerRoute) {
     }
 }
@@ -1,25 +1,28 @@
 package run.halo.opensearch;
 
 import static org.springdoc.core.fn.builders.apiresponse.Builder.responseBuilder;
+import static org.springdoc.core.fn.builders.parameter.Builder.parameterBuilder;
 
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.opensearch.OpenSearchException;
-import org.opensearch.client.RequestOptions;
-import org.opensearch.client.indices.GetIndexRequest;
 import org.springdoc.webflux.core.fn.SpringdocRouteBuilder;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.server.RouterFunction;
 import org.springframework.web.reactive.function.server.ServerRequest;
 import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.server.ServerErrorException;
 import org.springframework.web.server.ServerWebInputException;
 import reactor.core.publisher.Mono;
 import run.halo.app.core.extension.endpoint.CustomEndpoint;
 import run.halo.app.extension.GroupVersion;
+import run.halo.app.extension.ListOptions;
+import run.halo.app.extension.ReactiveExtensionClient;
 import run.halo.app.plugin.ReactiveSettingFetcher;
-import java.io.IOException;
 
 @Slf4j
 @Component
@@ -28,22 +31,132 @@ public class OpensearchConsoleEndpoint implements CustomEndpoint {
 
     private final ReactiveSettingFetcher reactiveSettingFetcher;
 
+    private final ReactiveExtensionClient client;
+
+    private final OpensearchSearchEngine searchEngine;
+
+    private final OpensearchClient opensearchClient;
+
+    private final OpensearchMetrics metrics;
+
+    private final OpensearchStatsCollector statsCollector;
+
+    private final ReindexJob reindexJob;
+
     @Override
     public RouterFunction<ServerResponse> endpoint() {
         final var tag = "OpensearchConsoleV1alpha1";
         return SpringdocRouteBuilder.route()
             .GET("/stats", this::getStats, builder -> {
                 builder.operationId("GetOpensearchStats")
-                    .description("Get Opensearch index statistics")
+                    .description("Get index, cluster health and thread pool statistics, "
+                        + "cached for a few seconds")
+                    .tag(tag)
+                    .response(responseBuilder()
+                        .implementation(OpensearchStats.class));
+            })
+            .GET("/stats/search-cache", this::getSearchCacheStats, builder -> {
+                builder.operationId("GetOpensearchSearchCacheStats")
+                    .description("Get hit, miss and eviction counts of the search result cache")
                     .tag(tag)
                     .response(responseBuilder()
-                        .implementation(boolean.class));
+                        .implementation(SearchResultCache.SearchCacheStats.class));
+            })
+            .GET("/stats/connection-pool", this::getConnectionPoolStats, builder -> {
+                builder.operationId("GetOpensearchConnectionPoolStats")
+                    .description("Get leased, pending and available connections of the client pool")
+                    .tag(tag)
+                    .response(responseBuilder()
+                        .implementation(OpensearchClient.ConnectionPoolStats.class));
+            })
+            .GET("/stats/metrics", this::getMetrics, builder -> {
+                builder.operationId("GetOpensearchMetrics")
+                    .description("Get latency percentiles, bulk sizes and failure counts "
+                        + "recorded by the plugin")
+                    .tag(tag)
+                    .response(responseBuilder()
+                        .implementationArray(OpensearchMetrics.MeterSnapshot.class));
+            })
+            .GET("/stats/fingerprints", this::getFingerprintStats, builder -> {
+                builder.operationId("GetOpensearchFingerprintStats")
+                    .description("Get the size of the document fingerprint map and skipped writes")
+                    .tag(tag)
+                    .response(responseBuilder()
+                        .implementation(FingerprintStore.Stats.class));
+            })
+            .POST("/fingerprints/-/reload", this::reloadFingerprints, builder -> {
+                builder.operationId("ReloadOpensearchFingerprints")
+                    .description("Rebuild the document fingerprint map from the index")
+                    .tag(tag)
+                    .response(responseBuilder()
+                        .implementation(Long.class));
+            })
+            .POST("/fingerprints/-/invalidate", this::invalidateFingerprints, builder -> {
+                builder.operationId("InvalidateOpensearchFingerprints")
+                    .description("Clear the document fingerprint map so that the next rebuild "
+                        + "pushes every document")
+                    .tag(tag)
+                    .response(responseBuilder().responseCode("204"));
+            })
+            .GET("/deadletters", this::listDeadLetters, builder -> {
+                builder.operationId("ListOpensearchDeadLetters")
+                    .description("List writes that failed permanently or ran out of retries")
+                    .tag(tag)
+                    .response(responseBuilder()
+                        .implementationArray(IndexDeadLetter.class));
+            })
+            .POST("/deadletters/-/replay", this::replayAllDeadLetters, builder -> {
+                builder.operationId("ReplayAllOpensearchDeadLetters")
+                    .description("Resubmit all dead letters to the bulk indexer")
+                    .tag(tag)
+                    .response(responseBuilder()
+                        .implementation(Long.class));
+            })
+            .POST("/deadletters/{name}/replay", this::replayDeadLetter, builder -> {
+                builder.operationId("ReplayOpensearchDeadLetter")
+                    .description("Resubmit a dead letter to the bulk indexer")
+                    .tag(tag)
+                    .parameter(parameterBuilder()
+                        .name("name")
+                        .in(ParameterIn.PATH)
+                        .required(true)
+                        .implementation(String.class))
+                    .response(responseBuilder()
+                        .implementation(IndexDeadLetter.class));
+            })
+            .GET("/reindex", this::getReindexStatus, builder -> {
+                builder.operationId("GetOpensearchReindexStatus")
+                    .description("Get progress, throughput and ETA of the current or last "
+                        + "reindex job")
+                    .tag(tag)
+                    .response(responseBuilder()
+                        .implementation(ReindexJob.Status.class));
+            })
+            .POST("/reindex/-/start", this::startReindex, builder -> {
+                builder.operationId("StartOpensearchReindex")
+                    .description("Start a throttled full reindex. An unfinished job on the same "
+                        + "index is resumed from its checkpoint unless restart is true.")
+                    .tag(tag)
+                    .parameter(parameterBuilder()
+                        .name("restart")
+                        .in(ParameterIn.QUERY)
+                        .implementation(Boolean.class))
+                    .response(responseBuilder()
+                        .implementation(ReindexJob.Status.class));
+            })
+            .POST("/reindex/-/cancel", this::cancelReindex, builder -> {
+                builder.operationId("CancelOpensearchReindex")
+                    .description("Cancel the running reindex job, keeping its checkpoint")
+                    .tag(tag)
+                    .response(responseBuilder()
+                        .implementation(ReindexJob.Status.class));
             })
             .build();
     }
 
     private Mono<ServerResponse> getStats(ServerRequest request) {
         return reactiveSettingFetcher.fetch("basic", OpensearchProperties.class)
+            .onErrorMap(e -> new ServerWebInputException("Failed to fetch Opensearch configuration"))
             .flatMap(properties -> {
                 var host = properties.getHost();
                 var indexName = properties.getIndexName();
@@ -52,28 +165,117 @@ public class OpensearchConsoleEndpoint implements CustomEndpoint {
                     return Mono.error(new ServerWebInputException("Opensearch host or index name is not configured"));
                 }
 
-                return Mono.fromCallable(() -> getOpensearchStats(properties))
-                    .flatMap(stats -> ServerResponse.ok()
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .bodyValue(stats))
-                    .onErrorResume(OpenSearchException.class, e -> Mono.error(new ServerErrorException("Failed to get Opensearch stats", e)))
-                    .onErrorResume(Exception.class, e -> Mono.error(new ServerErrorException("Unexpected error: " + e.getMessage(), e)));
+                return statsCollector.stats(indexName)
+                    .onErrorMap(OpenSearchException.class, e -> new ServerErrorException("Failed to get Opensearch stats", e))
+                    .onErrorMap(e -> !(e instanceof ResponseStatusException), e -> new ServerErrorException("Unexpected error: " + e.getMessage(), e));
             })
-            .onErrorResume(e -> Mono.error(new ServerWebInputException("Failed to fetch Opensearch configuration")));
+            .flatMap(stats -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(stats));
+    }
+
+    private Mono<ServerResponse> getSearchCacheStats(ServerRequest request) {
+        return ServerResponse.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(searchEngine.searchCacheStats());
+    }
+
+    private Mono<ServerResponse> getConnectionPoolStats(ServerRequest request) {
+        return Mono.justOrEmpty(opensearchClient.poolStats())
+            .flatMap(stats -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(stats))
+            .switchIfEmpty(ServerResponse.noContent().build());
+    }
+
+    private Mono<ServerResponse> getMetrics(ServerRequest request) {
+        return ServerResponse.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(metrics.snapshot());
+    }
+
+    private Mono<ServerResponse> getFingerprintStats(ServerRequest request) {
+        return Mono.justOrEmpty(searchEngine.fingerprintStats())
+            .flatMap(stats -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(stats))
+            .switchIfEmpty(ServerResponse.noContent().build());
     }
 
-    private boolean getOpensearchStats(OpensearchProperties properties)
-        throws OpenSearchException, IOException {
-        var host = properties.getHost();
-        var port = properties.getPort();
-        var indexName = properties.getIndexName();
-        var username = properties.getUsername();
-        var password = properties.getPassword();
+    private Mono<ServerResponse> reloadFingerprints(ServerRequest request) {
+        return searchEngine.reloadFingerprintsAsync()
+            .onErrorMap(IllegalStateException.class,
+                e -> new ServerWebInputException(e.getMessage()))
+            .flatMap(count -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(count));
+    }
+
+    private Mono<ServerResponse> invalidateFingerprints(ServerRequest request) {
+        return Mono.fromRunnable(searchEngine::invalidateFingerprints)
+            .then(ServerResponse.noContent().build());
+    }
+
+    private Mono<ServerResponse> listDeadLetters(ServerRequest request) {
+        return client.listAll(IndexDeadLetter.class, new ListOptions(),
+                Sort.by(Sort.Order.desc("metadata.creationTimestamp")))
+            .collectList()
+            .flatMap(deadLetters -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(deadLetters));
+    }
+
+    private Mono<ServerResponse> replayDeadLetter(ServerRequest request) {
+        var name = request.pathVariable("name");
+        return client.get(IndexDeadLetter.class, name)
+            .flatMap(this::replay)
+            .flatMap(deadLetter -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(deadLetter));
+    }
+
+    private Mono<ServerResponse> replayAllDeadLetters(ServerRequest request) {
+        return client.listAll(IndexDeadLetter.class, new ListOptions(),
+                Sort.by(Sort.Order.asc("metadata.creationTimestamp")))
+            .concatMap(this::replay)
+            .count()
+            .flatMap(count -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(count));
+    }
+
+    private Mono<IndexDeadLetter> replay(IndexDeadLetter deadLetter) {
+        return searchEngine.replayDeadLetter(deadLetter)
+            .onErrorMap(IllegalStateException.class,
+                e -> new ServerWebInputException(e.getMessage()))
+            .then(client.delete(deadLetter));
+    }
+
+    private Mono<ServerResponse> getReindexStatus(ServerRequest request) {
+        return reindexJob.status()
+            .flatMap(status -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(status))
+            .switchIfEmpty(ServerResponse.noContent().build());
+    }
+
+    private Mono<ServerResponse> startReindex(ServerRequest request) {
+        var restart = request.queryParam("restart").map(Boolean::parseBoolean).orElse(false);
+        return respondReindex(reindexJob.start(restart));
+    }
 
-        var client = OpensearchClient.getInstance(host, port, username, password,false);
+    private Mono<ServerResponse> cancelReindex(ServerRequest request) {
+        return respondReindex(reindexJob.cancel());
+    }
 
-        GetIndexRequest getIndexRequest = new GetIndexRequest(indexName);
-        return client.indices().exists(getIndexRequest, RequestOptions.DEFAULT);
+    private Mono<ServerResponse> respondReindex(Mono<ReindexJob.Status> status) {
+        return status
+            .onErrorMap(IllegalStateException.class,
+                e -> new ServerWebInputException(e.getMessage()))
+            .flatMap(current -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(current))
+            .switchIfEmpty(ServerResponse.noContent().build());
     }
 
     @Override
@@ -0,0 +1,274 @@
+package run.halo.opensearch;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * 插件的 Micrometer 指标与 Observation。
+ *
+ * <p>指标同时注册到 Halo 的 {@link MeterRegistry}（通过 actuator 暴露）和插件内的
+ * {@link SimpleMeterRegistry}，后者供控制台的统计接口读取分位数，不依赖 Halo 是否启用了某个导出器。
+ * Halo 没有向插件提供 {@link MeterRegistry} 时使用 {@link Metrics#globalRegistry}。
+ */
+@Component
+public class OpensearchMetrics implements DisposableBean {
+
+    static final String PREFIX = "halo.opensearch";
+    static final String OPERATION_OBSERVATION = PREFIX + ".operation";
+
+    private static final double[] PERCENTILES = {0.5, 0.95, 0.99};
+
+    /**
+     * 与 {@code ObservationThreadLocalAccessor.KEY} 相同，下游的 Observation 以此找到父 span。
+     */
+    private static final String OBSERVATION_CONTEXT_KEY = "micrometer.observation";
+
+    private final MeterRegistry hostRegistry;
+    private final SimpleMeterRegistry localRegistry = new SimpleMeterRegistry();
+    private final CompositeMeterRegistry registry = new CompositeMeterRegistry();
+    private final ObservationRegistry observationRegistry;
+
+    private final Timer searchTook;
+    private final Timer bulkTook;
+    private final DistributionSummary bulkDocuments;
+    private final DistributionSummary bulkBytes;
+    private final Timer htmlStrip;
+    private final Timer serialize;
+
+    @Autowired
+    public OpensearchMetrics(ObjectProvider<MeterRegistry> meterRegistry,
+        ObjectProvider<ObservationRegistry> observationRegistry) {
+        this(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry),
+            observationRegistry.getIfAvailable(() -> ObservationRegistry.NOOP));
+    }
+
+    OpensearchMetrics(MeterRegistry hostRegistry, ObservationRegistry observationRegistry) {
+        this.hostRegistry = hostRegistry;
+        this.observationRegistry = observationRegistry;
+        registry.add(localRegistry);
+        registry.add(hostRegistry);
+
+        this.searchTook = latencyTimer(PREFIX + ".search.took")
+            .description("Search time reported by Opensearch")
+            .register(registry);
+        this.bulkTook = latencyTimer(PREFIX + ".bulk.took")
+            .description("Bulk time reported by Opensearch")
+            .register(registry);
+        this.bulkDocuments = DistributionSummary.builder(PREFIX + ".bulk.documents")
+            .description("Number of actions per bulk request")
+            .publishPercentiles(PERCENTILES)
+            .register(registry);
+        this.bulkBytes = DistributionSummary.builder(PREFIX + ".bulk.size")
+            .description("Estimated size of each bulk request")
+            .baseUnit("bytes")
+            .publishPercentiles(PERCENTILES)
+            .register(registry);
+        // 单个文档的预处理通常不到一毫秒
+        this.htmlStrip = latencyTimer(PREFIX + ".prepare.html_strip")
+            .description("Time spent stripping HTML from a document")
+            .minimumExpectedValue(Duration.ofNanos(1000))
+            .register(registry);
+        this.serialize = latencyTimer(PREFIX + ".prepare.serialize")
+            .description("Time spent serializing a cleaned document")
+            .minimumExpectedValue(Duration.ofNanos(1000))
+            .register(registry);
+    }
+
+    /**
+     * 为 {@code mono} 记录耗时与结果，并在其执行期间开启一个 Observation。
+     */
+    <T> Mono<T> observe(String operation, Mono<T> mono) {
+        return Mono.defer(() -> {
+            var observation = Observation.createNotStarted(OPERATION_OBSERVATION,
+                    observationRegistry)
+                .lowCardinalityKeyValue(KeyValue.of("operation", operation))
+                .start();
+            var start = System.nanoTime();
+            return mono
+                .doOnError(observation::error)
+                .doFinally(signal -> {
+                    operationTimer(operation, outcome(signal))
+                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    observation.stop();
+                })
+                .contextWrite(context -> context.put(OBSERVATION_CONTEXT_KEY, observation));
+        });
+    }
+
+    /**
+     * 同步版本的 {@link #observe(String, Mono)}，{@code action} 抛出异常即视为失败。
+     */
+    <T> T observe(String operation, Supplier<T> action) {
+        var observation = Observation.createNotStarted(OPERATION_OBSERVATION, observationRegistry)
+            .lowCardinalityKeyValue(KeyValue.of("operation", operation))
+            .start();
+        var start = System.nanoTime();
+        var outcome = "success";
+        try (var scope = observation.openScope()) {
+            return action.get();
+        } catch (RuntimeException e) {
+            outcome = "error";
+            observation.error(e);
+            throw e;
+        } finally {
+            operationTimer(operation, outcome)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            observation.stop();
+        }
+    }
+
+    void recordSearchTook(long millis) {
+        searchTook.record(millis, TimeUnit.MILLISECONDS);
+    }
+
+    void recordBulk(int actions, long bytes, long clientNanos, long tookMillis, int failed) {
+        bulkDocuments.record(actions);
+        bulkBytes.record(bytes);
+        latencyTimer(PREFIX + ".bulk.latency")
+            .description("Bulk time observed by the client")
+            .tag("outcome", failed > 0 ? "partial" : "success")
+            .register(registry)
+            .record(clientNanos, TimeUnit.NANOSECONDS);
+        if (tookMillis >= 0) {
+            bulkTook.record(tookMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    void recordBulkFailure(int actions, long clientNanos) {
+        latencyTimer(PREFIX + ".bulk.latency")
+            .description("Bulk time observed by the client")
+            .tag("outcome", "error")
+            .register(registry)
+            .record(clientNanos, TimeUnit.NANOSECONDS);
+        bulkDocuments.record(actions);
+    }
+
+    /**
+     * @param status 失败条目的 HTTP 状态码，整个 bulk 请求失败时为 0
+     */
+    void recordItemFailure(int status) {
+        Counter.builder(PREFIX + ".bulk.failures")
+            .description("Bulk items that failed")
+            .tag("status", String.valueOf(status))
+            .register(registry)
+            .increment();
+    }
+
+    void recordPrepare(long stripNanos, long serializeNanos) {
+        htmlStrip.record(stripNanos, TimeUnit.NANOSECONDS);
+        serialize.record(serializeNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer operationTimer(String operation, String outcome) {
+        return latencyTimer(PREFIX + ".operation.latency")
+            .description("Latency of search engine operations observed by the plugin")
+            .tags("operation", operation, "outcome", outcome)
+            .register(registry);
+    }
+
+    private static Timer.Builder latencyTimer(String name) {
+        return Timer.builder(name)
+            .publishPercentiles(PERCENTILES)
+            .publishPercentileHistogram()
+            .minimumExpectedValue(Duration.ofMillis(1))
+            .maximumExpectedValue(Duration.ofSeconds(30));
+    }
+
+    private static String outcome(SignalType signal) {
+        return switch (signal) {
+            case ON_ERROR -> "error";
+            case CANCEL -> "cancelled";
+            default -> "success";
+        };
+    }
+
+    /**
+     * 插件内全部指标的当前值，按名称与标签排序。
+     */
+    public List<MeterSnapshot> snapshot() {
+        return localRegistry.getMeters().stream()
+            .map(OpensearchMetrics::toSnapshot)
+            .sorted(Comparator.comparing(MeterSnapshot::name)
+                .thenComparing(snapshot -> snapshot.tags().toString()))
+            .toList();
+    }
+
+    private static MeterSnapshot toSnapshot(Meter meter) {
+        var id = meter.getId();
+        var tags = new LinkedHashMap<String, String>();
+        for (Tag tag : id.getTagsAsIterable()) {
+            tags.put(tag.getKey(), tag.getValue());
+        }
+        if (meter instanceof Timer timer) {
+            var snapshot = timer.takeSnapshot();
+            return new MeterSnapshot(id.getName(), tags, snapshot.count(),
+                snapshot.total(TimeUnit.MILLISECONDS), snapshot.mean(TimeUnit.MILLISECONDS),
+                snapshot.max(TimeUnit.MILLISECONDS),
+                percentiles(snapshot.percentileValues(), true));
+        }
+        if (meter instanceof DistributionSummary summary) {
+            var snapshot = summary.takeSnapshot();
+            return new MeterSnapshot(id.getName(), tags, snapshot.count(), snapshot.total(),
+                snapshot.mean(), snapshot.max(), percentiles(snapshot.percentileValues(), false));
+        }
+        double total = 0;
+        for (var measurement : meter.measure()) {
+            total += measurement.getValue();
+        }
+        return new MeterSnapshot(id.getName(), tags, (long) total, total, 0, 0, Map.of());
+    }
+
+    private static Map<String, Double> percentiles(ValueAtPercentile[] values, boolean timer) {
+        var percentiles = new LinkedHashMap<String, Double>();
+        for (var value : values) {
+            percentiles.put("p" + Math.round(value.percentile() * 100),
+                timer ? value.value(TimeUnit.MILLISECONDS) : value.value());
+        }
+        return percentiles;
+    }
+
+    @Override
+    public void destroy() {
+        // 插件停止后 Halo 的注册表中不应残留插件的指标
+        for (var meter : localRegistry.getMeters()) {
+            hostRegistry.remove(meter.getId());
+        }
+        // CompositeMeterRegistry 关闭时会关闭所有子注册表，Halo 的注册表要先移除
+        registry.remove(hostRegistry);
+        localRegistry.close();
+        registry.close();
+    }
+
+    /**
+     * 单个指标的快照，计时器的数值单位为毫秒。
+     *
+     * @param count 记录次数，计数器为累计值
+     */
+    public record MeterSnapshot(String name, Map<String, String> tags, long count, double total,
+                                double mean, double max, Map<String, Double> percentiles) {
+    }
+}
@@ -1,21 +1,29 @@
 package run.halo.opensearch;
 
 import org.springframework.stereotype.Component;
+import run.halo.app.extension.SchemeManager;
 import run.halo.app.plugin.BasePlugin;
 import run.halo.app.plugin.PluginContext;
 
 @Component
 public class OpensearchPlugin extends BasePlugin {
 
-    public OpensearchPlugin(PluginContext pluginContext) {
+    private final SchemeManager schemeManager;
+
+    public OpensearchPlugin(PluginContext pluginContext, SchemeManager schemeManager) {
         super(pluginContext);
+        this.schemeManager = schemeManager;
     }
 
     @Override
     public void start() {
+        schemeManager.register(IndexDeadLetter.class);
+        schemeManager.register(ReindexCheckpoint.class);
     }
 
     @Override
     public void stop() {
+        schemeManager.unregister(schemeManager.get(IndexDeadLetter.class));
+        schemeManager.unregister(schemeManager.get(ReindexCheckpoint.class));
     }
 }
@@ -1,6 +1,8 @@
 package run.halo.opensearch;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import lombok.Data;
+import run.halo.meilisearch.HtmlUtils;
 
 @Data
 public class OpensearchProperties {
@@ -9,9 +11,338 @@ public class OpensearchProperties {
 
     private int port;
 
+    /**
+     * 集群中的其他节点，每行或以逗号分隔一个地址（{@code host:port} 或 {@code https://host:port}），
+     * 与 {@link #host} 一起轮询使用。
+     */
+    private String endpoints;
+
     private String username;
 
+    /**
+     * 设置表单中的字段名为 masterKey。
+     */
+    @JsonAlias("masterKey")
     private String password;
 
     private String indexName;
+
+    /**
+     * 单个 bulk 请求最多包含的操作数。
+     */
+    private int bulkActions = BulkIndexer.DEFAULT_BULK_ACTIONS;
+
+    /**
+     * 单个 bulk 请求体的最大大小（MB）。
+     */
+    private int bulkSizeMb = BulkIndexer.DEFAULT_BULK_SIZE_MB;
+
+    /**
+     * 缓冲区未满时的定时刷新间隔（秒）。
+     */
+    private int bulkFlushIntervalSeconds = BulkIndexer.DEFAULT_FLUSH_INTERVAL_SECONDS;
+
+    /**
+     * 同时在途的 bulk 请求数，0 表示同步发送。
+     */
+    private int bulkConcurrentRequests = BulkIndexer.DEFAULT_CONCURRENT_REQUESTS;
+
+    /**
+     * 单条写入失败后的最大重试次数，超过后转入死信。
+     */
+    private int bulkMaxRetries = BulkIndexer.DEFAULT_MAX_RETRIES;
+
+    /**
+     * 首次重试前的退避时间（毫秒），之后每次翻倍。
+     */
+    private int bulkRetryBackoffMillis = BulkIndexer.DEFAULT_RETRY_BACKOFF_MILLIS;
+
+    /**
+     * 索引前提取 HTML 纯文本的方式。
+     */
+    private HtmlUtils.Extractor htmlExtractor = HtmlUtils.Extractor.STREAMING;
+
+    /**
+     * 文档预处理的并行线程数，0 表示使用 CPU 核数，1 表示不并行。
+     */
+    private int prepareParallelism;
+
+    /**
+     * 单次写入的文档数达到该值时才启用并行预处理。
+     */
+    private int prepareParallelThreshold = DocumentPreparer.DEFAULT_PARALLEL_THRESHOLD;
+
+    /**
+     * 增量写入的防抖窗口，窗口内同一文档的多次变更只写入最后一次，0 表示不合并直接写入。
+     */
+    private int indexDebounceMillis = IndexingQueue.DEFAULT_DEBOUNCE_MILLIS;
+
+    /**
+     * 增量写入队列中的文档数达到该值时立即写入，不等待防抖窗口结束。
+     */
+    private int indexQueueMaxPending = IndexingQueue.DEFAULT_MAX_PENDING;
+
+    /**
+     * 是否为文档计算内容指纹并跳过内容未变化的写入。
+     */
+    private boolean fingerprintEnabled = true;
+
+    /**
+     * 是否启用搜索结果缓存。
+     */
+    private boolean searchCacheEnabled = true;
+
+    /**
+     * 搜索结果缓存的最大条目数。
+     */
+    private int searchCacheMaxEntries = SearchResultCache.DEFAULT_MAX_ENTRIES;
+
+    /**
+     * 搜索结果写入缓存后的存活时间（秒）。
+     */
+    private int searchCacheTtlSeconds = SearchResultCache.DEFAULT_TTL_SECONDS;
+
+    /**
+     * 补全前缀缓存的最大条目数，0 表示不缓存。
+     */
+    private int suggestCacheMaxEntries = SuggestionCache.DEFAULT_MAX_ENTRIES;
+
+    /**
+     * 补全结果写入缓存后的存活时间（秒）。
+     */
+    private int suggestCacheTtlSeconds = SuggestionCache.DEFAULT_TTL_SECONDS;
+
+    /**
+     * 是否在本地维护一份备用索引，集群不可用时由其提供搜索。
+     */
+    private boolean fallbackEnabled;
+
+    /**
+     * 本地备用索引的目录，为空时使用 Halo 工作目录下的 {@value OpensearchSearchEngine#FALLBACK_DIRECTORY}。
+     */
+    private String fallbackPath;
+
+    /**
+     * 搜索与补全请求的默认超时（毫秒），入站请求携带更短的截止时间时以其为准。
+     */
+    private int searchTimeoutMillis = OpensearchSearchEngine.DEFAULT_SEARCH_TIMEOUT_MILLIS;
+
+    /**
+     * 每类搜索请求的并发上限，实际上限在此范围内按集群响应自适应调整。
+     */
+    private int searchMaxConcurrency = OpensearchSearchEngine.DEFAULT_SEARCH_MAX_CONCURRENCY;
+
+    /**
+     * 连续多少次连接失败或 5xx 响应后熔断。
+     */
+    private int circuitBreakerFailureThreshold = CircuitBreaker.DEFAULT_FAILURE_THRESHOLD;
+
+    /**
+     * 熔断后多少秒再尝试放行一个探测请求。
+     */
+    private int circuitBreakerOpenSeconds = CircuitBreaker.DEFAULT_OPEN_SECONDS;
+
+    /**
+     * 健康检查间隔（秒）。
+     */
+    private int healthCheckIntervalSeconds =
+        OpensearchSearchEngine.DEFAULT_HEALTH_CHECK_INTERVAL_SECONDS;
+
+    /**
+     * 全量重建任务每块写入的文档数，每块写入后保存一次检查点。
+     */
+    private int reindexChunkSize = ReindexJob.DEFAULT_CHUNK_SIZE;
+
+    /**
+     * 全量重建任务每秒最多写入的文档数，0 表示不限。
+     */
+    private int reindexMaxDocsPerSecond = ReindexJob.DEFAULT_MAX_DOCS_PER_SECOND;
+
+    /**
+     * 全量重建任务每秒最多写入的文本量（KB），0 表示不限。
+     */
+    private int reindexMaxKbPerSecond;
+
+    /**
+     * 连接池最大连接数。
+     */
+    private int maxConnTotal = OpensearchClient.DEFAULT_MAX_CONN_TOTAL;
+
+    /**
+     * 每个节点的最大连接数。
+     */
+    private int maxConnPerRoute = OpensearchClient.DEFAULT_MAX_CONN_PER_ROUTE;
+
+    /**
+     * 建立连接的超时时间（毫秒）。
+     */
+    private int connectTimeoutMillis = OpensearchClient.DEFAULT_CONNECT_TIMEOUT_MILLIS;
+
+    /**
+     * 读取数据的超时时间（毫秒）。
+     */
+    private int socketTimeoutMillis = OpensearchClient.DEFAULT_SOCKET_TIMEOUT_MILLIS;
+
+    /**
+     * 等待响应的超时时间（毫秒）。
+     */
+    private int responseTimeoutMillis = OpensearchClient.DEFAULT_RESPONSE_TIMEOUT_MILLIS;
+
+    /**
+     * 空闲连接的保持时间（秒）。
+     */
+    private int keepAliveSeconds = OpensearchClient.DEFAULT_KEEP_ALIVE_SECONDS;
+
+    /**
+     * 是否以 gzip 压缩请求体。
+     */
+    private boolean compressionEnabled = true;
+
+    /**
+     * I/O 线程数，0 表示使用 CPU 核数。
+     */
+    private int ioThreadCount;
+
+    /**
+     * 是否通过嗅探自动发现集群中的节点。
+     */
+    private boolean sniffEnabled;
+
+    /**
+     * 嗅探间隔（秒）。
+     */
+    private int sniffIntervalSeconds = OpensearchClient.DEFAULT_SNIFF_INTERVAL_SECONDS;
+
+    /**
+     * 写入与搜索请求如何选择节点。
+     */
+    private NodeRouting nodeRouting = NodeRouting.ANY;
+
+    /**
+     * 重建索引的方式。
+     */
+    private RebuildMode rebuildMode = RebuildMode.IN_PLACE;
+
+    /**
+     * 蓝绿重建后保留的旧版本索引数量。
+     */
+    private int rebuildRetainVersions = BlueGreenRebuild.DEFAULT_RETAIN_VERSIONS;
+
+    /**
+     * 重建在持续多少秒没有写入后视为加载完成。
+     */
+    private int rebuildQuietSeconds = BlueGreenRebuild.DEFAULT_QUIET_SECONDS;
+
+    /**
+     * 新建索引的主分片数。
+     */
+    private int numberOfShards = IndexTemplate.DEFAULT_NUMBER_OF_SHARDS;
+
+    /**
+     * 新建索引的副本数。
+     */
+    private int numberOfReplicas = IndexTemplate.DEFAULT_NUMBER_OF_REPLICAS;
+
+    /**
+     * 重建期间是否临时关闭刷新、副本并使用异步 translog。
+     */
+    private boolean bulkLoadEnabled = true;
+
+    /**
+     * 重建完成后是否将索引合并为单个段。
+     */
+    private boolean forceMergeAfterRebuild;
+
+    /**
+     * 搜索结果返回的字段范围。
+     */
+    private SearchProjection searchProjection = SearchProjection.SNIPPET;
+
+    /**
+     * 分页搜索的 point-in-time 在两次翻页之间的保持时间（秒）。
+     */
+    private int searchPitKeepAliveSeconds = OpensearchSearchEngine.DEFAULT_PIT_KEEP_ALIVE_SECONDS;
+
+    /**
+     * 分页搜索同时打开的 point-in-time 数量上限，超过后新的首页请求返回 429。
+     */
+    private int searchMaxOpenPits = OpensearchSearchEngine.DEFAULT_MAX_OPEN_PITS;
+
+    /**
+     * 搜索结果使用的高亮器。
+     */
+    private HighlighterType highlighterType = HighlighterType.UNIFIED;
+
+    /**
+     * 高亮时最多分析的正文字符数。
+     */
+    private int highlightMaxAnalyzedOffset = OpensearchSearchEngine.DEFAULT_MAX_ANALYZED_OFFSET;
+
+    /**
+     * 正文高亮片段的长度（字符）。
+     */
+    private int contentFragmentSize = OpensearchSearchEngine.DEFAULT_FRAGMENT_SIZE;
+
+    /**
+     * 正文高亮片段的数量。
+     */
+    private int contentFragments = 1;
+
+    public enum RebuildMode {
+        /**
+         * 在当前索引上 delete-by-query 后重新写入。
+         */
+        IN_PLACE,
+        /**
+         * 写入新的版本索引，完成后原子切换别名。
+         */
+        BLUE_GREEN
+    }
+
+    public enum NodeRouting {
+        /**
+         * 在全部节点间轮询，跳过专职集群管理节点。
+         */
+        ANY,
+        /**
+         * 按嗅探得到的节点角色分流：写入发往 ingest 节点，搜索发往其他数据节点。
+         */
+        BY_ROLE
+    }
+
+    public enum SearchProjection {
+        /**
+         * 返回完整的 _source，未命中正文时 content 为全文。
+         */
+        FULL,
+        /**
+         * 不返回正文，content 为高亮片段或正文开头的摘要。
+         */
+        SNIPPET
+    }
+
+    public enum HighlighterType {
+        /**
+         * 索引中记录了偏移信息时直接使用，无需重新分析原文。
+         */
+        UNIFIED("unified"),
+        /**
+         * 基于词向量，适合长文本，要求索引映射包含 term_vector。
+         */
+        FVH("fvh"),
+        /**
+         * 逐条重新分析原文，开销最大。
+         */
+        PLAIN("plain");
+
+        private final String type;
+
+        HighlighterType(String type) {
+            this.type = type;
+        }
+
+        public String type() {
+            return type;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package run.halo.opensearch;
+
+import static org.springdoc.core.fn.builders.apiresponse.Builder.responseBuilder;
+import static org.springdoc.core.fn.builders.parameter.Builder.parameterBuilder;
+
+import io.swagger.v3.oas.annotations.enums.ParameterIn;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import lombok.RequiredArgsConstructor;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.core.rest.RestStatus;
+import org.springdoc.webflux.core.fn.SpringdocRouteBuilder;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+import run.halo.app.core.extension.endpoint.CustomEndpoint;
+import run.halo.app.extension.GroupVersion;
+import run.halo.app.search.SearchOption;
+
+/**
+ * 面向访客的搜索接口。
+ *
+ * <p>请求头 {@value Deadline#HEADER} 指定剩余时间（毫秒），超过后集群调用被取消并返回 504；
+ * 集群过载或熔断时立即返回 429 或 503，而不是让请求排队。
+ */
+@Component
+@RequiredArgsConstructor
+public class OpensearchPublicEndpoint implements CustomEndpoint {
+
+    private static final int DEFAULT_SUGGEST_LIMIT = 5;
+    private static final int MAX_SUGGEST_LIMIT = 20;
+
+    private final OpensearchSearchEngine searchEngine;
+
+    @Override
+    public RouterFunction<ServerResponse> endpoint() {
+        final var tag = "OpensearchV1alpha1Public";
+        return SpringdocRouteBuilder.route()
+            .GET("/search-pages", this::searchPage, builder -> {
+                builder.operationId("SearchOpensearchPage")
+                    .description("Search one page of documents. Pass the returned nextCursor "
+                        + "to fetch the next page; keyword and limit are taken from the cursor.")
+                    .tag(tag)
+                    .parameter(parameterBuilder()
+                        .name("keyword")
+                        .in(ParameterIn.QUERY)
+                        .implementation(String.class))
+                    .parameter(parameterBuilder()
+                        .name("limit")
+                        .in(ParameterIn.QUERY)
+                        .implementation(Integer.class))
+                    .parameter(parameterBuilder()
+                        .name("highlightPreTag")
+                        .in(ParameterIn.QUERY)
+                        .implementation(String.class))
+                    .parameter(parameterBuilder()
+                        .name("highlightPostTag")
+                        .in(ParameterIn.QUERY)
+                        .implementation(String.class))
+                    .parameter(parameterBuilder()
+                        .name("cursor")
+                        .in(ParameterIn.QUERY)
+                        .implementation(String.class))
+                    .response(responseBuilder()
+                        .implementation(SearchPage.class));
+            })
+            .GET("/suggestions", this::suggest, builder -> {
+                builder.operationId("SuggestOpensearch")
+                    .description("Suggest titles starting with the keyword, for search-as-you-type.")
+                    .tag(tag)
+                    .parameter(parameterBuilder()
+                        .name("keyword")
+                        .in(ParameterIn.QUERY)
+                        .required(true)
+                        .implementation(String.class))
+                    .parameter(parameterBuilder()
+                        .name("limit")
+                        .in(ParameterIn.QUERY)
+                        .implementation(Integer.class))
+                    .response(responseBuilder()
+                        .implementationArray(Suggestion.class));
+            })
+            .build();
+    }
+
+    private Mono<ServerResponse> searchPage(ServerRequest request) {
+        var option = new SearchOption();
+        option.setKeyword(request.queryParam("keyword").orElse(null));
+        request.queryParam("highlightPreTag").ifPresent(option::setHighlightPreTag);
+        request.queryParam("highlightPostTag").ifPresent(option::setHighlightPostTag);
+        try {
+            var limit = request.queryParam("limit").map(Integer::parseInt)
+                .orElse(option.getLimit());
+            option.setLimit(Math.max(1, Math.min(limit, SearchCursor.MAX_LIMIT)));
+        } catch (NumberFormatException e) {
+            return Mono.error(new ServerWebInputException("Invalid limit"));
+        }
+        var cursor = request.queryParam("cursor").orElse(null);
+        return withDeadline(request, searchEngine.searchPageAsync(option, cursor))
+            .onErrorMap(IllegalArgumentException.class,
+                e -> new ServerWebInputException(e.getMessage()))
+            .flatMap(page -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(page));
+    }
+
+    private Mono<ServerResponse> suggest(ServerRequest request) {
+        int limit;
+        try {
+            limit = request.queryParam("limit").map(Integer::parseInt)
+                .orElse(DEFAULT_SUGGEST_LIMIT);
+        } catch (NumberFormatException e) {
+            return Mono.error(new ServerWebInputException("Invalid limit"));
+        }
+        var keyword = request.queryParam("keyword").orElse(null);
+        return withDeadline(request,
+                searchEngine.suggestAsync(keyword, Math.max(1, Math.min(limit, MAX_SUGGEST_LIMIT))))
+            .flatMap(suggestions -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(suggestions));
+    }
+
+    private static <T> Mono<T> withDeadline(ServerRequest request, Mono<T> action) {
+        var mapped = action.onErrorMap(OpensearchPublicEndpoint::toResponseStatus);
+        var header = request.headers().firstHeader(Deadline.HEADER);
+        if (header == null) {
+            return mapped;
+        }
+        long timeoutMillis;
+        try {
+            timeoutMillis = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            return Mono.error(new ServerWebInputException("Invalid " + Deadline.HEADER));
+        }
+        var deadline = Deadline.after(Duration.ofMillis(Math.max(timeoutMillis, 0)));
+        return mapped.contextWrite(deadline::writeTo);
+    }
+
+    private static Throwable toResponseStatus(Throwable failure) {
+        if (failure instanceof TimeoutException) {
+            return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Search timed out");
+        }
+        if (failure instanceof OpenSearchStatusException e
+            && (e.status() == RestStatus.TOO_MANY_REQUESTS
+            || e.status() == RestStatus.SERVICE_UNAVAILABLE)) {
+            return new ResponseStatusException(HttpStatus.valueOf(e.status().getStatus()),
+                e.getMessage());
+        }
+        return failure;
+    }
+
+    @Override
+    public GroupVersion groupVersion() {
+        return new GroupVersion("api.opensearch.halo.run", "v1alpha1");
+    }
+}
@@ -1,322 +1,1182 @@
 package run.halo.opensearch;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.stream.Streams;
 import org.opensearch.OpenSearchException;
-import org.opensearch.action.bulk.BulkRequest;
-import org.opensearch.action.bulk.BulkResponse;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.action.DocWriteRequest;
+import org.opensearch.action.admin.indices.alias.Alias;
 import org.opensearch.action.delete.DeleteRequest;
 import org.opensearch.action.index.IndexRequest;
+import org.opensearch.action.search.CreatePitRequest;
+import org.opensearch.action.search.CreatePitResponse;
+import org.opensearch.action.search.DeletePitRequest;
+import org.opensearch.action.search.DeletePitResponse;
 import org.opensearch.action.search.SearchRequest;
 import org.opensearch.action.search.SearchResponse;
 import org.opensearch.client.RequestOptions;
 import org.opensearch.client.RestHighLevelClient;
-import org.opensearch.client.indices.CreateIndexRequest;
 import org.opensearch.client.indices.GetIndexRequest;
-import org.opensearch.common.settings.Settings;
+import org.opensearch.client.indices.PutMappingRequest;
 import org.opensearch.common.xcontent.XContentType;
+import org.opensearch.core.common.bytes.BytesReference;
+import org.opensearch.core.rest.RestStatus;
 import org.opensearch.index.query.BoolQueryBuilder;
 import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.index.reindex.BulkByScrollResponse;
 import org.opensearch.index.reindex.DeleteByQueryRequest;
 import org.opensearch.search.SearchHit;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.search.builder.PointInTimeBuilder;
 import org.opensearch.search.builder.SearchSourceBuilder;
 import org.opensearch.search.fetch.subphase.highlight.HighlightBuilder;
+import org.opensearch.search.sort.SortBuilders;
+import org.opensearch.search.sort.SortOrder;
+import org.opensearch.search.suggest.SuggestBuilder;
+import org.opensearch.search.suggest.SuggestBuilders;
+import org.opensearch.search.suggest.completion.CompletionSuggestion;
+import org.opensearch.search.suggest.completion.context.CategoryQueryContext;
 import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationListener;
 import org.springframework.stereotype.Component;
 import run.halo.app.extension.ConfigMap;
 import run.halo.app.extension.ExtensionClient;
 import run.halo.app.infra.utils.JsonUtils;
+import run.halo.app.plugin.PluginsRootGetter;
 import run.halo.app.search.HaloDocument;
 import run.halo.app.search.SearchEngine;
 import run.halo.app.search.SearchOption;
+import run.halo.app.search.SearchResult;
 import run.halo.meilisearch.HtmlUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 @Slf4j
 @Component
 public class OpensearchSearchEngine implements SearchEngine, DisposableBean,
     InitializingBean, ApplicationListener<run.halo.opensearch.ConfigUpdatedEvent> {
 
-    private static final String[] HIGHLIGHT_ATTRIBUTES =
-        {"title", "description", "content", "categories", "tags"};
+    /**
+     * 摘要片段的默认长度（字符）。
+     */
+    static final int DEFAULT_FRAGMENT_SIZE = 200;
+    static final int DEFAULT_MAX_ANALYZED_OFFSET = 50_000;
+
+    static final int DEFAULT_PIT_KEEP_ALIVE_SECONDS = 60;
+    static final int DEFAULT_MAX_OPEN_PITS = 100;
+
+    static final String FALLBACK_DIRECTORY = "opensearch-fallback";
+
+    /**
+     * 同步 SearchEngine 方法最长等待时间，避免集群无响应时永久阻塞调用线程。
+     */
+    private static final Duration BLOCK_TIMEOUT = Duration.ofSeconds(60);
+
+    private static final String SUGGESTION_NAME = "title";
+
+    /**
+     * 初始化失败后重试连接集群的间隔，期间搜索由本地备用索引提供。
+     */
+    private static final Duration RECOVERY_INTERVAL = Duration.ofSeconds(30);
+
+    static final int DEFAULT_SEARCH_TIMEOUT_MILLIS = 5000;
+    static final int DEFAULT_SEARCH_MAX_CONCURRENCY = 50;
+    static final int DEFAULT_HEALTH_CHECK_INTERVAL_SECONDS = 10;
 
     private final ExtensionClient client;
 
-    private RestHighLevelClient openSearchClient;
-    private String indexName;
+    private final DeadLetterStore deadLetterStore;
+
+    private final OpensearchClient opensearchClient;
+
+    private final OpensearchMetrics metrics;
+
+    /**
+     * 本地备用索引的默认根目录。
+     */
+    private final Path fallbackRoot;
+
+    /**
+     * 请求构建、HTML 清洗与结果转换所使用的有界调度器，网络 I/O 本身由客户端的 I/O reactor 完成。
+     */
+    private final Scheduler scheduler = Schedulers.newBoundedElastic(
+        Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+        Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE,
+        "opensearch-engine");
+
+    private volatile String indexName;
+    private volatile BulkIndexer bulkIndexer;
+    private volatile DocumentPreparer<HaloDocument, PreparedDocument> documentPreparer;
+    private volatile IndexingQueue indexingQueue;
+    private volatile SearchResultCache searchResultCache;
+    private volatile SuggestionCache suggestionCache;
+    private volatile OpensearchProperties properties;
+    private volatile BlueGreenRebuild rebuild;
+    private volatile InPlaceRebuild inPlaceRebuild;
+    private volatile FingerprintStore fingerprints;
+    private volatile Disposable rebuildWatcher;
+    private volatile long lastWriteNanos;
+    private volatile HtmlUtils.Extractor htmlExtractor = HtmlUtils.Extractor.STREAMING;
     private volatile boolean available = false;
+    private volatile FallbackIndex fallbackIndex;
+    private volatile OpensearchProperties recoveringProperties;
+    private volatile Disposable recoveryTask;
+    private volatile Disposable healthCheck;
+    private volatile boolean healthy = true;
+    private final AtomicBoolean replaying = new AtomicBoolean();
+    private volatile Duration searchTimeout = Duration.ofMillis(DEFAULT_SEARCH_TIMEOUT_MILLIS);
+    private volatile AdaptiveLimiter searchLimiter;
+    private volatile AdaptiveLimiter searchPageLimiter;
+    private volatile AdaptiveLimiter suggestLimiter;
+    private volatile PointInTimeQuota pitQuota = new PointInTimeQuota(DEFAULT_MAX_OPEN_PITS);
+    private ApplicationEventPublisher eventPublisher = event -> { };
+
+    @Autowired
+    public OpensearchSearchEngine(ExtensionClient client, DeadLetterStore deadLetterStore,
+        OpensearchClient opensearchClient, OpensearchMetrics metrics,
+        ObjectProvider<PluginsRootGetter> pluginsRootGetter,
+        ApplicationEventPublisher eventPublisher) {
+        this(client, deadLetterStore, opensearchClient, metrics,
+            Optional.ofNullable(pluginsRootGetter.getIfAvailable())
+                .map(getter -> getter.get().resolveSibling(FALLBACK_DIRECTORY))
+                .orElseGet(() -> Path.of(System.getProperty("user.home"), ".halo2",
+                    FALLBACK_DIRECTORY)));
+        this.eventPublisher = eventPublisher;
+    }
 
-    public OpensearchSearchEngine(ExtensionClient client) {
+    OpensearchSearchEngine(ExtensionClient client, DeadLetterStore deadLetterStore,
+        OpensearchClient opensearchClient, OpensearchMetrics metrics, Path fallbackRoot) {
         this.client = client;
+        this.deadLetterStore = deadLetterStore;
+        this.opensearchClient = opensearchClient;
+        this.metrics = metrics;
+        this.fallbackRoot = fallbackRoot;
     }
 
-    private void refresh(String host, int port, String username, String password, String indexName) {
-        if (this.available) {
-            try {
-                this.destroy();
-            } catch (Exception e) {
-                log.warn("Failed to destroy OpensearchSearchEngine during refreshing config", e);
+    /**
+     * 按新配置重建写入管道。连接配置变化时，新客户端预热并确认索引存在后才替换旧客户端；
+     * 新配置不可用时继续使用旧客户端。
+     */
+    private synchronized void refresh(OpensearchProperties opensearchProperties) {
+        var indexName = opensearchProperties.getIndexName();
+        openFallbackIndex(opensearchProperties);
+
+        OpensearchClient.ManagedClient managedClient;
+        try {
+            managedClient = metrics.observe("initialize",
+                () -> prepareClient(opensearchProperties));
+        } catch (Exception e) {
+            log.error("Failed to initialize Opensearch client", e);
+            if (!available) {
+                scheduleRecovery(opensearchProperties);
             }
+            return;
         }
+        stopRecovery();
 
+        // 重建中的版本索引属于旧配置，放弃后由下一次重建重新开始
+        abortRebuild();
+        var previousQueue = this.indexingQueue;
+        var previousPreparer = this.documentPreparer;
+        var previousIndexer = this.bulkIndexer;
+        this.htmlExtractor = opensearchProperties.getHtmlExtractor() != null
+            ? opensearchProperties.getHtmlExtractor() : HtmlUtils.Extractor.STREAMING;
+        this.searchResultCache = opensearchProperties.isSearchCacheEnabled()
+            ? new SearchResultCache(opensearchProperties.getSearchCacheMaxEntries(),
+            opensearchProperties.getSearchCacheTtlSeconds())
+            : null;
+        this.suggestionCache = opensearchProperties.getSuggestCacheMaxEntries() > 0
+            ? new SuggestionCache(opensearchProperties.getSuggestCacheMaxEntries(),
+            opensearchProperties.getSuggestCacheTtlSeconds())
+            : null;
+        this.searchTimeout = Duration.ofMillis(opensearchProperties.getSearchTimeoutMillis() > 0
+            ? opensearchProperties.getSearchTimeoutMillis() : DEFAULT_SEARCH_TIMEOUT_MILLIS);
+        var maxConcurrency = opensearchProperties.getSearchMaxConcurrency() > 0
+            ? opensearchProperties.getSearchMaxConcurrency() : DEFAULT_SEARCH_MAX_CONCURRENCY;
+        this.searchLimiter = new AdaptiveLimiter("search", maxConcurrency);
+        this.searchPageLimiter = new AdaptiveLimiter("searchPage", maxConcurrency);
+        this.suggestLimiter = new AdaptiveLimiter("suggest", maxConcurrency);
+        this.pitQuota = new PointInTimeQuota(opensearchProperties.getSearchMaxOpenPits() > 0
+            ? opensearchProperties.getSearchMaxOpenPits() : DEFAULT_MAX_OPEN_PITS);
+        this.documentPreparer = new DocumentPreparer<>(this::prepareDocument,
+            opensearchProperties.getPrepareParallelism(),
+            opensearchProperties.getPrepareParallelThreshold());
+        this.bulkIndexer = new BulkIndexer(managedClient.writeClient(),
+            opensearchClient.circuitBreaker(), opensearchProperties,
+            deadLetterStore, this::invalidateSearchCache, this::forgetFingerprint, metrics);
+        this.fingerprints = opensearchProperties.isFingerprintEnabled()
+            ? new FingerprintStore() : null;
+        this.indexingQueue = opensearchProperties.getIndexDebounceMillis() > 0
+            ? new IndexingQueue(this::writeDocuments, this::writeDeletes,
+            opensearchProperties.getIndexDebounceMillis(),
+            opensearchProperties.getIndexQueueMaxPending())
+            : null;
+        this.indexName = indexName;
+        this.properties = opensearchProperties;
+        // BulkIndexer 直接使用客户端、不持有租约，旧管道中已缓冲的写入必须在切换客户端之前发送完毕，
+        // 否则旧客户端会在没有在途搜索时立即关闭，这些 bulk 请求全部失败
+        closeWritePipeline(previousQueue, previousPreparer, previousIndexer);
+        opensearchClient.activate(managedClient);
+        opensearchClient.circuitBreaker().configure(
+            opensearchProperties.getCircuitBreakerFailureThreshold(),
+            opensearchProperties.getCircuitBreakerOpenSeconds());
+        this.healthy = true;
+        this.available = true;
+        startHealthCheck(opensearchProperties);
+        log.info("Opensearch client initialized successfully, index: {}", indexName);
+        replayFallbackLog();
+        if (this.fingerprints != null) {
+            reloadFingerprintsAsync().subscribe(loaded -> { },
+                e -> log.warn("Failed to load document fingerprints from [{}]", indexName, e));
+        }
+    }
+
+    /**
+     * 创建或复用客户端并确认索引存在，失败时关闭新建的客户端。
+     */
+    private OpensearchClient.ManagedClient prepareClient(OpensearchProperties properties) {
+        OpensearchClient.ManagedClient managedClient = null;
         try {
-            this.openSearchClient = OpensearchClient.getInstance(host, port, username, password,false);
-            this.indexName = indexName;
-            GetIndexRequest getIndexRequest = new GetIndexRequest(indexName);
-            boolean exists=
-                this.openSearchClient.indices().exists(getIndexRequest, RequestOptions.DEFAULT);
-            if (!exists) {
-                CreateIndexRequest createIndexRequest = new CreateIndexRequest(indexName);
-                // Specify in the settings how many shards you want in the index
-                createIndexRequest.settings(Settings.builder()
-                    .put("index.number_of_shards", 1)
-                    .put("index.number_of_replicas", 1)
-                );
-
-                // Define mapping for HaloDocument fields
-                Map<String, Object> properties = new HashMap<>();
-                properties.put("id", Map.of("type", "keyword"));
-                properties.put("metadataName", Map.of("type", "keyword"));
-                properties.put("title", Map.of(
-                    "type", "text",
-                    "analyzer", "hanlp_standard",
-                    "fields", Map.of("keyword", Map.of("type", "keyword"))
-                ));
-                properties.put("description", Map.of(
-                    "type", "text",
-                    "analyzer", "hanlp_standard"
-                ));
-                properties.put("content", Map.of(
-                    "type", "text",
-                    "analyzer", "hanlp_standard"
-                ));
-                properties.put("categories", Map.of("type", "keyword"));
-                properties.put("tags", Map.of("type", "keyword"));
-                properties.put("published", Map.of("type", "boolean"));
-                properties.put("recycled", Map.of("type", "boolean"));
-                properties.put("exposed", Map.of("type", "boolean"));
-                properties.put("ownerName", Map.of("type", "keyword"));
-                properties.put("type", Map.of("type", "keyword"));
-                properties.put("creationTimestamp", Map.of("type", "date"));
-                properties.put("updateTimestamp", Map.of("type", "date"));
-                properties.put("permalink", Map.of("type", "keyword"));
-                properties.put("annotations", Map.of("type", "object", "enabled", false));
-
-                Map<String, Object> mapping = new HashMap<>();
-                mapping.put("properties", properties);
-
-                createIndexRequest.mapping(mapping);
-                this.openSearchClient.indices().create(createIndexRequest, RequestOptions.DEFAULT);
+            managedClient = opensearchClient.prepare(properties);
+            ensureIndex(managedClient.client(), properties);
+            return managedClient;
+        } catch (IOException | RuntimeException e) {
+            if (managedClient != null) {
+                opensearchClient.discard(managedClient);
             }
-            this.available = true;
-            log.info("Opensearch client initialized successfully, index: {}", indexName);
-        } catch (OpenSearchException e) {
-            log.error("Failed to initialize Opensearch client", e);
-            this.available = false;
-        } catch (Exception e) {
-            log.error("Unexpected error during Opensearch initialization", e);
-            this.available = false;
+            throw e instanceof IOException io ? new UncheckedIOException(io)
+                : (RuntimeException) e;
         }
     }
 
-    @Override
-    public boolean available() {
-        return available;
+    /**
+     * 按配置打开、切换或关闭本地备用索引。目录与索引名相关，换用其他索引时不会读到旧索引的文档。
+     */
+    private void openFallbackIndex(OpensearchProperties properties) {
+        var current = this.fallbackIndex;
+        if (!properties.isFallbackEnabled()) {
+            this.fallbackIndex = null;
+            closeFallbackIndex(current);
+            return;
+        }
+        var root = StringUtils.isNotBlank(properties.getFallbackPath())
+            ? Path.of(properties.getFallbackPath()) : fallbackRoot;
+        var path = root.resolve(properties.getIndexName());
+        if (current != null && current.path().equals(path)) {
+            return;
+        }
+        try {
+            this.fallbackIndex = FallbackIndex.open(path, properties.getHtmlExtractor() != null
+                ? properties.getHtmlExtractor() : HtmlUtils.Extractor.STREAMING);
+            log.info("Opened local fallback index at {}", path);
+        } catch (IOException | RuntimeException e) {
+            this.fallbackIndex = null;
+            log.error("Failed to open local fallback index at {}", path, e);
+        }
+        closeFallbackIndex(current);
     }
 
-    private HaloDocument cleanDocument(HaloDocument document) {
-        if (document == null) {
-            return document;
+    private static void closeFallbackIndex(FallbackIndex fallback) {
+        if (fallback == null) {
+            return;
         }
+        try {
+            fallback.close();
+        } catch (IOException e) {
+            log.warn("Failed to close local fallback index", e);
+        }
+    }
+
+    /**
+     * 集群从未成功初始化时定期重试。只有启用了本地备用索引才需要：否则下一次配置更新自然会重试。
+     */
+    private void scheduleRecovery(OpensearchProperties properties) {
+        this.recoveringProperties = properties;
+        if (fallbackIndex == null || recoveryTask != null) {
+            return;
+        }
+        recoveryTask = Flux.interval(RECOVERY_INTERVAL, scheduler)
+            .subscribe(tick -> {
+                var pending = this.recoveringProperties;
+                if (!available && pending != null) {
+                    log.info("Retrying to connect to Opensearch");
+                    refresh(pending);
+                }
+            });
+    }
+
+    private void stopRecovery() {
+        this.recoveringProperties = null;
+        var task = this.recoveryTask;
+        this.recoveryTask = null;
+        if (task != null) {
+            task.dispose();
+        }
+    }
+
+    /**
+     * 定期 ping 集群，结果决定 {@link #available()} 并提前结束熔断的打开状态。
+     * 集群可写入且重放日志中有变更时补发这些变更，因此熔断在两次检查之间打开又恢复时也不会漏掉。
+     */
+    private void startHealthCheck(OpensearchProperties properties) {
+        stopHealthCheck();
+        var interval = Duration.ofSeconds(properties.getHealthCheckIntervalSeconds() > 0
+            ? properties.getHealthCheckIntervalSeconds() : DEFAULT_HEALTH_CHECK_INTERVAL_SECONDS);
+        this.healthCheck = Flux.interval(interval, interval, scheduler)
+            // 上一次检查未完成时跳过本次
+            .onBackpressureDrop()
+            .concatMap(tick -> opensearchClient.ping(interval), 1)
+            .subscribe(result -> {
+                if (healthy != result) {
+                    log.warn("Opensearch health check {}", result ? "recovered" : "failed");
+                }
+                this.healthy = result;
+                var fallback = this.fallbackIndex;
+                if (fallback != null && !remoteDown() && fallback.replayLog().hasPending()) {
+                    replayFallbackLog();
+                }
+            });
+    }
+
+    private void stopHealthCheck() {
+        var task = this.healthCheck;
+        this.healthCheck = null;
+        if (task != null) {
+            task.dispose();
+        }
+    }
+
+    /**
+     * 把集群不可用期间只写入了本地备用索引的变更补发到集群。
+     */
+    private void replayFallbackLog() {
+        var fallback = this.fallbackIndex;
+        if (fallback == null || !replaying.compareAndSet(false, true)) {
+            return;
+        }
+        Mono.fromCallable(() -> {
+                var changes = fallback.replayLog().drain();
+                var upserts = new ArrayList<String>();
+                var deletes = new ArrayList<String>();
+                changes.forEach((metadataName, operation) ->
+                    (operation == ReplayLog.Operation.DELETE ? deletes : upserts)
+                        .add(metadataName));
+                if (!upserts.isEmpty()) {
+                    submitDocuments(fallback.get(upserts), null);
+                }
+                if (!deletes.isEmpty()) {
+                    submitDeletes(deletes);
+                }
+                // 已交给批量管道，之后的失败由重试与死信处理
+                fallback.replayLog().complete();
+                return changes.size();
+            })
+            .subscribeOn(scheduler)
+            .doFinally(signal -> replaying.set(false))
+            .subscribe(replayed -> {
+                if (replayed > 0) {
+                    log.info("Replayed {} changes from the local fallback index", replayed);
+                }
+            }, e -> log.warn("Failed to replay changes from the local fallback index", e));
+    }
+
+    private void ensureIndex(RestHighLevelClient restClient, OpensearchProperties properties)
+        throws IOException {
+        var indexName = properties.getIndexName();
+        GetIndexRequest getIndexRequest = new GetIndexRequest(indexName);
+        boolean exists=
+            restClient.indices().exists(getIndexRequest, RequestOptions.DEFAULT);
+        if (!exists) {
+            if (properties.getRebuildMode() == OpensearchProperties.RebuildMode.BLUE_GREEN) {
+                // 蓝绿模式下 indexName 是指向版本索引的别名
+                var createIndexRequest = IndexTemplate.createIndexRequest(
+                    BlueGreenRebuild.versionedName(indexName, 1), properties);
+                createIndexRequest.alias(new Alias(indexName));
+                restClient.indices().create(createIndexRequest, RequestOptions.DEFAULT);
+            } else {
+                restClient.indices().create(
+                    IndexTemplate.createIndexRequest(indexName, properties),
+                    RequestOptions.DEFAULT);
+            }
+        } else {
+            ensureSuggestField(restClient, indexName);
+        }
+    }
 
+    /**
+     * 为此前创建的索引补上标题补全字段。新增字段不影响已有文档，文档在下次写入或重建时填充补全数据。
+     */
+    private void ensureSuggestField(RestHighLevelClient restClient, String indexName) {
+        var request = new PutMappingRequest(indexName).source(Map.of("properties",
+            Map.of(DocumentSerializer.SUGGEST_FIELD, IndexTemplate.suggestMapping())));
         try {
-            var originalJson = JsonUtils.mapper().writeValueAsString(document);
-            var cleanedDocument = JsonUtils.mapper().readValue(originalJson, HaloDocument.class);
-            
-            cleanedDocument.setDescription(HtmlUtils.stripHtmlAndTrim(document.getDescription()));
-            cleanedDocument.setContent(HtmlUtils.stripHtmlAndTrim(document.getContent()));
-            
-            return cleanedDocument;
-        } catch (Exception e) {
-            log.warn("Failed to clean document, using original", e);
-            return document;
+            restClient.indices().putMapping(request, RequestOptions.DEFAULT);
+        } catch (IOException | OpenSearchException e) {
+            // 例如字段已被动态映射为 object，补全在重建索引之前不可用，不影响搜索与写入
+            log.warn("Failed to add suggest field to index [{}], rebuild the index to enable "
+                + "suggestions", indexName, e);
         }
     }
 
+    /**
+     * 是否已连接到集群。与 {@link #available()} 不同，只有本地备用索引可用时为 {@code false}。
+     */
+    boolean connected() {
+        return available;
+    }
+
+    String indexName() {
+        return indexName;
+    }
+
+    OpensearchProperties properties() {
+        return properties;
+    }
+
+    /**
+     * 全量重建任务保存已写入文档名称的目录，与本地备用索引的默认目录相邻。
+     */
+    Path reindexDirectory() {
+        return fallbackRoot.resolveSibling(ReindexJournal.DIRECTORY);
+    }
+
+    /**
+     * 立即发出防抖队列与批量缓冲区中的写入，不等待其完成。
+     */
+    void flushWrites() {
+        flushIndexingQueue();
+        var indexer = this.bulkIndexer;
+        if (indexer != null) {
+            indexer.flush();
+        }
+    }
+
+    /**
+     * 集群当前是否无法写入：尚未连接成功、健康检查失败或熔断打开。
+     */
+    private boolean remoteDown() {
+        return !available || !healthy || opensearchClient.circuitBreaker().isOpen();
+    }
+
+    @Override
+    public boolean available() {
+        // 本地备用索引可以在集群不可用时提供搜索
+        return fallbackIndex != null
+            || (available && healthy && !opensearchClient.circuitBreaker().isOpen());
+    }
+
     @Override
     public void addOrUpdate(Iterable<HaloDocument> docs) {
-        if (!available) {
+        if (!available && fallbackIndex == null) {
             log.warn("Opensearch is not available, skipping addOrUpdate");
             return;
         }
+        addOrUpdateAsync(docs)
+            .subscribeOn(scheduler)
+            .doOnError(e -> log.error("Failed to add/update documents", e))
+            .onErrorComplete()
+            .block(BLOCK_TIMEOUT);
+    }
+
+    /**
+     * 非阻塞地写入文档。启用防抖时文档先进入 {@link IndexingQueue} 合并，
+     * 之后被转换为索引请求交给后台 {@link BulkIndexer}，由其按条数、字节数与时间间隔切分批次发送。
+     */
+    public Mono<Void> addOrUpdateAsync(Iterable<HaloDocument> docs) {
+        if (!available) {
+            var fallback = this.fallbackIndex;
+            return fallback == null ? Mono.empty() : metrics.observe("addOrUpdate",
+                Mono.<Void>fromRunnable(() -> writeFallback(fallback,
+                    Streams.of(docs).filter(Objects::nonNull).toList(), List.of(), true))
+                    .subscribeOn(scheduler));
+        }
+        // BulkIndexer.add 可能阻塞（并发数为 0 时同步等待 bulk 完成），不能占用调用方的事件循环线程
+        return metrics.observe("addOrUpdate", Mono.<Void>fromRunnable(() -> {
+            var documents = Streams.of(docs).filter(Objects::nonNull).toList();
+            var queue = this.indexingQueue;
+            if (queue != null) {
+                queue.upsert(documents);
+            } else {
+                writeDocuments(documents);
+            }
+        }).subscribeOn(scheduler));
+    }
 
-        List<HaloDocument> documents = Streams.of(docs)
-            .map(this::cleanDocument)
-            .toList();
+    /**
+     * 预处理文档并交给写入管道。启用队列时在队列刷新时调用，因此单独记录为 write 操作。
+     */
+    private void writeDocuments(List<HaloDocument> documents) {
+        var fallback = this.fallbackIndex;
+        if (fallback != null && remoteDown()) {
+            // 集群不可用时只写入备用索引并记入重放日志，恢复后补发，不再进入重试与死信
+            writeFallback(fallback, documents, List.of(), true);
+            return;
+        }
+        submitDocuments(documents, fallback);
+    }
 
+    /**
+     * 写入本地备用索引。备用索引只是降级手段，写入失败不影响写入集群。
+     *
+     * @param logged 是否记入重放日志，集群不可用（未连接、健康检查失败或熔断打开）时为 {@code true}
+     */
+    private static void writeFallback(FallbackIndex fallback, List<HaloDocument> documents,
+        List<String> deletes, boolean logged) {
         try {
-            BulkRequest bulkRequest = new BulkRequest();
-
-            for (HaloDocument document : documents) {
-                String docJson = JsonUtils.mapper().writeValueAsString(document);
-                IndexRequest indexRequest = new IndexRequest(indexName)
-                    .id(document.getMetadataName())
-                    .source(docJson, XContentType.JSON);
-                bulkRequest.add(indexRequest);
-            }
+            fallback.upsert(documents, logged);
+            fallback.delete(deletes, logged);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write to the local fallback index", e);
+        }
+    }
 
-            if (bulkRequest.numberOfActions() > 0) {
-                BulkResponse bulkResponse = openSearchClient.bulk(bulkRequest, RequestOptions.DEFAULT);
-                if (bulkResponse.hasFailures()) {
-                    log.error("Bulk indexing has failures: {}", bulkResponse.buildFailureMessage());
-                } else {
-                    log.info("Successfully indexed {} documents", bulkResponse.getItems().length);
+    private static void writeFallback(FallbackIndex fallback, List<FallbackIndex.Entry> entries) {
+        try {
+            fallback.upsertPrepared(entries, false);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write to the local fallback index", e);
+        }
+    }
+
+    /**
+     * @param mirror 同时写入的本地备用索引，复用为集群准备的清洗结果与文档源；为 {@code null} 时不写入
+     */
+    private void submitDocuments(List<HaloDocument> documents, FallbackIndex mirror) {
+        metrics.observe("write", () -> {
+            var mirrored = new ArrayList<FallbackIndex.Entry>(mirror != null ? documents.size() : 0);
+            try {
+                // 每个请求都读取当前的 indexer，配置切换后剩余的请求进入新管道
+                documentPreparer.prepare(documents, prepared -> {
+                    if (mirror != null) {
+                        mirrored.add(prepared.entry());
+                    }
+                    submitPrepared(prepared);
+                });
+                return documents.size();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                if (mirror != null) {
+                    writeFallback(mirror, mirrored);
                 }
+                invalidateSearchCache();
             }
-        } catch (IOException e) {
-            log.error("Failed to add/update documents", e);
+        });
+    }
+
+    /**
+     * 将写入请求交给批量管道。蓝绿重建期间索引请求只写入新版本索引，
+     * 删除请求同时作用于当前别名，使删除立即对搜索可见。
+     */
+    private void submit(DocWriteRequest<?> request) {
+        lastWriteNanos = System.nanoTime();
+        var currentRebuild = this.rebuild;
+        if (currentRebuild != null && currentRebuild.offer(request)
+            && !(request instanceof DeleteRequest)) {
+            return;
+        }
+        bulkIndexer.add(request);
+    }
+
+    /**
+     * 指纹与索引中一致的文档不再写入。蓝绿重建写入的是空的新索引，此时不跳过。
+     */
+    private void submitPrepared(PreparedDocument prepared) {
+        // 跳过的文档同样说明重建仍在进行
+        lastWriteNanos = System.nanoTime();
+        var store = this.fingerprints;
+        if (store != null) {
+            var metadataName = prepared.request().id();
+            if (rebuild == null && store.unchanged(metadataName, prepared.fingerprint())) {
+                return;
+            }
+            store.put(metadataName, prepared.fingerprint());
+        }
+        submit(prepared.request());
+    }
+
+    private PreparedDocument prepareDocument(HaloDocument document) throws IOException {
+        var start = System.nanoTime();
+        var serialized = DocumentSerializer.serializeWithFingerprint(document, htmlExtractor);
+        metrics.recordPrepare(serialized.stripNanos(),
+            System.nanoTime() - start - serialized.stripNanos());
+        var source = BytesReference.bytes(serialized.source());
+        var request = new IndexRequest(indexName)
+            .id(document.getMetadataName())
+            .source(source, XContentType.JSON);
+        return new PreparedDocument(request, serialized.fingerprint(),
+            new FallbackIndex.Entry(document, serialized.description(), serialized.content(),
+                source));
+    }
+
+    /**
+     * 写入最终失败的文档不在索引中，移除其指纹，下次写入时不会被跳过。
+     */
+    private void forgetFingerprint(DocWriteRequest<?> request) {
+        var store = this.fingerprints;
+        if (store != null) {
+            store.remove(request.id());
         }
     }
 
     @Override
     public void deleteDocument(Iterable<String> docIds) {
-        if (!available) {
+        if (!available && fallbackIndex == null) {
             log.warn("Opensearch is not available, skipping deleteDocument");
             return;
         }
+        deleteDocumentAsync(docIds)
+            .subscribeOn(scheduler)
+            .doOnError(e -> log.error("Failed to delete documents", e))
+            .onErrorComplete()
+            .block(BLOCK_TIMEOUT);
+    }
 
-        var metadataNames = Streams.of(docIds).map(id -> {
+    /**
+     * 非阻塞地按文档 ID 删除文档，删除请求与索引请求经过同一个队列并共用同一个 {@link BulkIndexer}，
+     * 保证同一文档的写入与删除按提交顺序执行。
+     */
+    public Mono<Void> deleteDocumentAsync(Iterable<String> docIds) {
+        return deleteByMetadataNamesAsync(Streams.of(docIds).map(id -> {
             String[] split = id.split("-", 2);
             return split.length > 1 ? split[1] : id;
-        }).toList();
+        }).toList());
+    }
 
-        try {
-            BulkRequest bulkRequest = new BulkRequest();
+    /**
+     * 按 metadataName（即索引中的文档 {@code _id}）删除文档。与 {@link #deleteDocumentAsync} 不同，
+     * 参数不带类型前缀，名称中的连字符原样保留。
+     */
+    Mono<Void> deleteByMetadataNamesAsync(List<String> metadataNames) {
+        var fallback = this.fallbackIndex;
+        if (!available && fallback == null) {
+            return Mono.empty();
+        }
+        return metrics.observe("deleteDocument", Mono.<Void>fromRunnable(() -> {
+            if (!available) {
+                writeFallback(fallback, List.of(), metadataNames, true);
+                return;
+            }
+            var queue = this.indexingQueue;
+            if (queue != null) {
+                queue.delete(metadataNames);
+            } else {
+                writeDeletes(metadataNames);
+            }
+        }).subscribeOn(scheduler));
+    }
 
-            for (String metadataName : metadataNames) {
-                DeleteRequest deleteRequest = new DeleteRequest(indexName, metadataName);
-                bulkRequest.add(deleteRequest);
+    private void writeDeletes(List<String> metadataNames) {
+        var fallback = this.fallbackIndex;
+        if (fallback != null) {
+            var down = remoteDown();
+            writeFallback(fallback, List.of(), metadataNames, down);
+            if (down) {
+                return;
             }
+        }
+        submitDeletes(metadataNames);
+    }
 
-            if (bulkRequest.numberOfActions() > 0) {
-                BulkResponse bulkResponse = openSearchClient.bulk(bulkRequest, RequestOptions.DEFAULT);
-                if (bulkResponse.hasFailures()) {
-                    log.error("Bulk deletion has failures: {}", bulkResponse.buildFailureMessage());
-                } else {
-                    log.info("Successfully deleted {} documents", bulkResponse.getItems().length);
-                }
+    private void submitDeletes(List<String> metadataNames) {
+        var store = this.fingerprints;
+        metadataNames.forEach(metadataName -> {
+            if (store != null) {
+                store.remove(metadataName);
+            }
+            submit(new DeleteRequest(indexName, metadataName));
+        });
+        invalidateSearchCache();
+    }
+
+    /**
+     * 立即写入增量队列中尚在防抖窗口内的变更。
+     */
+    private void flushIndexingQueue() {
+        var queue = this.indexingQueue;
+        if (queue != null) {
+            queue.flushNow();
+        }
+    }
+
+    /**
+     * 将死信重新提交到批量写入管道。
+     */
+    public Mono<Void> replayDeadLetter(IndexDeadLetter deadLetter) {
+        if (!available) {
+            return Mono.error(new IllegalStateException("Opensearch is not available"));
+        }
+        // 由控制台接口调用，add 可能阻塞，不能占用 Netty 的事件循环线程
+        return Mono.<Void>fromRunnable(
+                () -> bulkIndexer.add(DeadLetterStore.toRequest(deadLetter, indexName)))
+            .subscribeOn(scheduler);
+    }
+
+    /**
+     * 使搜索结果缓存中的现有条目失效。
+     */
+    private void invalidateSearchCache() {
+        var cache = this.searchResultCache;
+        if (cache != null) {
+            cache.invalidate();
+        }
+    }
+
+    public SearchResultCache.SearchCacheStats searchCacheStats() {
+        var cache = this.searchResultCache;
+        return cache != null ? cache.stats() : SearchResultCache.SearchCacheStats.disabled();
+    }
+
+    public FingerprintStore.Stats fingerprintStats() {
+        var store = this.fingerprints;
+        return store != null ? store.stats() : null;
+    }
+
+    /**
+     * 从索引重新加载文档指纹镜像。
+     *
+     * @return 加载的文档数
+     */
+    public Mono<Long> reloadFingerprintsAsync() {
+        var store = this.fingerprints;
+        if (!available || store == null) {
+            return Mono.error(new IllegalStateException("Document fingerprints are disabled"));
+        }
+        return Mono.fromCallable(() -> {
+            if (rebuild != null || inPlaceRebuild != null) {
+                throw new IllegalStateException("Index rebuild is in progress");
+            }
+            var managed = opensearchClient.lease();
+            try {
+                return store.load(managed.client(), indexName);
+            } finally {
+                managed.release();
             }
-        } catch (OpenSearchException | IOException e) {
-            log.error("Failed to delete documents", e);
+        }).subscribeOn(scheduler);
+    }
+
+    /**
+     * 清空文档指纹镜像并停止跳过写入，下一次重建会清空索引并重新写入全部文档。
+     */
+    public void invalidateFingerprints() {
+        var store = this.fingerprints;
+        if (store != null) {
+            store.invalidate();
         }
     }
 
     @Override
     public void deleteAll() {
-        if (!available) {
+        if (!available && fallbackIndex == null) {
             log.warn("Opensearch is not available, skipping deleteAll");
             return;
         }
+        deleteAllAsync()
+            .subscribeOn(scheduler)
+            .doOnError(e -> log.error("Failed to delete all documents", e))
+            .onErrorComplete()
+            .block(BLOCK_TIMEOUT);
+    }
 
-        try {
-            DeleteByQueryRequest deleteByQueryRequest = new DeleteByQueryRequest(indexName);
-            deleteByQueryRequest.setQuery(QueryBuilders.matchAllQuery());
+    /**
+     * 非阻塞地清空索引中的全部文档。
+     */
+    public Mono<Void> deleteAllAsync() {
+        var fallback = this.fallbackIndex;
+        // 集群不可用时只清空本地备用索引，集群中的旧文档在恢复后的下一次重建时清理
+        var clearFallback = fallback == null ? Mono.<Void>empty()
+            : Mono.<Void>fromRunnable(() -> {
+                try {
+                    fallback.deleteAll();
+                } catch (IOException e) {
+                    log.warn("Failed to clear the local fallback index", e);
+                }
+            }).subscribeOn(scheduler);
+        if (!available) {
+            return clearFallback;
+        }
+        return metrics.observe("deleteAll",
+            clearFallback.then(Mono.defer(this::startDeleteAll)));
+    }
 
-            openSearchClient.deleteByQuery(deleteByQueryRequest, RequestOptions.DEFAULT);
-            log.info("Successfully deleted all documents from index: {}", indexName);
-        } catch (OpenSearchException | IOException e) {
-            log.error("Failed to delete all documents", e);
+    private Mono<Void> startDeleteAll() {
+        var currentProperties = this.properties;
+        if (currentProperties.getRebuildMode() == OpensearchProperties.RebuildMode.BLUE_GREEN) {
+            // 重建由 deleteAll 开始，之后的写入进入新的版本索引，旧索引继续提供搜索
+            return Mono.fromCallable(() -> {
+                    // 重建前的变更仍属于当前索引
+                    flushIndexingQueue();
+                    return startRebuild(currentProperties);
+                })
+                .subscribeOn(scheduler)
+                .then();
         }
+        var store = this.fingerprints;
+        if (store != null && store.isSynced()) {
+            // 指纹镜像与索引一致时不清空索引，Halo 重新提交的文档中未变化的直接跳过。
+            // Halo 不会通知重建何时结束，已不存在的文档由只清扫的重建任务对照各文档提供者的名称删除，
+            // 文档只由 Halo 提交一遍
+            return Mono.fromRunnable(() -> {
+                    flushIndexingQueue();
+                    startInPlaceRebuild(currentProperties);
+                    eventPublisher.publishEvent(new ReindexRequestedEvent(this));
+                })
+                .subscribeOn(scheduler)
+                .then();
+        }
+        var bulkLoad = currentProperties.isBulkLoadEnabled()
+            ? Mono.fromRunnable(() -> startInPlaceRebuild(currentProperties))
+                .subscribeOn(scheduler)
+            : Mono.empty();
+        return bulkLoad.then(Mono.fromSupplier(() -> {
+                // 先发出尚在队列与缓冲区中的写入，避免它们在清空之后才落到索引里
+                flushIndexingQueue();
+                bulkIndexer.flush();
+                DeleteByQueryRequest deleteByQueryRequest = new DeleteByQueryRequest(indexName);
+                deleteByQueryRequest.setQuery(QueryBuilders.matchAllQuery());
+                return deleteByQueryRequest;
+            })
+            .flatMap(request -> opensearchClient.<BulkByScrollResponse>execute(
+                (restClient, listener) -> restClient.deleteByQueryAsync(request,
+                    RequestOptions.DEFAULT, listener)))
+            .doOnNext(response -> {
+                log.info("Successfully deleted all documents from index: {}", indexName);
+                if (store != null) {
+                    store.reset();
+                }
+            })
+            .doOnError(e -> {
+                if (store != null) {
+                    store.invalidate();
+                }
+            })
+            .doFinally(signal -> invalidateSearchCache())
+            .then());
     }
 
     @Override
-    public run.halo.app.search.SearchResult search(SearchOption searchOption) {
+    public SearchResult search(SearchOption searchOption) {
+        if (!available && fallbackIndex == null) {
+            return new SearchResult();
+        }
+        return searchAsync(searchOption)
+            .subscribeOn(scheduler)
+            .onErrorResume(e -> {
+                log.error("Failed to search", e);
+                return Mono.just(new SearchResult());
+            })
+            .blockOptional(BLOCK_TIMEOUT)
+            .orElseGet(SearchResult::new);
+    }
+
+    /**
+     * 非阻塞搜索，请求通过 {@code searchAsync} 发送，不占用调用线程等待集群响应。
+     */
+    public Mono<SearchResult> searchAsync(SearchOption searchOption) {
+        var fallback = this.fallbackIndex;
+        if (fallback != null && remoteDown()) {
+            return searchFallback(fallback, searchOption);
+        }
         if (!available) {
-            return new run.halo.app.search.SearchResult();
+            return Mono.just(new SearchResult());
+        }
+        var cache = this.searchResultCache;
+        // 缓存中的加载由多个调用方共享，只使用默认超时；调用方各自的截止时间在缓存之外生效。
+        // 不经过缓存时截止时间由限流器内部处理，外层再加超时会先触发，使限流器只看到取消
+        var remote = metrics.observe("search", cache != null
+            ? Deadline.apply(cache.get(searchOption, this::searchRemote), searchTimeout)
+            : searchRemote(searchOption));
+        if (fallback == null) {
+            return remote;
         }
+        return remote.onErrorResume(e -> {
+            log.warn("Search on Opensearch failed, serving from the local fallback index", e);
+            return searchFallback(fallback, searchOption);
+        });
+    }
 
-        try {
-            // Build bool query with filters
-            BoolQueryBuilder boolQuery = QueryBuilders.boolQuery();
-
-            // Add search query on multiple fields
-            if (searchOption.getKeyword() != null && !searchOption.getKeyword().isEmpty()) {
-                // Boost title field for better relevance
-                boolQuery.must(QueryBuilders.multiMatchQuery(searchOption.getKeyword())
-                    .field("title", 3.0f)
-                    .field("description", 2.0f)
-                    .field("content", 1.0f));
-            } else {
-                boolQuery.must(QueryBuilders.matchAllQuery());
+    private Mono<SearchResult> searchFallback(FallbackIndex fallback, SearchOption searchOption) {
+        return metrics.observe("fallbackSearch",
+            Mono.fromCallable(() -> fallback.search(searchOption)).subscribeOn(scheduler));
+    }
+
+    private Mono<SearchResult> searchRemote(SearchOption searchOption) {
+        var request = Mono.fromSupplier(() -> buildSearchRequest(searchOption))
+            .flatMap(searchRequest -> opensearchClient.<SearchResponse>execute(
+                (restClient, listener) -> restClient.searchAsync(searchRequest,
+                    RequestOptions.DEFAULT, listener)));
+        return searchLimiter.execute(request, searchTimeout)
+            .doOnNext(searchResponse ->
+                metrics.recordSearchTook(searchResponse.getTook().getMillis()))
+            .publishOn(scheduler)
+            .map(searchResponse -> toSearchResult(searchOption, searchResponse));
+    }
+
+    /**
+     * 按标题前缀补全。查询只访问内存中的 completion 字段，不打分也不高亮，热门前缀直接由进程内缓存返回。
+     */
+    public Mono<List<Suggestion>> suggestAsync(String keyword, int limit) {
+        var prefix = SuggestionCache.normalize(keyword);
+        if (!available || prefix.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        var cache = this.suggestionCache;
+        return metrics.observe("suggest", cache != null
+            ? Deadline.apply(cache.get(prefix, limit, this::suggestRemote), searchTimeout)
+            : suggestRemote(prefix, limit));
+    }
+
+    private Mono<List<Suggestion>> suggestRemote(String prefix, int limit) {
+        var searchRequest = buildSuggestRequest(indexName, prefix, limit);
+        // 结果只有几条标题，直接在 I/O 线程转换，不再切换到调度器
+        return suggestLimiter.execute(
+                opensearchClient.<SearchResponse>execute((restClient, listener) ->
+                    restClient.searchAsync(searchRequest, RequestOptions.DEFAULT, listener)),
+                searchTimeout)
+            .map(OpensearchSearchEngine::toSuggestions);
+    }
+
+    static SearchRequest buildSuggestRequest(String indexName, String prefix, int limit) {
+        var completion = SuggestBuilders.completionSuggestion(DocumentSerializer.SUGGEST_FIELD)
+            .prefix(prefix)
+            .size(limit)
+            .skipDuplicates(true)
+            .contexts(Map.of(DocumentSerializer.VISIBILITY_CONTEXT, List.of(
+                CategoryQueryContext.builder().setCategory(DocumentSerializer.VISIBLE).build())));
+        var source = new SearchSourceBuilder()
+            .size(0)
+            .trackTotalHits(false)
+            .fetchSource(new String[] {"title", "permalink", "type"}, null)
+            .suggest(new SuggestBuilder().addSuggestion(SUGGESTION_NAME, completion));
+        return new SearchRequest(indexName).source(source);
+    }
+
+    static List<Suggestion> toSuggestions(SearchResponse response) {
+        var suggest = response.getSuggest();
+        if (suggest == null) {
+            return List.of();
+        }
+        CompletionSuggestion completion = suggest.getSuggestion(SUGGESTION_NAME);
+        if (completion == null) {
+            return List.of();
+        }
+        var suggestions = new ArrayList<Suggestion>();
+        for (var option : completion.getOptions()) {
+            var source = option.getHit() != null ? option.getHit().getSourceAsMap() : null;
+            if (source == null) {
+                suggestions.add(new Suggestion(option.getText().string(), null, null));
+                continue;
             }
+            suggestions.add(new Suggestion(
+                Objects.toString(source.get("title"), option.getText().string()),
+                (String) source.get("permalink"), (String) source.get("type")));
+        }
+        return suggestions;
+    }
 
-            // Add filters
-            boolQuery.filter(QueryBuilders.termQuery("recycled", false));
-            boolQuery.filter(QueryBuilders.termQuery("exposed", true));
-            boolQuery.filter(QueryBuilders.termQuery("published", true));
-
-            // Build search source
-            SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
-            searchSourceBuilder.query(boolQuery);
-            searchSourceBuilder.from(0);
-            searchSourceBuilder.size(searchOption.getLimit());
-
-            // Add highlighting
-            HighlightBuilder highlightBuilder = new HighlightBuilder();
-            for (String field : HIGHLIGHT_ATTRIBUTES) {
-                highlightBuilder.field(field)
-                    .preTags(searchOption.getHighlightPreTag())
-                    .postTags(searchOption.getHighlightPostTag())
-                    .fragmentSize(200)
-                    .numOfFragments(1);
+    /**
+     * 基于 point-in-time 与 search_after 的分页搜索。首次请求不带游标，创建 PIT；
+     * 之后的每一页只需回传上一页返回的游标，无论翻到多深，每页的开销都相同。
+     */
+    public Mono<SearchPage> searchPageAsync(SearchOption searchOption, String cursor) {
+        if (!available) {
+            return Mono.just(new SearchPage(new SearchResult(), null));
+        }
+        var keepAlive = TimeValue.timeValueSeconds(properties.getSearchPitKeepAliveSeconds() > 0
+            ? properties.getSearchPitKeepAliveSeconds() : DEFAULT_PIT_KEEP_ALIVE_SECONDS);
+        var quota = pitQuota;
+        Mono<SearchCursor> pageCursor = cursor == null
+            ? openPointInTime(quota, keepAlive)
+                .map(pitId -> SearchCursor.first(pitId, searchOption))
+            : Mono.fromCallable(() -> SearchCursor.decode(cursor));
+        return metrics.observe("searchPage", pageCursor.flatMap(current -> {
+            var pageOption = current.toSearchOption();
+            var source = buildSearchSource(pageOption)
+                .sort(SortBuilders.scoreSort().order(SortOrder.DESC))
+                // metadataName 唯一，作为分数相同时的稳定排序
+                .sort(SortBuilders.fieldSort("metadataName").order(SortOrder.ASC))
+                .pointInTimeBuilder(new PointInTimeBuilder(current.pitId()).setKeepAlive(keepAlive));
+            if (current.searchAfter() != null) {
+                source.searchAfter(current.searchAfter().toArray());
             }
-            searchSourceBuilder.highlighter(highlightBuilder);
+            // 使用 PIT 时不能再指定索引
+            var searchRequest = new SearchRequest().source(source);
+            return searchPageLimiter.execute(
+                    opensearchClient.<SearchResponse>execute((restClient, listener) ->
+                        restClient.searchAsync(searchRequest, RequestOptions.DEFAULT, listener)),
+                    searchTimeout)
+                .doOnNext(response -> metrics.recordSearchTook(response.getTook().getMillis()))
+                .publishOn(scheduler)
+                .map(response -> toSearchPage(quota, keepAlive, current, pageOption, response));
+        }));
+    }
 
-            // Execute search
-            SearchRequest searchRequest = new SearchRequest(indexName);
-            searchRequest.source(searchSourceBuilder);
+    /**
+     * 在配额内创建 PIT，配额用尽时以 429 失败。
+     */
+    private Mono<String> openPointInTime(PointInTimeQuota quota, TimeValue keepAlive) {
+        return Mono.defer(() -> {
+            if (!quota.tryReserve()) {
+                return Mono.error(new OpenSearchStatusException(
+                    "Too many open point-in-time searches", RestStatus.TOO_MANY_REQUESTS));
+            }
+            var reserved = new AtomicBoolean(true);
+            return opensearchClient.<CreatePitResponse>execute((restClient, listener) ->
+                    restClient.createPitAsync(new CreatePitRequest(keepAlive, true, indexName),
+                        RequestOptions.DEFAULT, listener))
+                .map(CreatePitResponse::getId)
+                .doOnNext(pitId -> {
+                    if (reserved.compareAndSet(true, false)) {
+                        quota.opened(pitId, keepAlive.nanos());
+                    }
+                })
+                .doFinally(signal -> {
+                    if (reserved.compareAndSet(true, false)) {
+                        quota.abandon();
+                    }
+                });
+        });
+    }
 
-            SearchResponse searchResponse = openSearchClient.search(searchRequest, RequestOptions.DEFAULT);
+    private SearchPage toSearchPage(PointInTimeQuota quota, TimeValue keepAlive,
+        SearchCursor current, SearchOption pageOption, SearchResponse response) {
+        var result = toSearchResult(pageOption, response);
+        var hits = response.getHits().getHits();
+        var pitId = response.pointInTimeId() != null ? response.pointInTimeId() : current.pitId();
+        if (hits.length < pageOption.getLimit() || hits.length == 0) {
+            // 已是最后一页，提前释放 PIT，未读完的 PIT 由 keep-alive 到期回收
+            quota.closed(current.pitId());
+            opensearchClient.<DeletePitResponse>execute((restClient, listener) ->
+                    restClient.deletePitAsync(new DeletePitRequest(pitId), RequestOptions.DEFAULT,
+                        listener))
+                .subscribe(null, e -> log.debug("Failed to delete point in time", e));
+            return new SearchPage(result, null);
+        }
+        quota.touch(current.pitId(), pitId, keepAlive.nanos());
+        var nextCursor = current.next(pitId, hits[hits.length - 1].getSortValues());
+        return new SearchPage(result, nextCursor.encode());
+    }
 
-            // Convert results
-            var result = new run.halo.app.search.SearchResult();
-            result.setLimit(searchOption.getLimit());
-            long totalHits = 0;
-            if (searchResponse.getHits().getTotalHits() != null) {
-                try {
-                    // TotalHits.value is a public field in Lucene/OpenSearch
-                    org.apache.lucene.search.TotalHits totalHitsObj = searchResponse.getHits().getTotalHits();
-                    var field = totalHitsObj.getClass().getField("value");
-                    totalHits = field.getLong(totalHitsObj);
-                } catch (Exception e) {
-                    log.warn("Failed to get total hits count", e);
-                }
-            }
-            result.setTotal(totalHits);
-            result.setKeyword(searchOption.getKeyword());
-            result.setProcessingTimeMillis(searchResponse.getTook().getMillis());
-            result.setHits(convertHits(searchResponse.getHits().getHits()));
+    private SearchRequest buildSearchRequest(SearchOption searchOption) {
+        SearchRequest searchRequest = new SearchRequest(indexName);
+        searchRequest.source(buildSearchSource(searchOption));
+        return searchRequest;
+    }
 
-            return result;
-        } catch (OpenSearchException | IOException e) {
-            log.error("Failed to search", e);
-            return new run.halo.app.search.SearchResult();
+    private SearchSourceBuilder buildSearchSource(SearchOption searchOption) {
+        // Build bool query with filters
+        BoolQueryBuilder boolQuery = QueryBuilders.boolQuery();
+
+        // Add search query on multiple fields
+        if (searchOption.getKeyword() != null && !searchOption.getKeyword().isEmpty()) {
+            // Boost title field for better relevance
+            boolQuery.must(QueryBuilders.multiMatchQuery(searchOption.getKeyword())
+                .field("title", 3.0f)
+                .field("description", 2.0f)
+                .field("content", 1.0f));
+        } else {
+            boolQuery.must(QueryBuilders.matchAllQuery());
+        }
+
+        // Add filters
+        boolQuery.filter(QueryBuilders.termQuery("recycled", false));
+        boolQuery.filter(QueryBuilders.termQuery("exposed", true));
+        boolQuery.filter(QueryBuilders.termQuery("published", true));
+
+        // Build search source
+        SearchSourceBuilder searchSourceBuilder = new SearchSourceBuilder();
+        searchSourceBuilder.query(boolQuery);
+        searchSourceBuilder.from(0);
+        searchSourceBuilder.size(searchOption.getLimit());
+        // 分片在超时后返回已收集的部分结果，不会继续占用集群资源
+        searchSourceBuilder.timeout(TimeValue.timeValueMillis(searchTimeout.toMillis()));
+
+        var snippetOnly = properties.getSearchProjection()
+            != OpensearchProperties.SearchProjection.FULL;
+        if (snippetOnly) {
+            // 正文只通过高亮片段返回，不再随每个结果传输完整文章
+            searchSourceBuilder.fetchSource(null, new String[] {"content",
+                DocumentSerializer.FINGERPRINT_FIELD, DocumentSerializer.SUGGEST_FIELD});
+        } else {
+            searchSourceBuilder.fetchSource(null, new String[] {
+                DocumentSerializer.FINGERPRINT_FIELD, DocumentSerializer.SUGGEST_FIELD});
         }
+
+        // Add highlighting
+        // 分类与标签是 keyword 字段，高亮没有意义，只高亮文本字段
+        var contentFragmentSize = properties.getContentFragmentSize() > 0
+            ? properties.getContentFragmentSize() : DEFAULT_FRAGMENT_SIZE;
+        var contentField = new HighlightBuilder.Field("content")
+            .fragmentSize(contentFragmentSize)
+            .numOfFragments(properties.getContentFragments() > 0
+                ? properties.getContentFragments() : 1);
+        if (snippetOnly) {
+            // 关键词未命中正文时返回开头的一段作为摘要
+            contentField.noMatchSize(contentFragmentSize);
+        }
+        HighlightBuilder highlightBuilder = new HighlightBuilder()
+            // 标题较短，整体返回
+            .field(new HighlightBuilder.Field("title").numOfFragments(0))
+            .field(new HighlightBuilder.Field("description")
+                .fragmentSize(DEFAULT_FRAGMENT_SIZE)
+                .numOfFragments(1))
+            .field(contentField)
+            .highlighterType(highlighterType().type())
+            .preTags(searchOption.getHighlightPreTag())
+            .postTags(searchOption.getHighlightPostTag());
+        if (highlighterType() != OpensearchProperties.HighlighterType.FVH) {
+            // 没有偏移信息时高亮需要重新分析原文，限制分析长度避免长文章拖慢查询
+            highlightBuilder.maxAnalyzerOffset(properties.getHighlightMaxAnalyzedOffset() > 0
+                ? properties.getHighlightMaxAnalyzedOffset() : DEFAULT_MAX_ANALYZED_OFFSET);
+        }
+        searchSourceBuilder.highlighter(highlightBuilder);
+        return searchSourceBuilder;
     }
 
-    private List<HaloDocument> convertHits(SearchHit[] hits) {
+    private OpensearchProperties.HighlighterType highlighterType() {
+        return properties.getHighlighterType() != null
+            ? properties.getHighlighterType() : OpensearchProperties.HighlighterType.UNIFIED;
+    }
+
+    private SearchResult toSearchResult(SearchOption searchOption,
+        SearchResponse searchResponse) {
+        var result = new SearchResult();
+        result.setLimit(searchOption.getLimit());
+        var totalHits = searchResponse.getHits().getTotalHits();
+        result.setTotal(totalHits != null ? totalHits.value() : 0);
+        result.setKeyword(searchOption.getKeyword());
+        result.setProcessingTimeMillis(searchResponse.getTook().getMillis());
+        result.setHits(convertHits(searchResponse.getHits().getHits()));
+        return result;
+    }
+
+    static List<HaloDocument> convertHits(SearchHit[] hits) {
         List<HaloDocument> documents = new ArrayList<>();
 
         for (SearchHit hit : hits) {
             try {
-                String sourceJson = hit.getSourceAsString();
-                HaloDocument document = JsonUtils.mapper().readValue(sourceJson, HaloDocument.class);
+                // 直接从 _source 的原始字节反序列化，不经过 String
+                HaloDocument document = JsonUtils.mapper()
+                    .readValue(hit.getSourceRef().streamInput(), HaloDocument.class);
 
                 // Apply highlights if available
                 if (hit.getHighlightFields() != null && !hit.getHighlightFields().isEmpty()) {
@@ -356,9 +1216,169 @@ public class OpensearchSearchEngine implements SearchEngine, DisposableBean,
         return documents;
     }
 
+    private synchronized BlueGreenRebuild startRebuild(OpensearchProperties properties)
+        throws IOException {
+        abortRebuild();
+        var managed = opensearchClient.lease();
+        try {
+            var newRebuild = BlueGreenRebuild.start(managed.writeClient(),
+                opensearchClient.circuitBreaker(), properties,
+                deadLetterStore, this::invalidateSearchCache, this::forgetFingerprint, metrics);
+            this.rebuild = newRebuild;
+            var store = this.fingerprints;
+            if (store != null) {
+                // 镜像改为跟随新索引，切换别名后即与其一致
+                store.reset();
+            }
+            watchRebuild(properties, () -> completeRebuild(newRebuild));
+            return newRebuild;
+        } finally {
+            managed.release();
+        }
+    }
+
+    /**
+     * 原地重建：按配置把当前索引切换到批量加载设置，加载静默后恢复。
+     * 静默只用于恢复索引设置，提前恢复只影响写入速度，不会据此删除文档。
+     */
+    private synchronized void startInPlaceRebuild(OpensearchProperties properties) {
+        abortRebuild();
+        if (!properties.isBulkLoadEnabled()) {
+            return;
+        }
+        BulkLoadProfile profile;
+        var managed = opensearchClient.lease();
+        try {
+            profile = BulkLoadProfile.apply(managed.client(), indexName);
+        } catch (Exception e) {
+            // 批量加载设置只影响写入速度，失败时照常重建
+            log.warn("Failed to switch index [{}] to bulk load settings", indexName, e);
+            return;
+        } finally {
+            managed.release();
+        }
+        var started = new InPlaceRebuild(profile);
+        this.inPlaceRebuild = started;
+        watchRebuild(properties, () -> finishInPlaceRebuild(started));
+    }
+
+    /**
+     * 写入持续 {@code rebuildQuietSeconds} 秒没有新请求时执行 {@code onQuiet}。
+     */
+    private void watchRebuild(OpensearchProperties properties, Runnable onQuiet) {
+        var quietNanos = TimeUnit.SECONDS.toNanos(properties.getRebuildQuietSeconds() > 0
+            ? properties.getRebuildQuietSeconds() : BlueGreenRebuild.DEFAULT_QUIET_SECONDS);
+        lastWriteNanos = System.nanoTime();
+        this.rebuildWatcher = scheduler.schedulePeriodically(() -> {
+            if (System.nanoTime() - lastWriteNanos >= quietNanos) {
+                onQuiet.run();
+            }
+        }, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * 加载静默后切换别名，并把完成阶段写入旧索引的请求重新写入新索引。
+     */
+    private synchronized void completeRebuild(BlueGreenRebuild completed) {
+        if (this.rebuild != completed) {
+            return;
+        }
+        stopRebuildWatcher();
+        try {
+            var lateRequests = completed.complete();
+            this.rebuild = null;
+            lateRequests.forEach(bulkIndexer::add);
+            invalidateSearchCache();
+        } catch (Exception e) {
+            log.error("Failed to complete blue/green rebuild into [{}]",
+                completed.targetIndex(), e);
+            this.rebuild = null;
+            completed.abort();
+        }
+    }
+
+    private synchronized void finishInPlaceRebuild(InPlaceRebuild completed) {
+        if (this.inPlaceRebuild != completed) {
+            return;
+        }
+        stopRebuildWatcher();
+        this.inPlaceRebuild = null;
+        // 先发出缓冲区中的写入，使恢复设置后的强制刷新尽量包含它们
+        bulkIndexer.flush();
+        try {
+            completed.profile().restore(properties.isForceMergeAfterRebuild());
+        } catch (Exception e) {
+            log.error("Failed to restore index [{}] from bulk load settings", indexName, e);
+        }
+        invalidateSearchCache();
+    }
+
+    /**
+     * 中止正在进行的重建：蓝绿重建删除新索引，原地重建恢复索引设置。
+     */
+    private synchronized void abortRebuild() {
+        var current = this.rebuild;
+        this.rebuild = null;
+        stopRebuildWatcher();
+        var store = this.fingerprints;
+        if (current != null) {
+            current.abort();
+            if (store != null) {
+                // 镜像已跟随被放弃的新索引，与当前索引不再一致
+                store.invalidate();
+            }
+        }
+        var inPlace = this.inPlaceRebuild;
+        this.inPlaceRebuild = null;
+        if (inPlace == null) {
+            return;
+        }
+        try {
+            inPlace.profile().restore(false);
+        } catch (Exception e) {
+            log.warn("Failed to restore index [{}] from bulk load settings", indexName, e);
+        }
+    }
+
+    private void stopRebuildWatcher() {
+        var watcher = this.rebuildWatcher;
+        this.rebuildWatcher = null;
+        if (watcher != null) {
+            watcher.dispose();
+        }
+    }
+
     @Override
     public void destroy() throws Exception {
         this.available = false;
+        stopRecovery();
+        stopHealthCheck();
+        abortRebuild();
+        var queue = this.indexingQueue;
+        var preparer = this.documentPreparer;
+        var indexer = this.bulkIndexer;
+        this.indexingQueue = null;
+        // 队列关闭时把剩余变更写入当前管道，之后才能释放预处理器与 indexer
+        closeWritePipeline(queue, preparer, indexer);
+        this.documentPreparer = null;
+        this.bulkIndexer = null;
+        var fallback = this.fallbackIndex;
+        this.fallbackIndex = null;
+        closeFallbackIndex(fallback);
+        scheduler.dispose();
+    }
+
+    private static void closeWritePipeline(IndexingQueue queue, DocumentPreparer<?, ?> preparer,
+        BulkIndexer indexer) {
+        if (queue != null) {
+            queue.close();
+        }
+        if (preparer != null) {
+            preparer.close();
+        }
+        if (indexer != null) {
+            indexer.close();
+        }
     }
 
     @Override
@@ -366,17 +1386,12 @@ public class OpensearchSearchEngine implements SearchEngine, DisposableBean,
         var properties = event.getOpensearchProperties();
 
         var host = properties.getHost();
-        var port = properties.getPort();
-        var indexName = properties.getIndexName();
-        var username = properties.getUsername();
-        var password = properties.getPassword();
-
         if (host == null || host.isEmpty()) {
             log.warn("Opensearch host is not configured");
             return;
         }
 
-        refresh(host, port, username, password, indexName);
+        refresh(properties);
     }
 
     @Override
@@ -397,16 +1412,24 @@ public class OpensearchSearchEngine implements SearchEngine, DisposableBean,
         try {
             var properties = JsonUtils.mapper().readValue(data.get("basic"), OpensearchProperties.class);
             var host = properties.getHost();
-            var port = properties.getPort();
-            var indexName = properties.getIndexName();
-            var username = properties.getUsername();
-            var password = properties.getPassword();
-
             if (host != null && !host.isEmpty()) {
-                refresh(host, port, username, password, indexName);
+                refresh(properties);
             }
         } catch (Exception e) {
             log.error("Failed to parse Opensearch configuration", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * @param entry 与请求共用同一份文档源，写入本地备用索引时使用
+     */
+    private record PreparedDocument(IndexRequest request, long fingerprint,
+                                    FallbackIndex.Entry entry) {
+    }
+
+    /**
+     * @param profile 重建期间使用的批量加载设置
+     */
+    private record InPlaceRebuild(BulkLoadProfile profile) {
+    }
+}
@@ -0,0 +1,59 @@
+package run.halo.opensearch;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 控制台概览使用的集群与索引统计。
+ *
+ * @param index 索引统计，索引不存在时为 {@code null}
+ * @param collectedAt 采集时间，响应可能来自短时缓存
+ */
+public record OpensearchStats(IndexStats index, ClusterHealth cluster, List<NodeStats> nodes,
+                              Instant collectedAt) {
+
+    /**
+     * 来自 {@code _stats} 的索引统计。文档数与主分片大小只统计主分片，其余统计包含副本。
+     *
+     * @param name 配置中的索引名，蓝绿模式下是别名
+     */
+    public record IndexStats(String name, long documents, long deletedDocuments,
+                             long storeSizeBytes, long primaryStoreSizeBytes, long segments,
+                             Operation indexing, Operation query, Operation fetch,
+                             Operation refresh, Operation merge, long indexFailed) {
+    }
+
+    /**
+     * 一类操作的累计次数与耗时。
+     *
+     * @param current 正在执行的数量
+     * @param avgMillis 平均耗时，没有执行过时为 0
+     */
+    public record Operation(long total, long timeMillis, long current, double avgMillis) {
+
+        static Operation of(long total, long timeMillis, long current) {
+            return new Operation(total, timeMillis, current,
+                total > 0 ? (double) timeMillis / total : 0);
+        }
+    }
+
+    /**
+     * 来自 {@code _cluster/health} 的集群健康状态。
+     *
+     * @param status green、yellow 或 red
+     */
+    public record ClusterHealth(String clusterName, String status, int nodes, int dataNodes,
+                                int activeShards, int relocatingShards, int initializingShards,
+                                int unassignedShards) {
+    }
+
+    public record NodeStats(String name, List<ThreadPool> threadPools) {
+    }
+
+    /**
+     * 节点线程池状态，{@code rejected} 持续增长说明写入或搜索超出了节点的处理能力。
+     */
+    public record ThreadPool(String name, int threads, int active, int queue, long rejected,
+                             long completed) {
+    }
+}
@@ -0,0 +1,158 @@
+package run.halo.opensearch;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.opensearch.client.Request;
+import org.opensearch.client.Response;
+import org.opensearch.client.ResponseException;
+import org.opensearch.client.ResponseListener;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import run.halo.app.infra.utils.JsonUtils;
+
+/**
+ * 采集索引、集群健康与节点线程池统计。
+ *
+ * <p>这些接口没有对应的 high-level 请求，通过底层客户端读取 JSON。结果按索引名缓存
+ * {@value #TTL_SECONDS} 秒，控制台轮询不会每次都访问集群。
+ */
+@Component
+@RequiredArgsConstructor
+public class OpensearchStatsCollector {
+
+    static final int TTL_SECONDS = 5;
+
+    /**
+     * 概览关心的线程池：写入、搜索、刷新与强制合并。
+     */
+    static final List<String> THREAD_POOLS = List.of("write", "search", "refresh", "force_merge");
+
+    private final OpensearchClient opensearchClient;
+
+    private final AsyncCache<String, OpensearchStats> cache = Caffeine.newBuilder()
+        .maximumSize(16)
+        .expireAfterWrite(Duration.ofSeconds(TTL_SECONDS))
+        .buildAsync();
+
+    public Mono<OpensearchStats> stats(String indexName) {
+        return Mono.fromFuture(
+            () -> cache.get(indexName, (key, executor) -> collect(key).toFuture()), true);
+    }
+
+    private Mono<OpensearchStats> collect(String indexName) {
+        var indexStats = getJson("/" + indexName
+            + "/_stats/docs,store,segments,indexing,search,refresh,merge")
+            .map(json -> Optional.of(toIndexStats(indexName, json.path("_all"))))
+            .onErrorResume(OpensearchStatsCollector::isNotFound,
+                e -> Mono.just(Optional.empty()));
+        var clusterHealth = getJson("/_cluster/health")
+            .map(OpensearchStatsCollector::toClusterHealth);
+        var nodes = getJson("/_nodes/stats/thread_pool?filter_path=nodes.*.name,"
+            + THREAD_POOLS.stream()
+                .map(pool -> "nodes.*.thread_pool." + pool)
+                .collect(Collectors.joining(",")))
+            .map(OpensearchStatsCollector::toNodeStats);
+        return Mono.zip(indexStats, clusterHealth, nodes)
+            .map(tuple -> new OpensearchStats(tuple.getT1().orElse(null), tuple.getT2(),
+                tuple.getT3(), Instant.now()));
+    }
+
+    private Mono<JsonNode> getJson(String endpoint) {
+        var request = new Request("GET", endpoint);
+        return opensearchClient.execute((client, listener) -> client.getLowLevelClient()
+            .performRequestAsync(request, new ResponseListener() {
+                @Override
+                public void onSuccess(Response response) {
+                    JsonNode json;
+                    try (var content = response.getEntity().getContent()) {
+                        json = JsonUtils.mapper().readTree(content);
+                    } catch (IOException e) {
+                        listener.onFailure(e);
+                        return;
+                    }
+                    listener.onResponse(json);
+                }
+
+                @Override
+                public void onFailure(Exception exception) {
+                    listener.onFailure(exception);
+                }
+            }));
+    }
+
+    private static boolean isNotFound(Throwable e) {
+        return e instanceof ResponseException re
+            && re.getResponse().getStatusLine().getStatusCode() == 404;
+    }
+
+    static OpensearchStats.IndexStats toIndexStats(String indexName, JsonNode all) {
+        var primaries = all.path("primaries");
+        var total = all.path("total");
+        var indexing = total.path("indexing");
+        var search = total.path("search");
+        var refresh = total.path("refresh");
+        var merges = total.path("merges");
+        return new OpensearchStats.IndexStats(indexName,
+            primaries.path("docs").path("count").asLong(),
+            primaries.path("docs").path("deleted").asLong(),
+            total.path("store").path("size_in_bytes").asLong(),
+            primaries.path("store").path("size_in_bytes").asLong(),
+            total.path("segments").path("count").asLong(),
+            OpensearchStats.Operation.of(indexing.path("index_total").asLong(),
+                indexing.path("index_time_in_millis").asLong(),
+                indexing.path("index_current").asLong()),
+            OpensearchStats.Operation.of(search.path("query_total").asLong(),
+                search.path("query_time_in_millis").asLong(),
+                search.path("query_current").asLong()),
+            OpensearchStats.Operation.of(search.path("fetch_total").asLong(),
+                search.path("fetch_time_in_millis").asLong(),
+                search.path("fetch_current").asLong()),
+            OpensearchStats.Operation.of(refresh.path("total").asLong(),
+                refresh.path("total_time_in_millis").asLong(), 0),
+            OpensearchStats.Operation.of(merges.path("total").asLong(),
+                merges.path("total_time_in_millis").asLong(),
+                merges.path("current").asLong()),
+            indexing.path("index_failed").asLong());
+    }
+
+    static OpensearchStats.ClusterHealth toClusterHealth(JsonNode health) {
+        return new OpensearchStats.ClusterHealth(health.path("cluster_name").asText(),
+            health.path("status").asText(),
+            health.path("number_of_nodes").asInt(),
+            health.path("number_of_data_nodes").asInt(),
+            health.path("active_shards").asInt(),
+            health.path("relocating_shards").asInt(),
+            health.path("initializing_shards").asInt(),
+            health.path("unassigned_shards").asInt());
+    }
+
+    static List<OpensearchStats.NodeStats> toNodeStats(JsonNode json) {
+        var nodes = new ArrayList<OpensearchStats.NodeStats>();
+        json.path("nodes").forEach(node -> {
+            var threadPools = new ArrayList<OpensearchStats.ThreadPool>();
+            for (var pool : THREAD_POOLS) {
+                var stats = node.path("thread_pool").path(pool);
+                if (stats.isMissingNode()) {
+                    continue;
+                }
+                threadPools.add(new OpensearchStats.ThreadPool(pool,
+                    stats.path("threads").asInt(),
+                    stats.path("active").asInt(),
+                    stats.path("queue").asInt(),
+                    stats.path("rejected").asLong(),
+                    stats.path("completed").asLong()));
+            }
+            nodes.add(new OpensearchStats.NodeStats(node.path("name").asText(), threadPools));
+        });
+        return nodes;
+    }
+}
@@ -0,0 +1,70 @@
+package run.halo.opensearch;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * 限制分页搜索同时打开的 point-in-time 数量。
+ *
+ * <p>集群对每个节点可打开的 PIT 数量有上限，匿名访客的每次首页请求都会创建一个 PIT，
+ * 不加限制时会占满集群的名额。PIT 在最后一页被删除或保持时间到期后释放名额，每次翻页延长到期时间。
+ * 创建请求发出前先用 {@link #tryReserve} 占位，创建完成后以 {@link #opened} 或 {@link #abandon} 结束占位。
+ */
+final class PointInTimeQuota {
+
+    private final int maxOpen;
+    private final LongSupplier nanoClock;
+    private final Map<String, Long> expiresAtNanos = new HashMap<>();
+    private int pending;
+
+    PointInTimeQuota(int maxOpen) {
+        this(maxOpen, System::nanoTime);
+    }
+
+    PointInTimeQuota(int maxOpen, LongSupplier nanoClock) {
+        this.maxOpen = Math.max(maxOpen, 1);
+        this.nanoClock = nanoClock;
+    }
+
+    synchronized int open() {
+        purgeExpired();
+        return expiresAtNanos.size() + pending;
+    }
+
+    synchronized boolean tryReserve() {
+        purgeExpired();
+        if (expiresAtNanos.size() + pending >= maxOpen) {
+            return false;
+        }
+        pending++;
+        return true;
+    }
+
+    synchronized void opened(String pitId, long keepAliveNanos) {
+        pending--;
+        expiresAtNanos.put(pitId, nanoClock.getAsLong() + keepAliveNanos);
+    }
+
+    synchronized void abandon() {
+        pending--;
+    }
+
+    /**
+     * 翻页后延长到期时间。只处理由本配额创建的 PIT，客户端伪造的游标不会占用名额。
+     */
+    synchronized void touch(String previousPitId, String pitId, long keepAliveNanos) {
+        if (expiresAtNanos.remove(previousPitId) != null) {
+            expiresAtNanos.put(pitId, nanoClock.getAsLong() + keepAliveNanos);
+        }
+    }
+
+    synchronized void closed(String pitId) {
+        expiresAtNanos.remove(pitId);
+    }
+
+    private void purgeExpired() {
+        var now = nanoClock.getAsLong();
+        expiresAtNanos.values().removeIf(expiresAt -> now - expiresAt >= 0);
+    }
+}
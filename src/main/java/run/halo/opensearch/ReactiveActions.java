@@ -0,0 +1,33 @@
+package run.halo.opensearch;
+
+import java.util.function.Function;
+import org.opensearch.client.Cancellable;
+import org.opensearch.core.action.ActionListener;
+import reactor.core.publisher.Mono;
+
+/**
+ * 将 RestHighLevelClient 的 *Async 回调式 API 适配为 {@link Mono}。
+ * 订阅取消时会同时取消底层的 HTTP 请求。
+ */
+final class ReactiveActions {
+
+    private ReactiveActions() {
+    }
+
+    static <T> Mono<T> execute(Function<ActionListener<T>, Cancellable> action) {
+        return Mono.create(sink -> {
+            var cancellable = action.apply(new ActionListener<>() {
+                @Override
+                public void onResponse(T response) {
+                    sink.success(response);
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    sink.error(e);
+                }
+            });
+            sink.onCancel(cancellable::cancel);
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package run.halo.opensearch;
+
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import run.halo.app.extension.AbstractExtension;
+import run.halo.app.extension.GVK;
+
+/**
+ * 全量重建任务的检查点。插件重启后按其中记录的进度继续，而不是从头开始。
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@GVK(group = "opensearch.halo.run", version = "v1alpha1", kind = "ReindexCheckpoint",
+    plural = "reindexcheckpoints", singular = "reindexcheckpoint")
+public class ReindexCheckpoint extends AbstractExtension {
+
+    @Schema(requiredMode = REQUIRED)
+    private Spec spec;
+
+    @Data
+    public static class Spec {
+
+        @Schema(requiredMode = REQUIRED)
+        private Phase phase;
+
+        private String indexName;
+
+        /**
+         * 只清扫、不写入文档的任务，由 Halo 自带的重建触发，文档由 Halo 重新提交。
+         */
+        private boolean sweepOnly;
+
+        /**
+         * 每种文档已写入的条数，按文档提供者的类型区分，只用于显示进度。
+         * 恢复时按 {@link ReindexJournal} 中记录的名称跳过已写入的文档，不按条数跳过。
+         */
+        private Map<String, Long> offsets = new LinkedHashMap<>();
+
+        private long processedDocuments;
+
+        private long processedBytes;
+
+        /**
+         * 开始时索引中的文档数，用于估算剩余时间。
+         */
+        private long estimatedTotal;
+
+        private long deletedDocuments;
+
+        private Instant startedAt;
+
+        private Instant updatedAt;
+
+        private String error;
+    }
+
+    public enum Phase {
+        /**
+         * 逐块写入文档。
+         */
+        INDEXING,
+        /**
+         * 删除索引中已不存在于 Halo 的文档。
+         */
+        SWEEPING,
+        COMPLETED,
+        CANCELLED,
+        FAILED;
+
+        boolean interrupted() {
+            return this == INDEXING || this == SWEEPING;
+        }
+    }
+}
@@ -0,0 +1,610 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.opensearch.action.search.ClearScrollRequest;
+import org.opensearch.action.search.SearchRequest;
+import org.opensearch.action.search.SearchScrollRequest;
+import org.opensearch.client.RequestOptions;
+import org.opensearch.client.core.CountRequest;
+import org.opensearch.client.core.CountResponse;
+import org.opensearch.common.unit.TimeValue;
+import org.opensearch.index.query.QueryBuilders;
+import org.opensearch.search.builder.SearchSourceBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.app.plugin.event.PluginStartedEvent;
+import run.halo.app.plugin.extensionpoint.ExtensionGetter;
+import run.halo.app.search.HaloDocument;
+import run.halo.app.search.HaloDocumentsProvider;
+
+/**
+ * 可恢复的全量重建任务。
+ *
+ * <p>与 Halo 自带的重建（先 deleteAll 再写入全部文档）不同，任务不清空索引：各文档提供者的文档按块写入当前索引，
+ * 写完后删除索引中 Halo 已不存在的文档，因此重建过程中搜索始终能看到完整的旧数据。
+ * 每块写入后把进度保存到 {@link ReindexCheckpoint}，已写入文档的名称追加到 {@link ReindexJournal}，
+ * 插件重启后从检查点继续，名称已记录的文档只被读取、不再写入。
+ * 写入速率按配置的每秒文档数与字节数限制，不会挤占搜索的集群资源。
+ *
+ * <p>Halo 自带的重建在索引未被清空时只触发清扫（{@link #startSweep}）：文档已由 Halo 重新提交、
+ * 按指纹只写入有变化的部分，任务只读取各文档提供者的文档名称，然后删除索引中其余的文档，不再写入一遍。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReindexJob implements ApplicationListener<PluginStartedEvent>, DisposableBean {
+
+    static final String CHECKPOINT_NAME = "opensearch-reindex";
+    static final int DEFAULT_CHUNK_SIZE = 200;
+    static final int DEFAULT_MAX_DOCS_PER_SECOND = 200;
+
+    private static final int SWEEP_BATCH_SIZE = 1000;
+    private static final TimeValue SCROLL_KEEP_ALIVE = TimeValue.timeValueMinutes(1);
+
+    private final OpensearchSearchEngine searchEngine;
+
+    private final OpensearchClient opensearchClient;
+
+    private final ExtensionGetter extensionGetter;
+
+    private final ReactiveExtensionClient client;
+
+    private final Scheduler scheduler = Schedulers.newSingle("opensearch-reindex");
+
+    private Run current;
+
+    /**
+     * 开始全量重建。上一次任务没有完成且索引未变时从其检查点继续，{@code restart} 为 {@code true} 时从头开始。
+     */
+    public Mono<Status> start(boolean restart) {
+        return start(restart, false);
+    }
+
+    /**
+     * 开始只清扫的任务，丢弃未完成任务的进度。
+     */
+    public Mono<Status> startSweep() {
+        return start(true, true);
+    }
+
+    private Mono<Status> start(boolean restart, boolean sweepOnly) {
+        var run = reserve();
+        if (run == null) {
+            return Mono.error(new IllegalStateException("A reindex job is already running"));
+        }
+        if (!searchEngine.connected()) {
+            release(run);
+            return Mono.error(new IllegalStateException("Opensearch is not available"));
+        }
+        var indexName = searchEngine.indexName();
+        var directory = searchEngine.reindexDirectory();
+        return client.fetch(ReindexCheckpoint.class, CHECKPOINT_NAME)
+            .map(ReindexCheckpoint::getSpec)
+            .filter(spec -> !restart && spec.getPhase() != ReindexCheckpoint.Phase.COMPLETED
+                && indexName.equals(spec.getIndexName()) && spec.getStartedAt() != null)
+            .doOnNext(spec -> log.info("Resuming reindex of [{}] from {} documents",
+                indexName, spec.getProcessedDocuments()))
+            .switchIfEmpty(Mono.defer(() -> newSpec(indexName, directory, sweepOnly)))
+            .flatMap(spec -> Mono.fromCallable(() -> {
+                var journal = ReindexJournal.of(directory, indexName, spec.getStartedAt());
+                run.begin(spec, journal, journal.load());
+                return run;
+            }))
+            .flatMap(this::save)
+            .then(Mono.fromSupplier(() -> {
+                launch(run);
+                return run.status();
+            }))
+            .doOnError(e -> release(run))
+            .doOnCancel(() -> release(run));
+    }
+
+    /**
+     * 取消正在执行的任务，已写入的文档保留，之后可以从检查点继续。
+     */
+    public Mono<Status> cancel() {
+        Run run;
+        synchronized (this) {
+            run = this.current;
+            this.current = null;
+        }
+        if (run == null) {
+            return Mono.error(new IllegalStateException("No reindex job is running"));
+        }
+        if (!run.started()) {
+            // 仍在读取检查点，不会再启动
+            return Mono.empty();
+        }
+        run.stop();
+        run.finish(ReindexCheckpoint.Phase.CANCELLED, null);
+        log.info("Cancelled reindex after {} documents", run.status().processedDocuments());
+        return save(run).then(Mono.fromSupplier(run::status));
+    }
+
+    /**
+     * 当前任务的进度；没有任务在执行时返回最近一次任务保存的状态。
+     */
+    public Mono<Status> status() {
+        Run run;
+        synchronized (this) {
+            run = this.current;
+        }
+        if (run != null && run.started()) {
+            return Mono.just(run.status());
+        }
+        return client.fetch(ReindexCheckpoint.class, CHECKPOINT_NAME)
+            .map(checkpoint -> toStatus(checkpoint.getSpec(), false, 0, 0));
+    }
+
+    /**
+     * 插件启动时继续上次进程退出时仍在执行的任务。
+     */
+    @Override
+    public void onApplicationEvent(PluginStartedEvent event) {
+        client.fetch(ReindexCheckpoint.class, CHECKPOINT_NAME)
+            .map(ReindexCheckpoint::getSpec)
+            .filter(spec -> spec.getPhase().interrupted())
+            .flatMap(spec -> {
+                if (!searchEngine.connected()
+                    || !Objects.equals(spec.getIndexName(), searchEngine.indexName())) {
+                    log.warn("Interrupted reindex of [{}] cannot be resumed now, start it again "
+                        + "from the console", spec.getIndexName());
+                    return Mono.empty();
+                }
+                return start(false);
+            })
+            .subscribe(null, e -> log.warn("Failed to resume the interrupted reindex", e));
+    }
+
+    /**
+     * Halo 请求重建而索引没有被清空时，清扫 Halo 中已不存在的文档。
+     * 已有任务在执行时不再启动，该任务结束时同样会清扫。
+     */
+    @EventListener(ReindexRequestedEvent.class)
+    public void onReindexRequested() {
+        startSweep()
+            .subscribe(status -> log.info("Started sweep of [{}] requested by Halo",
+                status.indexName()), e -> log.info("Sweep requested by Halo not started: {}",
+                e.getMessage()));
+    }
+
+    private synchronized Run reserve() {
+        if (current != null) {
+            return null;
+        }
+        var properties = searchEngine.properties();
+        var run = new Run(properties != null ? properties : new OpensearchProperties());
+        this.current = run;
+        return run;
+    }
+
+    private synchronized void release(Run run) {
+        if (current == run) {
+            current = null;
+        }
+    }
+
+    private synchronized void launch(Run run) {
+        if (current != run) {
+            // 启动期间已被取消
+            return;
+        }
+        run.task = execute(run).subscribeOn(scheduler).subscribe();
+    }
+
+    private Mono<ReindexCheckpoint.Spec> newSpec(String indexName, Path directory,
+        boolean sweepOnly) {
+        var countRequest = new CountRequest(indexName);
+        return opensearchClient.<CountResponse>execute((restClient, listener) ->
+                restClient.countAsync(countRequest, RequestOptions.DEFAULT, listener))
+            .map(CountResponse::getCount)
+            .onErrorReturn(0L)
+            .map(count -> {
+                try {
+                    ReindexJournal.clear(directory);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                var spec = new ReindexCheckpoint.Spec();
+                spec.setPhase(ReindexCheckpoint.Phase.INDEXING);
+                spec.setIndexName(indexName);
+                spec.setSweepOnly(sweepOnly);
+                spec.setEstimatedTotal(count);
+                spec.setStartedAt(Instant.now());
+                log.info("Starting {} of [{}], about {} documents",
+                    sweepOnly ? "sweep" : "reindex", indexName, count);
+                return spec;
+            });
+    }
+
+    private Mono<Void> execute(Run run) {
+        return extensionGetter.getExtensions(HaloDocumentsProvider.class)
+            .concatMap(provider -> run.sweepOnly()
+                ? listProvider(run, provider) : indexProvider(run, provider))
+            .then(Mono.defer(() -> {
+                searchEngine.flushWrites();
+                return commit(run, run.enterSweep());
+            }))
+            .then(Mono.defer(() -> sweep(run)))
+            .then(Mono.defer(() -> {
+                run.finish(ReindexCheckpoint.Phase.COMPLETED, null);
+                var status = run.status();
+                log.info("Reindex of [{}] completed: {} documents written, {} stale deleted",
+                    status.indexName(), status.processedDocuments(), status.deletedDocuments());
+                try {
+                    run.journal.delete();
+                } catch (IOException e) {
+                    log.debug("Failed to delete reindex journal {}", run.journal.file(), e);
+                }
+                return save(run);
+            }))
+            .onErrorResume(e -> {
+                log.error("Reindex failed, it can be resumed from the last checkpoint", e);
+                run.finish(ReindexCheckpoint.Phase.FAILED, e.getMessage());
+                return save(run);
+            })
+            .doFinally(signal -> release(run));
+    }
+
+    /**
+     * 读取一类文档。此前已写入的文档只记录名称，用于最后删除不存在的文档。
+     * 按名称而不是按位置跳过：fetchAll 不保证顺序，中断期间增删的文档也会使位置错开。
+     */
+    private Flux<Void> indexProvider(Run run, HaloDocumentsProvider provider) {
+        var type = provider.getType();
+        return provider.fetchAll()
+            .doOnNext(run::see)
+            .filter(document -> !run.written(document.getMetadataName()))
+            .buffer(run.chunkSize)
+            .concatMap(chunk -> writeChunk(run, type, chunk));
+    }
+
+    /**
+     * 只记录一类文档的名称，不写入，也不限速。
+     */
+    private Flux<Void> listProvider(Run run, HaloDocumentsProvider provider) {
+        return provider.fetchAll()
+            .doOnNext(run::see)
+            .then()
+            .flux();
+    }
+
+    private Mono<Void> writeChunk(Run run, String type, List<HaloDocument> chunk) {
+        var bytes = chunk.stream().mapToLong(ReindexJob::estimateBytes).sum();
+        var waitNanos = run.throttle.reserve(chunk.size(), bytes);
+        return Mono.delay(Duration.ofNanos(waitNanos), scheduler)
+            .then(Mono.defer(() -> {
+                if (opensearchClient.circuitBreaker().isOpen()) {
+                    return Mono.error(new IllegalStateException("Opensearch is unavailable"));
+                }
+                return searchEngine.addOrUpdateAsync(chunk);
+            }))
+            .then(Mono.defer(() -> {
+                // 下一块写完时这一块早已发出，检查点与日志只记录到上一块，重启后最多重复写入一块
+                searchEngine.flushWrites();
+                return commit(run, run.advance(type, chunk, bytes));
+            }));
+    }
+
+    /**
+     * 把已确认发出的文档名称追加到日志，再保存检查点。
+     */
+    private Mono<Void> commit(Run run, List<String> confirmed) {
+        return Mono.fromCallable(() -> {
+                run.journal.append(confirmed);
+                return run;
+            })
+            .flatMap(this::save);
+    }
+
+    private Mono<Void> sweep(Run run) {
+        // 滚动查询是阻塞调用，在任务自己的线程上执行
+        return Mono.fromCallable(() -> findStale(run))
+            .subscribeOn(scheduler)
+            .flatMap(stale -> {
+                if (stale.isEmpty()) {
+                    return Mono.<Void>empty();
+                }
+                log.info("Deleting {} documents that no longer exist from [{}]", stale.size(),
+                    run.status().indexName());
+                run.deleted(stale.size());
+                return searchEngine.deleteByMetadataNamesAsync(stale);
+            });
+    }
+
+    /**
+     * 查找索引中存在、但本次没有被任何文档提供者返回的文档。任务开始后新建的文档可能在读取之后才创建，不在其列。
+     */
+    private List<String> findStale(Run run) throws IOException {
+        var status = run.status();
+        var source = new SearchSourceBuilder()
+            .query(QueryBuilders.boolQuery().mustNot(QueryBuilders.rangeQuery("creationTimestamp")
+                .gte(status.startedAt().toEpochMilli())))
+            .size(SWEEP_BATCH_SIZE)
+            .fetchSource(false)
+            .sort("_doc");
+        var stale = new ArrayList<String>();
+        var managed = opensearchClient.lease();
+        try {
+            var restClient = managed.client();
+            var response = restClient.search(new SearchRequest(status.indexName()).source(source)
+                .scroll(SCROLL_KEEP_ALIVE), RequestOptions.DEFAULT);
+            var scrollId = response.getScrollId();
+            try {
+                while (response.getHits().getHits().length > 0) {
+                    for (var hit : response.getHits().getHits()) {
+                        if (!run.seen(hit.getId())) {
+                            stale.add(hit.getId());
+                        }
+                    }
+                    response = restClient.scroll(new SearchScrollRequest(scrollId)
+                        .scroll(SCROLL_KEEP_ALIVE), RequestOptions.DEFAULT);
+                    scrollId = response.getScrollId();
+                }
+            } finally {
+                var clearScroll = new ClearScrollRequest();
+                clearScroll.addScrollId(scrollId);
+                try {
+                    restClient.clearScroll(clearScroll, RequestOptions.DEFAULT);
+                } catch (IOException e) {
+                    log.debug("Failed to clear scroll of index [{}]", status.indexName(), e);
+                }
+            }
+        } finally {
+            managed.release();
+        }
+        return stale;
+    }
+
+    private Mono<Void> save(Run run) {
+        var spec = run.checkpoint();
+        return client.fetch(ReindexCheckpoint.class, CHECKPOINT_NAME)
+            .flatMap(existing -> {
+                existing.setSpec(spec);
+                return client.update(existing);
+            })
+            .switchIfEmpty(Mono.defer(() -> {
+                var metadata = new Metadata();
+                metadata.setName(CHECKPOINT_NAME);
+                var checkpoint = new ReindexCheckpoint();
+                checkpoint.setMetadata(metadata);
+                checkpoint.setSpec(spec);
+                return client.create(checkpoint);
+            }))
+            .then();
+    }
+
+    /**
+     * 文档文本字段的 UTF-8 字节数，用于按字节限速，不实际编码。
+     */
+    static long estimateBytes(HaloDocument document) {
+        return utf8Length(document.getTitle()) + utf8Length(document.getDescription())
+            + utf8Length(document.getContent());
+    }
+
+    private static long utf8Length(String text) {
+        if (text == null) {
+            return 0;
+        }
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            var c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800 || Character.isSurrogate(c)) {
+                // 代理对的两个 char 共占 4 字节
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    static Status toStatus(ReindexCheckpoint.Spec spec, boolean running,
+        double documentsPerSecond, double bytesPerSecond) {
+        var total = Math.max(spec.getEstimatedTotal(), spec.getProcessedDocuments());
+        Long etaSeconds = null;
+        if (running && spec.getPhase() == ReindexCheckpoint.Phase.INDEXING
+            && documentsPerSecond > 0) {
+            etaSeconds = (long) Math.ceil((total - spec.getProcessedDocuments())
+                / documentsPerSecond);
+        }
+        return new Status(spec.getPhase(), running, spec.getIndexName(),
+            spec.getProcessedDocuments(), spec.getProcessedBytes(), total,
+            spec.getDeletedDocuments(), documentsPerSecond, bytesPerSecond, etaSeconds,
+            spec.getStartedAt(), spec.getUpdatedAt(), spec.getError());
+    }
+
+    @Override
+    public void destroy() {
+        Run run;
+        synchronized (this) {
+            run = this.current;
+            this.current = null;
+        }
+        if (run != null) {
+            // 不标记为取消，检查点仍处于执行中，插件下次启动时继续
+            run.stop();
+        }
+        scheduler.dispose();
+    }
+
+    /**
+     * @param documentsPerSecond 本次执行（恢复的任务从恢复时算起）的平均写入速率
+     * @param etaSeconds 预计剩余秒数，总数按开始时索引中的文档数估算，未在写入时为 {@code null}
+     */
+    public record Status(ReindexCheckpoint.Phase phase, boolean running, String indexName,
+                         long processedDocuments, long processedBytes, long estimatedTotal,
+                         long deletedDocuments, double documentsPerSecond, double bytesPerSecond,
+                         Long etaSeconds, Instant startedAt, Instant updatedAt, String error) {
+    }
+
+    /**
+     * 一次执行在内存中的状态，执行线程写入，状态查询在其他线程读取。
+     */
+    private static final class Run {
+
+        final int chunkSize;
+        final ReindexThrottle throttle;
+        final Set<String> seen = ConcurrentHashMap.newKeySet();
+        final long startNanos = System.nanoTime();
+
+        volatile Disposable task;
+        volatile ReindexJournal journal;
+
+        private ReindexCheckpoint.Spec spec;
+        private Set<String> written = Set.of();
+        private List<String> pending = List.of();
+        private Map<String, Long> committedOffsets = Map.of();
+        private long documents;
+        private long bytes;
+
+        Run(OpensearchProperties properties) {
+            this.chunkSize = properties.getReindexChunkSize() > 0
+                ? properties.getReindexChunkSize() : DEFAULT_CHUNK_SIZE;
+            this.throttle = new ReindexThrottle(properties.getReindexMaxDocsPerSecond() >= 0
+                ? properties.getReindexMaxDocsPerSecond() : DEFAULT_MAX_DOCS_PER_SECOND,
+                Math.max(properties.getReindexMaxKbPerSecond(), 0) * 1024L);
+        }
+
+        synchronized void begin(ReindexCheckpoint.Spec spec, ReindexJournal journal,
+            Set<String> written) {
+            spec.setPhase(ReindexCheckpoint.Phase.INDEXING);
+            spec.setError(null);
+            if (written.isEmpty() && spec.getProcessedDocuments() > 0) {
+                // 已写入文档的名称丢失，无法判断哪些文档已写入，全部重新写入
+                log.warn("Reindex journal {} is missing, rewriting all documents", journal.file());
+                spec.setOffsets(new LinkedHashMap<>());
+                spec.setProcessedDocuments(0);
+                spec.setProcessedBytes(0);
+            }
+            spec.setOffsets(new LinkedHashMap<>(spec.getOffsets()));
+            this.journal = journal;
+            this.written = written;
+            this.committedOffsets = Map.copyOf(spec.getOffsets());
+            this.spec = spec;
+        }
+
+        synchronized boolean started() {
+            return spec != null;
+        }
+
+        synchronized boolean sweepOnly() {
+            return spec.isSweepOnly();
+        }
+
+        boolean written(String metadataName) {
+            return metadataName != null && written.contains(metadataName);
+        }
+
+        void see(HaloDocument document) {
+            if (document.getMetadataName() != null) {
+                seen.add(document.getMetadataName());
+            }
+        }
+
+        boolean seen(String metadataName) {
+            return seen.contains(metadataName);
+        }
+
+        /**
+         * 记录一块已交给写入管道的文档。
+         *
+         * @return 上一块文档的名称，这一块发出时上一块已确认发出
+         */
+        synchronized List<String> advance(String type, List<HaloDocument> chunk,
+            long chunkBytes) {
+            var chunkDocuments = chunk.size();
+            var confirmed = pending;
+            pending = chunk.stream().map(HaloDocument::getMetadataName)
+                .filter(Objects::nonNull).toList();
+            committedOffsets = Map.copyOf(spec.getOffsets());
+            spec.getOffsets().merge(type, (long) chunkDocuments, Long::sum);
+            spec.setProcessedDocuments(spec.getProcessedDocuments() + chunkDocuments);
+            spec.setProcessedBytes(spec.getProcessedBytes() + chunkBytes);
+            documents += chunkDocuments;
+            bytes += chunkBytes;
+            return confirmed;
+        }
+
+        /**
+         * @return 最后一块文档的名称
+         */
+        synchronized List<String> enterSweep() {
+            var confirmed = pending;
+            pending = List.of();
+            committedOffsets = Map.copyOf(spec.getOffsets());
+            spec.setPhase(ReindexCheckpoint.Phase.SWEEPING);
+            return confirmed;
+        }
+
+        synchronized void deleted(int count) {
+            spec.setDeletedDocuments(spec.getDeletedDocuments() + count);
+        }
+
+        synchronized void finish(ReindexCheckpoint.Phase phase, String error) {
+            committedOffsets = Map.copyOf(spec.getOffsets());
+            spec.setPhase(phase);
+            spec.setError(error);
+        }
+
+        void stop() {
+            var running = this.task;
+            if (running != null) {
+                running.dispose();
+            }
+        }
+
+        /**
+         * 要保存的检查点，进度只记录到已确认发出的块。
+         */
+        synchronized ReindexCheckpoint.Spec checkpoint() {
+            spec.setUpdatedAt(Instant.now());
+            var checkpoint = new ReindexCheckpoint.Spec();
+            checkpoint.setPhase(spec.getPhase());
+            checkpoint.setIndexName(spec.getIndexName());
+            checkpoint.setSweepOnly(spec.isSweepOnly());
+            checkpoint.setOffsets(new LinkedHashMap<>(committedOffsets));
+            checkpoint.setProcessedDocuments(committedOffsets.values().stream()
+                .mapToLong(Long::longValue).sum());
+            checkpoint.setProcessedBytes(spec.getProcessedBytes());
+            checkpoint.setEstimatedTotal(spec.getEstimatedTotal());
+            checkpoint.setDeletedDocuments(spec.getDeletedDocuments());
+            checkpoint.setStartedAt(spec.getStartedAt());
+            checkpoint.setUpdatedAt(spec.getUpdatedAt());
+            checkpoint.setError(spec.getError());
+            return checkpoint;
+        }
+
+        synchronized Status status() {
+            var running = spec.getPhase().interrupted() && task != null;
+            var elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+            return toStatus(spec, running,
+                running && elapsedSeconds > 0 ? documents / elapsedSeconds : 0,
+                running && elapsedSeconds > 0 ? bytes / elapsedSeconds : 0);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 全量重建任务已写入文档的名称，每行一个 metadataName，只追加。
+ *
+ * <p>恢复时按名称而不是按位置跳过已写入的文档：文档提供者不保证每次返回的顺序相同，
+ * 中断期间新建或删除的文档也会使位置错开。日志与检查点的开始时间对应，保存在本地磁盘；
+ * 日志丢失（例如插件换到另一台机器上运行）时恢复的任务重新写入全部文档，结果仍然正确，只是更慢。
+ */
+final class ReindexJournal {
+
+    static final String DIRECTORY = "opensearch-reindex";
+
+    private static final String SUFFIX = ".journal";
+
+    private final Path file;
+
+    private ReindexJournal(Path file) {
+        this.file = file;
+    }
+
+    static ReindexJournal of(Path directory, String indexName, Instant startedAt) {
+        return new ReindexJournal(directory.resolve(
+            indexName + "-" + startedAt.toEpochMilli() + SUFFIX));
+    }
+
+    /**
+     * 删除目录中所有任务的日志，开始新任务前调用。
+     */
+    static void clear(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (var files = Files.list(directory)) {
+            for (var journal : files.filter(path -> path.toString().endsWith(SUFFIX)).toList()) {
+                Files.deleteIfExists(journal);
+            }
+        }
+    }
+
+    Path file() {
+        return file;
+    }
+
+    Set<String> load() throws IOException {
+        Set<String> names = ConcurrentHashMap.newKeySet();
+        if (Files.exists(file)) {
+            try (var lines = Files.lines(file, StandardCharsets.UTF_8)) {
+                lines.filter(line -> !line.isEmpty()).forEach(names::add);
+            }
+        }
+        return names;
+    }
+
+    synchronized void append(Collection<String> metadataNames) throws IOException {
+        if (metadataNames.isEmpty()) {
+            return;
+        }
+        Files.createDirectories(file.getParent());
+        var lines = new StringBuilder();
+        for (var metadataName : metadataNames) {
+            lines.append(metadataName).append('\n');
+        }
+        Files.writeString(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND);
+    }
+
+    void delete() throws IOException {
+        Files.deleteIfExists(file);
+    }
+}
@@ -0,0 +1,14 @@
+package run.halo.opensearch;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Halo 请求重建索引且索引没有被清空时发布，由 {@link ReindexJob} 对照各文档提供者的文档名称，
+ * 删除索引中已不存在的文档。
+ */
+public class ReindexRequestedEvent extends ApplicationEvent {
+
+    public ReindexRequestedEvent(Object source) {
+        super(source);
+    }
+}
@@ -0,0 +1,45 @@
+package run.halo.opensearch;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 按文档数与字节数限制全量重建的写入速率。
+ *
+ * <p>每块写入前预约其配额，返回需要等待的时间；两个限制中较慢的一个决定下一块最早的开始时间。
+ * 不累积空闲期的配额，重建不会在暂停之后突发写入。限制为 0 表示不限。
+ */
+final class ReindexThrottle {
+
+    private final double nanosPerDocument;
+    private final double nanosPerByte;
+    private final LongSupplier nanoClock;
+
+    private long nextFreeNanos;
+
+    ReindexThrottle(int maxDocsPerSecond, long maxBytesPerSecond) {
+        this(maxDocsPerSecond, maxBytesPerSecond, System::nanoTime);
+    }
+
+    ReindexThrottle(int maxDocsPerSecond, long maxBytesPerSecond, LongSupplier nanoClock) {
+        this.nanosPerDocument = maxDocsPerSecond > 0
+            ? (double) TimeUnit.SECONDS.toNanos(1) / maxDocsPerSecond : 0;
+        this.nanosPerByte = maxBytesPerSecond > 0
+            ? (double) TimeUnit.SECONDS.toNanos(1) / maxBytesPerSecond : 0;
+        this.nanoClock = nanoClock;
+        this.nextFreeNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * 预约写入 {@code documents} 条、共 {@code bytes} 字节的配额。
+     *
+     * @return 开始写入前需要等待的纳秒数
+     */
+    synchronized long reserve(int documents, long bytes) {
+        var now = nanoClock.getAsLong();
+        var start = Math.max(now, nextFreeNanos);
+        var cost = (long) Math.max(documents * nanosPerDocument, bytes * nanosPerByte);
+        nextFreeNanos = start + cost;
+        return start - now;
+    }
+}
@@ -0,0 +1,95 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 集群不可用期间的变更日志，每行记录一个文档的一次变更（{@code U name} 或 {@code D name}）。
+ *
+ * <p>恢复时 {@link #drain()} 先把日志改名为 {@value #DRAINING_SUFFIX} 文件再读取，重放期间的新变更写入新的日志。
+ * 重放成功后调用 {@link #complete()} 删除改名后的文件；重放失败时该文件保留，下次 drain 时与新日志合并。
+ */
+final class ReplayLog {
+
+    static final String DRAINING_SUFFIX = ".draining";
+
+    private final Path file;
+    private final Path draining;
+
+    ReplayLog(Path file) {
+        this.file = file;
+        this.draining = file.resolveSibling(file.getFileName() + DRAINING_SUFFIX);
+    }
+
+    synchronized void append(Operation operation, Collection<String> metadataNames)
+        throws IOException {
+        if (metadataNames.isEmpty()) {
+            return;
+        }
+        var lines = new StringBuilder();
+        for (var metadataName : metadataNames) {
+            lines.append(operation.code).append(' ').append(metadataName).append('\n');
+        }
+        Files.writeString(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+            StandardOpenOption.APPEND);
+    }
+
+    /**
+     * 取出待重放的变更，每个文档只保留最后一次变更，按最后变更的先后排列。
+     */
+    synchronized Map<String, Operation> drain() throws IOException {
+        if (Files.exists(file)) {
+            if (Files.exists(draining)) {
+                Files.write(draining, Files.readAllBytes(file), StandardOpenOption.APPEND);
+                Files.delete(file);
+            } else {
+                Files.move(file, draining, StandardCopyOption.ATOMIC_MOVE);
+            }
+        }
+        var changes = new LinkedHashMap<String, Operation>();
+        if (!Files.exists(draining)) {
+            return changes;
+        }
+        try (var lines = Files.lines(draining, StandardCharsets.UTF_8)) {
+            lines.filter(line -> line.length() > 2).forEach(line -> {
+                var metadataName = line.substring(2);
+                changes.remove(metadataName);
+                changes.put(metadataName, Operation.of(line.charAt(0)));
+            });
+        }
+        return changes;
+    }
+
+    /**
+     * 是否有尚未重放或上次重放失败的变更。
+     */
+    synchronized boolean hasPending() {
+        return Files.exists(file) || Files.exists(draining);
+    }
+
+    synchronized void complete() throws IOException {
+        Files.deleteIfExists(draining);
+    }
+
+    enum Operation {
+        UPSERT('U'),
+        DELETE('D');
+
+        private final char code;
+
+        Operation(char code) {
+            this.code = code;
+        }
+
+        static Operation of(char code) {
+            return code == DELETE.code ? DELETE : UPSERT;
+        }
+    }
+}
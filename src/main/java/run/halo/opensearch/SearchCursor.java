@@ -0,0 +1,66 @@
+package run.halo.opensearch;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.List;
+import run.halo.app.infra.utils.JsonUtils;
+import run.halo.app.search.SearchOption;
+
+/**
+ * 分页游标：point-in-time ID、上一页最后一个结果的排序值以及查询条件。
+ * 对客户端而言是不透明的 base64url 字符串，翻页时只需回传游标。
+ * 游标可以由客户端任意构造，每页条数同样限制在 {@value #MAX_LIMIT} 以内。
+ */
+record SearchCursor(String pitId, List<Object> searchAfter, String keyword, int limit,
+                    String highlightPreTag, String highlightPostTag) {
+
+    static final int MAX_LIMIT = 100;
+
+    SearchCursor {
+        limit = Math.min(limit, MAX_LIMIT);
+    }
+
+    static SearchCursor first(String pitId, SearchOption option) {
+        return new SearchCursor(pitId, null, option.getKeyword(), option.getLimit(),
+            option.getHighlightPreTag(), option.getHighlightPostTag());
+    }
+
+    SearchCursor next(String pitId, Object[] sortValues) {
+        return new SearchCursor(pitId, List.of(sortValues), keyword, limit, highlightPreTag,
+            highlightPostTag);
+    }
+
+    SearchOption toSearchOption() {
+        var option = new SearchOption();
+        option.setKeyword(keyword);
+        option.setLimit(limit);
+        option.setHighlightPreTag(highlightPreTag);
+        option.setHighlightPostTag(highlightPostTag);
+        return option;
+    }
+
+    String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(JsonUtils.mapper().writeValueAsBytes(this));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode search cursor", e);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    static SearchCursor decode(String cursor) {
+        try {
+            var cursorJson = Base64.getUrlDecoder().decode(cursor);
+            var decoded = JsonUtils.mapper().readValue(cursorJson, SearchCursor.class);
+            if (decoded.pitId() == null || decoded.limit() <= 0) {
+                throw new IllegalArgumentException("Invalid search cursor");
+            }
+            return decoded;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid search cursor", e);
+        }
+    }
+}
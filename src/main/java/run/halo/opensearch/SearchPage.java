@@ -0,0 +1,9 @@
+package run.halo.opensearch;
+
+import run.halo.app.search.SearchResult;
+
+/**
+ * 一页搜索结果。{@code nextCursor} 为空表示没有更多结果。
+ */
+public record SearchPage(SearchResult result, String nextCursor) {
+}
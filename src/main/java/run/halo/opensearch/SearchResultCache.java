@@ -0,0 +1,89 @@
+package run.halo.opensearch;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import reactor.core.publisher.Mono;
+import run.halo.app.search.SearchOption;
+import run.halo.app.search.SearchResult;
+
+/**
+ * 热门搜索的进程内结果缓存。
+ *
+ * <p>基于 Caffeine（W-TinyLFU 淘汰、写入后过期），相同查询的并发请求只会访问集群一次。
+ * 缓存键包含写入代数，任何索引写入都会递增代数，使旧结果不再命中，随后被容量或过期淘汰。
+ */
+class SearchResultCache {
+
+    static final int DEFAULT_MAX_ENTRIES = 1000;
+    static final int DEFAULT_TTL_SECONDS = 60;
+
+    private final AsyncCache<Key, SearchResult> cache;
+    private final AtomicLong generation = new AtomicLong();
+
+    SearchResultCache(int maxEntries, int ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxEntries > 0 ? maxEntries : DEFAULT_MAX_ENTRIES)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds > 0 ? ttlSeconds : DEFAULT_TTL_SECONDS))
+            .recordStats()
+            .buildAsync();
+    }
+
+    Mono<SearchResult> get(SearchOption option, Function<SearchOption, Mono<SearchResult>> loader) {
+        var key = Key.of(option, generation.get());
+        // 失败的 future 会被 Caffeine 自动移除，不会缓存错误
+        return Mono.fromFuture(
+            () -> cache.get(key, (k, executor) -> loader.apply(option).toFuture()), true);
+    }
+
+    void invalidate() {
+        generation.incrementAndGet();
+    }
+
+    SearchCacheStats stats() {
+        var stats = cache.synchronous().stats();
+        return new SearchCacheStats(true, cache.synchronous().estimatedSize(),
+            stats.hitCount(), stats.missCount(), stats.hitRate(), stats.evictionCount(),
+            generation.get());
+    }
+
+    /**
+     * 搜索结果缓存的统计信息。
+     */
+    public record SearchCacheStats(boolean enabled, long size, long hitCount, long missCount,
+                                   double hitRate, long evictionCount, long generation) {
+
+        static SearchCacheStats disabled() {
+            return new SearchCacheStats(false, 0, 0, 0, 0, 0, 0);
+        }
+    }
+
+    private record Key(String keyword, int limit, String highlightPreTag,
+                       String highlightPostTag, Boolean filterExposed, Boolean filterRecycled,
+                       Boolean filterPublished, List<String> includeTypes,
+                       List<String> includeOwnerNames, List<String> includeCategoryNames,
+                       List<String> includeTagNames, Map<String, String> annotations,
+                       long generation) {
+
+        static Key of(SearchOption option, long generation) {
+            return new Key(option.getKeyword(), option.getLimit(),
+                option.getHighlightPreTag(), option.getHighlightPostTag(),
+                option.getFilterExposed(), option.getFilterRecycled(),
+                option.getFilterPublished(), copy(option.getIncludeTypes()),
+                copy(option.getIncludeOwnerNames()), copy(option.getIncludeCategoryNames()),
+                copy(option.getIncludeTagNames()),
+                option.getAnnotations() == null ? null : new HashMap<>(option.getAnnotations()),
+                generation);
+        }
+
+        private static List<String> copy(List<String> list) {
+            return list == null ? null : new ArrayList<>(list);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package run.halo.opensearch;
+
+/**
+ * 一条标题补全建议。
+ */
+public record Suggestion(String title, String permalink, String type) {
+}
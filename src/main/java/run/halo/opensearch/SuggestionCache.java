@@ -0,0 +1,66 @@
+package run.halo.opensearch;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.BiFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * 热门前缀的补全结果缓存。
+ *
+ * <p>输入框每次按键都会请求补全，访客输入的前缀高度集中，Caffeine 的 W-TinyLFU 淘汰会保留最常用的前缀。
+ * 与搜索结果缓存不同，写入索引时不失效：补全只返回标题，短暂的过期可以接受，
+ * 批量写入期间也不会因为频繁失效而让每次按键都访问集群。
+ */
+class SuggestionCache {
+
+    static final int DEFAULT_MAX_ENTRIES = 500;
+    static final int DEFAULT_TTL_SECONDS = 30;
+
+    /**
+     * completion 字段默认只索引输入的前 50 个字符，更长的前缀没有意义。
+     */
+    static final int MAX_PREFIX_LENGTH = 50;
+
+    private final AsyncCache<Key, List<Suggestion>> cache;
+
+    SuggestionCache(int maxEntries, int ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxEntries > 0 ? maxEntries : DEFAULT_MAX_ENTRIES)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds > 0 ? ttlSeconds : DEFAULT_TTL_SECONDS))
+            .buildAsync();
+    }
+
+    Mono<List<Suggestion>> get(String prefix, int limit,
+        BiFunction<String, Integer, Mono<List<Suggestion>>> loader) {
+        var key = new Key(prefix, limit);
+        // 失败的 future 会被 Caffeine 自动移除，不会缓存错误
+        return Mono.fromFuture(
+            () -> cache.get(key, (k, executor) -> loader.apply(prefix, limit).toFuture()), true);
+    }
+
+    long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    /**
+     * 规范化用户输入的前缀：去除首尾空白、转小写（与 simple 分析器一致）并截断，
+     * 使大小写不同的输入共享缓存条目。
+     */
+    static String normalize(String keyword) {
+        if (keyword == null) {
+            return "";
+        }
+        var prefix = keyword.strip().toLowerCase(Locale.ROOT);
+        if (prefix.length() > MAX_PREFIX_LENGTH) {
+            prefix = prefix.substring(0, MAX_PREFIX_LENGTH);
+        }
+        return prefix;
+    }
+
+    private record Key(String prefix, int limit) {
+    }
+}
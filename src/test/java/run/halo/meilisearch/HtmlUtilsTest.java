@@ -2,7 +2,10 @@ package run.halo.meilisearch;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
 
 class HtmlUtilsTest {
 
@@ -51,4 +54,56 @@ class HtmlUtilsTest {
         String result = HtmlUtils.stripHtmlAndTrim(null);
         assertThat(result).isNull();
     }
-} 
\ No newline at end of file
+
+    @ParameterizedTest
+    @MethodSource("jsoupCorpus")
+    void stripHtml_shouldMatchJsoupText(String html) {
+        assertThat(HtmlUtils.stripHtml(html, HtmlUtils.Extractor.STREAMING))
+            .isEqualTo(HtmlUtils.stripHtml(html, HtmlUtils.Extractor.JSOUP));
+    }
+
+    @Test
+    void stripHtml_shouldReplaceInvalidCodePoints() {
+        assertThat(HtmlUtils.stripHtml("a&#0;b&#xD800;c")).isEqualTo("a\uFFFDb\uFFFDc");
+    }
+
+    static Stream<String> jsoupCorpus() {
+        return Stream.of(
+            "<p>Hello <strong>world</strong>!</p>",
+            "<p>first</p><p>second</p>",
+            "line one<br>line two<br/>line three",
+            "<ul><li>one</li><li>two</li></ul>after",
+            "<div>  lots   of\n\t whitespace  </div>",
+            "<h1>Title</h1>\n<h2>Sub</h2>\n<p>Body</p>",
+            "<p>a<span> b </span>c</p>",
+            "<script>var x = '<p>not text</p>';</script><p>visible</p>",
+            "<style>p { color: red; }</style>styled",
+            "<!-- a comment --><p>after comment</p>",
+            "<!DOCTYPE html><html><head><title>Page</title></head><body>content</body></html>",
+            "&lt;tag&gt; &amp; &quot;quoted&quot; &copy; 2024",
+            "&amp &lt &gt no semicolons",
+            "&#65;&#x42;&#x1F600; &#128; &#x9F; &#x110000; &#13;",
+            "&unknown; &notanentity & alone",
+            "a&nbsp;&nbsp;b &nbsp; c",
+            "zero&#8203;width soft&shy;hyphen",
+            "<pre>  keep\n    indentation\n</pre><p>then text</p>",
+            "<pre>\nleading newline</pre>",
+            "<textarea>\n  <b>raw</b> &amp; text</textarea>",
+            "<a href=\"/x?a=1&b=2\" title='a > b'>link</a>",
+            "<img src=\"a.png\" alt=\"alt\">text<input value=\"v\">",
+            "<table><tr><td>1</td><td>2</td></tr><tr><td>3</td></tr></table>",
+            "<blockquote><p>quoted</p></blockquote><p>reply</p>",
+            "中文<strong>内容</strong>，包含<em>强调</em>。<p>第二段</p>",
+            "a < b and c > d",
+            "x <3 y </ z",
+            "<p>unclosed paragraph<p>another",
+            "<div><p>nested<div>deep</div></p></div>",
+            "text <b>bold",
+            "<code>inline &lt;code&gt;</code> and <kbd>Ctrl</kbd>",
+            "<figure><img src=x><figcaption>Caption</figcaption></figure>",
+            "<?xml version=\"1.0\"?><p>xml pi</p>",
+            "<p>   </p><p>\n</p>text",
+            "<svg><text>svg text</text></svg> after"
+        );
+    }
+}
\ No newline at end of file
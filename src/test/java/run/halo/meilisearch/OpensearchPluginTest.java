@@ -5,6 +5,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import run.halo.app.extension.SchemeManager;
 import run.halo.app.plugin.PluginContext;
 import run.halo.opensearch.OpensearchPlugin;
 
@@ -14,6 +15,9 @@ class OpensearchPluginTest {
     @Mock
     PluginContext context;
 
+    @Mock
+    SchemeManager schemeManager;
+
     @InjectMocks
     OpensearchPlugin plugin;
 
@@ -0,0 +1,102 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.core.rest.RestStatus;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class AdaptiveLimiterTest {
+
+    @Test
+    void execute_shouldRejectImmediatelyWhenLimitReached() {
+        var limiter = new AdaptiveLimiter("search", 1);
+        var pending = Sinks.<String>one();
+        var first = limiter.execute(pending.asMono()).subscribe();
+
+        assertThatThrownBy(() -> limiter.execute(Mono.just("second")).block())
+            .isInstanceOfSatisfying(OpenSearchStatusException.class,
+                error -> assertThat(error.status()).isEqualTo(RestStatus.TOO_MANY_REQUESTS));
+
+        pending.tryEmitValue("first");
+        assertThat(limiter.inflight()).isZero();
+        first.dispose();
+    }
+
+    @Test
+    void onSuccess_shouldGrowLimitUnderLoad() {
+        var limiter = new AdaptiveLimiter("search", 100);
+        for (int i = 0; i < AdaptiveLimiter.INITIAL_LIMIT; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+        assertThat(limiter.tryAcquire()).isFalse();
+
+        limiter.onSuccess();
+
+        assertThat(limiter.limit()).isEqualTo(AdaptiveLimiter.INITIAL_LIMIT + 1);
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void onSuccess_shouldNotGrowWhenLightlyUsed() {
+        var limiter = new AdaptiveLimiter("search", 100);
+        limiter.execute(Mono.just("ok")).block();
+
+        assertThat(limiter.limit()).isEqualTo(AdaptiveLimiter.INITIAL_LIMIT);
+    }
+
+    @Test
+    void limit_shouldNotExceedMax() {
+        var limiter = new AdaptiveLimiter("search", 3);
+
+        assertThat(limiter.limit()).isEqualTo(3);
+    }
+
+    @Test
+    void execute_shouldBackOffOnOverload() {
+        var limiter = new AdaptiveLimiter("search", 100);
+        limiter.execute(Mono.error(new TimeoutException())).onErrorResume(e -> Mono.empty())
+            .block();
+        assertThat(limiter.limit()).isEqualTo(9);
+
+        for (int i = 0; i < 30; i++) {
+            limiter.execute(Mono.error(new OpenSearchStatusException("rejected",
+                RestStatus.TOO_MANY_REQUESTS))).onErrorResume(e -> Mono.empty()).block();
+        }
+        assertThat(limiter.limit()).isEqualTo(1);
+        assertThat(limiter.inflight()).isZero();
+    }
+
+    @Test
+    void execute_shouldBackOffWhenDeadlineExpires() {
+        var limiter = new AdaptiveLimiter("search", 100);
+        assertThatThrownBy(() -> limiter.execute(Mono.never(), Duration.ofMillis(50)).block())
+            .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(limiter.limit()).isEqualTo(9);
+
+        // 上下文中更早的截止时间同样在限流器之内生效
+        assertThatThrownBy(() -> limiter.execute(Mono.never(), Duration.ofSeconds(30))
+            .contextWrite(Deadline.after(Duration.ofMillis(50))::writeTo)
+            .block())
+            .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(limiter.limit()).isEqualTo(8);
+        assertThat(limiter.inflight()).isZero();
+    }
+
+    @Test
+    void execute_shouldIgnoreOtherFailuresAndCancellation() {
+        var limiter = new AdaptiveLimiter("search", 100);
+        limiter.execute(Mono.error(new IllegalArgumentException()))
+            .onErrorResume(e -> Mono.empty()).block();
+        limiter.execute(Mono.never()).subscribe().dispose();
+
+        assertThat(limiter.limit()).isEqualTo(AdaptiveLimiter.INITIAL_LIMIT);
+        assertThat(limiter.inflight()).isZero();
+    }
+}
@@ -0,0 +1,35 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.ConnectException;
+import org.junit.jupiter.api.Test;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.core.rest.RestStatus;
+
+class BulkIndexerTest {
+
+    @Test
+    void isRetryable_shouldRetryRejectionsAndUnavailableNodes() {
+        assertThat(BulkIndexer.isRetryable(RestStatus.TOO_MANY_REQUESTS)).isTrue();
+        assertThat(BulkIndexer.isRetryable(RestStatus.SERVICE_UNAVAILABLE)).isTrue();
+        assertThat(BulkIndexer.isRetryable(RestStatus.GATEWAY_TIMEOUT)).isTrue();
+    }
+
+    @Test
+    void isRetryable_shouldNotRetryClientErrors() {
+        assertThat(BulkIndexer.isRetryable(RestStatus.BAD_REQUEST)).isFalse();
+        assertThat(BulkIndexer.isRetryable(RestStatus.CONFLICT)).isFalse();
+        assertThat(BulkIndexer.isRetryable(RestStatus.NOT_FOUND)).isFalse();
+    }
+
+    @Test
+    void isRetryable_shouldClassifyWholeRequestFailures() {
+        assertThat(BulkIndexer.isRetryable(new ConnectException("refused"))).isTrue();
+        assertThat(BulkIndexer.isRetryable(
+            new OpenSearchStatusException("rejected", RestStatus.TOO_MANY_REQUESTS))).isTrue();
+        assertThat(BulkIndexer.isRetryable(
+            new OpenSearchStatusException("bad", RestStatus.BAD_REQUEST))).isFalse();
+        assertThat(BulkIndexer.isRetryable(new IllegalStateException("closed"))).isFalse();
+    }
+}
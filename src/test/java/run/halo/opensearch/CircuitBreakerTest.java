@@ -0,0 +1,120 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.core.rest.RestStatus;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(now::get);
+
+    @BeforeEach
+    void setUp() {
+        breaker.configure(3, 10);
+    }
+
+    @Test
+    void shouldOpenAfterConsecutiveFailures() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(breaker.tryAcquire()).isTrue();
+            breaker.onComplete(new IOException("Connection refused"));
+        }
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.isOpen()).isTrue();
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void shouldIgnoreClientErrors() {
+        for (int i = 0; i < 5; i++) {
+            breaker.tryAcquire();
+            breaker.onComplete(new OpenSearchStatusException("missing", RestStatus.NOT_FOUND));
+            breaker.tryAcquire();
+            breaker.onComplete(new OpenSearchStatusException("busy",
+                RestStatus.TOO_MANY_REQUESTS));
+        }
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void successShouldResetConsecutiveFailures() {
+        breaker.onFailure();
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpen_shouldAllowSingleProbe() {
+        open();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+
+        assertThat(breaker.isOpen()).isFalse();
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void halfOpen_failedProbeShouldReopen() {
+        open();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        breaker.tryAcquire();
+        breaker.onComplete(new OpenSearchStatusException("unavailable",
+            RestStatus.SERVICE_UNAVAILABLE));
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void halfOpen_cancelledProbeShouldReleaseSlot() {
+        open();
+        now.addAndGet(Duration.ofSeconds(10).toNanos());
+        breaker.tryAcquire();
+        breaker.onCancel();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void healthyProbe_shouldEndOpenStateEarly() {
+        open();
+        breaker.recordProbe(true);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isTrue();
+    }
+
+    @Test
+    void failedProbes_shouldOpen() {
+        breaker.recordProbe(false);
+        breaker.recordProbe(false);
+        breaker.recordProbe(false);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.onFailure();
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
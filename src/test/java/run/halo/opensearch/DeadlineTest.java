@@ -0,0 +1,55 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+class DeadlineTest {
+
+    @Test
+    void apply_shouldUseDeadlineFromContext() {
+        var cancelled = new AtomicBoolean();
+        var action = Deadline.apply(Mono.never().doOnCancel(() -> cancelled.set(true)),
+                Duration.ofSeconds(30))
+            .contextWrite(Deadline.after(Duration.ofMillis(50))::writeTo);
+
+        assertThatThrownBy(() -> action.block(Duration.ofSeconds(5)))
+            .hasCauseInstanceOf(TimeoutException.class);
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void apply_shouldUseDefaultTimeoutWithoutDeadline() {
+        var action = Deadline.apply(Mono.never(), Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> action.block(Duration.ofSeconds(5)))
+            .hasCauseInstanceOf(TimeoutException.class);
+    }
+
+    @Test
+    void apply_shouldFailWithoutSubscribingWhenExpired() {
+        var subscribed = new AtomicBoolean();
+        var action = Deadline.apply(Mono.just("ok").doOnSubscribe(s -> subscribed.set(true)),
+                Duration.ofSeconds(30))
+            .contextWrite(new Deadline(System.nanoTime() - 1)::writeTo);
+
+        assertThatThrownBy(action::block).hasCauseInstanceOf(TimeoutException.class);
+        assertThat(subscribed).isFalse();
+    }
+
+    @Test
+    void writeTo_shouldKeepEarlierDeadline() {
+        var earlier = Deadline.after(Duration.ofSeconds(1));
+        var later = Deadline.after(Duration.ofSeconds(10));
+
+        var context = later.writeTo(earlier.writeTo(Context.empty()));
+
+        assertThat(context.<Deadline>get(Deadline.class)).isEqualTo(earlier);
+    }
+}
@@ -0,0 +1,51 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class DocumentPreparerTest {
+
+    @Test
+    void prepare_shouldKeepInputOrderWhenParallel() throws IOException {
+        var items = IntStream.range(0, 1000).boxed().toList();
+        var results = new ArrayList<String>();
+        try (var preparer = new DocumentPreparer<Integer, String>(i -> "doc-" + i, 4, 10)) {
+            preparer.prepare(items, results::add);
+        }
+        assertThat(results).containsExactlyElementsOf(
+            items.stream().map(i -> "doc-" + i).toList());
+    }
+
+    @Test
+    void prepare_shouldRunSequentiallyBelowThreshold() throws IOException {
+        var threads = new ArrayList<String>();
+        try (var preparer = new DocumentPreparer<Integer, Integer>(i -> {
+            threads.add(Thread.currentThread().getName());
+            return i;
+        }, 4, 100)) {
+            preparer.prepare(List.of(1, 2, 3), i -> { });
+        }
+        assertThat(threads).containsOnly(Thread.currentThread().getName());
+    }
+
+    @Test
+    void prepare_shouldPropagateStepFailure() {
+        var items = IntStream.range(0, 500).boxed().toList();
+        try (var preparer = new DocumentPreparer<Integer, Integer>(i -> {
+            if (i == 321) {
+                throw new IOException("boom");
+            }
+            return i;
+        }, 4, 10)) {
+            assertThatThrownBy(() -> preparer.prepare(items, i -> { }))
+                .isInstanceOf(IOException.class)
+                .hasMessage("boom");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.opensearch.core.common.bytes.BytesReference;
+import run.halo.app.infra.utils.JsonUtils;
+import run.halo.app.search.HaloDocument;
+import run.halo.meilisearch.HtmlUtils;
+
+class DocumentSerializerTest {
+
+    @Test
+    void serialize_shouldMatchJacksonOutputOfCleanedDocument() throws Exception {
+        var document = new HaloDocument();
+        document.setId("post.content.halo.run-hello");
+        document.setMetadataName("hello");
+        document.setAnnotations(Map.of("foo", "bar"));
+        document.setTitle("Hello \"World\"");
+        document.setDescription("<p>Short <em>description</em></p>");
+        document.setContent("<div><h1>Title</h1><p>Body with <a href=\"#\">link</a>.</p></div>");
+        document.setCategories(List.of("c1", "c2"));
+        document.setTags(List.of("t1"));
+        document.setPublished(true);
+        document.setExposed(true);
+        document.setOwnerName("admin");
+        document.setCreationTimestamp(Instant.parse("2024-01-01T00:00:00Z"));
+        document.setUpdateTimestamp(Instant.parse("2024-01-02T03:04:05.678Z"));
+        document.setPermalink("/archives/hello");
+        document.setType("post.content.halo.run");
+
+        var actual = (ObjectNode) JsonUtils.mapper().readTree(
+            BytesReference.bytes(DocumentSerializer.serialize(document)).utf8ToString());
+        actual.remove(DocumentSerializer.SUGGEST_FIELD);
+
+        var cleaned = JsonUtils.mapper().readValue(
+            JsonUtils.mapper().writeValueAsString(document), HaloDocument.class);
+        cleaned.setDescription("Short description");
+        cleaned.setContent("Title Body with link.");
+        var expected = JsonUtils.mapper().writeValueAsString(cleaned);
+
+        assertThat(actual).isEqualTo(JsonUtils.mapper().readTree(expected));
+    }
+
+    @Test
+    void serialize_shouldWriteTitleSuggestionWithVisibilityContext() throws Exception {
+        var document = new HaloDocument();
+        document.setMetadataName("hello");
+        document.setTitle("Hello World");
+        document.setPublished(true);
+        document.setExposed(true);
+
+        var visible = JsonUtils.mapper().readTree(
+            BytesReference.bytes(DocumentSerializer.serialize(document)).utf8ToString());
+        document.setExposed(false);
+        var hidden = JsonUtils.mapper().readTree(
+            BytesReference.bytes(DocumentSerializer.serialize(document)).utf8ToString());
+
+        var suggest = visible.get(DocumentSerializer.SUGGEST_FIELD);
+        assertThat(suggest.get("input").get(0).asText()).isEqualTo("Hello World");
+        assertThat(suggest.get("contexts").get(DocumentSerializer.VISIBILITY_CONTEXT).get(0)
+            .asText()).isEqualTo(DocumentSerializer.VISIBLE);
+        assertThat(hidden.get(DocumentSerializer.SUGGEST_FIELD).get("contexts")
+            .get(DocumentSerializer.VISIBILITY_CONTEXT).get(0).asText())
+            .isEqualTo(DocumentSerializer.HIDDEN);
+    }
+
+    @Test
+    void serialize_shouldSkipNullFields() throws Exception {
+        var document = new HaloDocument();
+        document.setMetadataName("empty");
+
+        var actual = BytesReference.bytes(DocumentSerializer.serialize(document)).utf8ToString();
+
+        assertThat(JsonUtils.mapper().readTree(actual).fieldNames())
+            .toIterable()
+            .containsExactly("metadataName", "published", "recycled", "exposed");
+    }
+
+    @Test
+    void serialize_shouldRoundTripThroughSourceBytes() throws Exception {
+        var document = new HaloDocument();
+        document.setMetadataName("hello");
+        document.setTitle("你好");
+        document.setTags(List.of("t1"));
+        document.setUpdateTimestamp(Instant.parse("2024-01-02T03:04:05.678Z"));
+
+        var source = BytesReference.bytes(DocumentSerializer.serialize(document));
+        var actual = JsonUtils.mapper().readValue(source.streamInput(), HaloDocument.class);
+
+        assertThat(actual.getMetadataName()).isEqualTo("hello");
+        assertThat(actual.getTitle()).isEqualTo("你好");
+        assertThat(actual.getTags()).containsExactly("t1");
+        assertThat(actual.getUpdateTimestamp()).isEqualTo(document.getUpdateTimestamp());
+    }
+
+    @Test
+    void serializeWithFingerprint_shouldDependOnCleanedContentOnly() throws Exception {
+        var document = new HaloDocument();
+        document.setMetadataName("hello");
+        document.setContent("<p>Body</p>");
+        var first = DocumentSerializer.serializeWithFingerprint(document,
+            HtmlUtils.Extractor.STREAMING);
+
+        // 只改变 HTML 标签，清洗后的内容不变
+        document.setContent("<div>Body</div>");
+        var sameText = DocumentSerializer.serializeWithFingerprint(document,
+            HtmlUtils.Extractor.STREAMING);
+        document.setContent("<p>Changed body</p>");
+        var changed = DocumentSerializer.serializeWithFingerprint(document,
+            HtmlUtils.Extractor.STREAMING);
+
+        assertThat(sameText.fingerprint()).isEqualTo(first.fingerprint());
+        assertThat(changed.fingerprint()).isNotEqualTo(first.fingerprint());
+        var source = JsonUtils.mapper().readTree(
+            BytesReference.bytes(first.source()).utf8ToString());
+        assertThat(source.get(DocumentSerializer.FINGERPRINT_FIELD).asLong())
+            .isEqualTo(first.fingerprint());
+        assertThat(source.get("content").asText()).isEqualTo("Body");
+    }
+}
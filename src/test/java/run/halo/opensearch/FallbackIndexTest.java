@@ -0,0 +1,111 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opensearch.core.common.bytes.BytesReference;
+import run.halo.app.search.HaloDocument;
+import run.halo.app.search.SearchOption;
+import run.halo.meilisearch.HtmlUtils;
+
+class FallbackIndexTest {
+
+    @TempDir
+    Path directory;
+
+    private static HaloDocument document(String name, String title, String content) {
+        var document = new HaloDocument();
+        document.setId("post.content.halo.run-" + name);
+        document.setMetadataName(name);
+        document.setTitle(title);
+        document.setContent(content);
+        document.setPublished(true);
+        document.setExposed(true);
+        document.setPermalink("/archives/" + name);
+        return document;
+    }
+
+    private static SearchOption option(String keyword) {
+        var option = new SearchOption();
+        option.setKeyword(keyword);
+        option.setLimit(10);
+        option.setHighlightPreTag("<em>");
+        option.setHighlightPostTag("</em>");
+        return option;
+    }
+
+    @Test
+    void search_shouldMatchCleanedTextAndHighlight() throws IOException {
+        try (var index = FallbackIndex.open(directory, HtmlUtils.Extractor.STREAMING)) {
+            var hidden = document("draft", "搜索引擎草稿", "<p>未发布</p>");
+            hidden.setPublished(false);
+            index.upsert(List.of(
+                document("hello", "Hello World", "<p>Getting started with Halo</p>"),
+                document("search", "搜索引擎入门", "<p>介绍全文搜索</p>"),
+                hidden), false);
+
+            var result = index.search(option("搜索"));
+            assertThat(result.getTotal()).isEqualTo(1);
+            assertThat(result.getHits()).singleElement().satisfies(hit -> {
+                assertThat(hit.getPermalink()).isEqualTo("/archives/search");
+                assertThat(hit.getTitle()).isEqualTo("<em>搜索</em>引擎入门");
+                assertThat(hit.getContent()).isEqualTo("介绍全文<em>搜索</em>");
+            });
+
+            var english = index.search(option("halo"));
+            assertThat(english.getHits()).singleElement()
+                .satisfies(hit -> assertThat(hit.getContent())
+                    .isEqualTo("Getting started with <em>Halo</em>"));
+        }
+    }
+
+    @Test
+    void upsertAndDelete_shouldPersistAcrossReopenAndLogWhenRequested() throws IOException {
+        try (var index = FallbackIndex.open(directory, HtmlUtils.Extractor.STREAMING)) {
+            index.upsert(List.of(document("a", "First", "one")), false);
+            index.upsert(List.of(document("a", "Updated", "one"),
+                document("b", "Second", "two")), true);
+            index.delete(List.of("b"), true);
+        }
+        try (var index = FallbackIndex.open(directory, HtmlUtils.Extractor.STREAMING)) {
+            assertThat(index.documentCount()).isEqualTo(1);
+            assertThat(index.get(List.of("a", "b"))).singleElement()
+                .extracting(HaloDocument::getTitle).isEqualTo("Updated");
+            assertThat(index.replayLog().drain())
+                .containsExactly(Map.entry("a", ReplayLog.Operation.UPSERT),
+                    Map.entry("b", ReplayLog.Operation.DELETE));
+
+            index.deleteAll();
+            assertThat(index.search(option(null)).getHits()).isEmpty();
+        }
+    }
+
+    @Test
+    void upsertPrepared_shouldBeSearchableBeforeCommitAndReuseSerializedSource()
+        throws IOException {
+        var document = document("prepared", "Prepared", "<p>Serialized once</p>");
+        var serialized = DocumentSerializer.serializeWithFingerprint(document,
+            HtmlUtils.Extractor.STREAMING);
+        var entry = new FallbackIndex.Entry(document, serialized.description(),
+            serialized.content(), BytesReference.bytes(serialized.source()));
+        try (var index = FallbackIndex.open(directory, HtmlUtils.Extractor.STREAMING)) {
+            index.upsertPrepared(List.of(entry), false);
+
+            // 近实时读取器可以看到尚未提交的写入，存储的文档源带有补全与指纹字段也能读回
+            assertThat(index.search(option("serialized")).getHits()).singleElement()
+                .satisfies(hit -> assertThat(hit.getContent())
+                    .isEqualTo("<em>Serialized</em> once"));
+            assertThat(index.get(List.of("prepared"))).singleElement()
+                .extracting(HaloDocument::getPermalink).isEqualTo("/archives/prepared");
+        }
+        // 关闭时提交
+        try (var index = FallbackIndex.open(directory, HtmlUtils.Extractor.STREAMING)) {
+            assertThat(index.documentCount()).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class FingerprintStoreTest {
+
+    @Test
+    void unchanged_shouldSkipOnlyMatchingFingerprintsOnceSynced() {
+        var store = new FingerprintStore();
+        store.put("a", 1L);
+        assertThat(store.unchanged("a", 1L)).isFalse();
+
+        store.reset();
+        store.put("a", 1L);
+
+        assertThat(store.unchanged("a", 1L)).isTrue();
+        assertThat(store.unchanged("a", 2L)).isFalse();
+        assertThat(store.unchanged("b", 1L)).isFalse();
+        assertThat(store.stats().skipped()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidate_shouldStopSkipping() {
+        var store = new FingerprintStore();
+        store.reset();
+        store.put("a", 1L);
+        store.invalidate();
+
+        assertThat(store.unchanged("a", 1L)).isFalse();
+        assertThat(store.stats().documents()).isZero();
+    }
+}
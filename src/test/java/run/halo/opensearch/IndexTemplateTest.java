@@ -0,0 +1,36 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class IndexTemplateTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mapping_shouldIndexOffsetsForUnifiedHighlighter() {
+        var mapping = IndexTemplate.mapping(OpensearchProperties.HighlighterType.UNIFIED);
+        var properties = (Map<String, Map<String, Object>>) mapping.get("properties");
+
+        assertThat(properties.get("content")).containsEntry("index_options", "offsets")
+            .doesNotContainKey("term_vector");
+        assertThat(properties.get("title")).containsEntry("index_options", "offsets")
+            .containsKey("fields");
+        assertThat(properties.get("tags")).containsOnly(Map.entry("type", "keyword"));
+        assertThat(properties.get(DocumentSerializer.SUGGEST_FIELD))
+            .containsEntry("type", "completion")
+            .containsKey("contexts");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void mapping_shouldStoreTermVectorsForFastVectorHighlighter() {
+        var mapping = IndexTemplate.mapping(OpensearchProperties.HighlighterType.FVH);
+        var properties = (Map<String, Map<String, Object>>) mapping.get("properties");
+
+        assertThat(properties.get("content"))
+            .containsEntry("term_vector", "with_positions_offsets")
+            .doesNotContainKey("index_options");
+    }
+}
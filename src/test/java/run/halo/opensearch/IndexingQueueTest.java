@@ -0,0 +1,106 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import run.halo.app.search.HaloDocument;
+
+class IndexingQueueTest {
+
+    private final List<String> writes = new CopyOnWriteArrayList<>();
+
+    private IndexingQueue queue(int maxPending) {
+        return new IndexingQueue(
+            documents -> documents.forEach(
+                document -> writes.add("index:" + document.getMetadataName() + ":"
+                    + document.getTitle())),
+            names -> names.forEach(name -> writes.add("delete:" + name)),
+            60_000, maxPending);
+    }
+
+    private static HaloDocument document(String name, String title) {
+        var document = new HaloDocument();
+        document.setMetadataName(name);
+        document.setTitle(title);
+        return document;
+    }
+
+    @Test
+    void flush_shouldKeepLatestVersionOfEachDocument() {
+        var queue = queue(100);
+        queue.upsert(List.of(document("a", "v1"), document("b", "v1")));
+        queue.upsert(List.of(document("a", "v2")));
+        queue.upsert(List.of(document("a", "v3")));
+        queue.flushNow();
+
+        assertThat(writes).containsExactly("index:b:v1", "index:a:v3");
+        assertThat(queue.stats().received()).isEqualTo(4);
+        assertThat(queue.stats().coalesced()).isEqualTo(2);
+        queue.close();
+    }
+
+    @Test
+    void flush_shouldReplaceUpsertFollowedByDelete() {
+        var queue = queue(100);
+        queue.upsert(List.of(document("a", "v1"), document("b", "v1")));
+        queue.delete(List.of("a"));
+        queue.upsert(List.of(document("c", "v1")));
+        queue.flushNow();
+
+        assertThat(writes).containsExactly("index:b:v1", "delete:a", "index:c:v1");
+        queue.close();
+    }
+
+    @Test
+    void upsert_shouldFlushWhenQueueIsFull() {
+        var queue = queue(2);
+        queue.upsert(List.of(document("a", "v1"), document("b", "v1")));
+        // 单线程执行器按顺序执行，flushNow 返回时已满触发的刷新也已完成
+        queue.flushNow();
+
+        assertThat(writes).containsExactly("index:a:v1", "index:b:v1");
+        assertThat(queue.stats().pending()).isZero();
+        queue.close();
+    }
+
+    @Test
+    void upsert_shouldScheduleFlushForChangesArrivingDuringFlush() throws InterruptedException {
+        var flushing = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var queue = new IndexingQueue(documents -> {
+            documents.forEach(document -> writes.add("index:" + document.getMetadataName()));
+            flushing.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, names -> { }, 50, 100);
+        queue.upsert(List.of(document("a", "v1")));
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // 第一次刷新仍在执行时进入的变更，不依赖之后的其他写入也应被刷新
+        queue.upsert(List.of(document("b", "v1")));
+        release.countDown();
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (writes.size() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(writes).containsExactly("index:a", "index:b");
+        queue.close();
+    }
+
+    @Test
+    void close_shouldWritePendingChanges() {
+        var queue = queue(100);
+        queue.delete(List.of("a"));
+        queue.close();
+
+        assertThat(writes).containsExactly("delete:a");
+    }
+}
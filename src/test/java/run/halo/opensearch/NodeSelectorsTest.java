@@ -0,0 +1,61 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.Test;
+import org.opensearch.client.Node;
+import org.opensearch.client.NodeSelector;
+
+class NodeSelectorsTest {
+
+    @Test
+    void shouldRouteWritesToIngestAndSearchesToDataNodes() {
+        var ingest = node("ingest", "ingest");
+        var data = node("data", "data");
+        var manager = node("manager", "cluster_manager");
+
+        assertThat(select(NodeSelectors.WRITE, ingest, data, manager)).containsExactly(ingest);
+        assertThat(select(NodeSelectors.SEARCH, ingest, data, manager)).containsExactly(data);
+    }
+
+    @Test
+    void shouldFallBackToAllNodesWhenNoneMatches() {
+        var first = node("first", "data", "ingest");
+        var second = node("second", "data", "ingest");
+
+        assertThat(select(NodeSelectors.SEARCH, first, second)).containsExactly(first, second);
+    }
+
+    @Test
+    void shouldKeepNodesWithUnknownRoles() {
+        var configured = new Node(new HttpHost("configured", 9200));
+        var data = node("data", "data");
+
+        assertThat(select(NodeSelectors.WRITE, configured, data)).containsExactly(configured);
+    }
+
+    @Test
+    void shouldOnlySkipClusterManagersWhenNotRoutingByRole() {
+        assertThat(NodeSelectors.of(OpensearchProperties.NodeRouting.ANY, true))
+            .isSameAs(NodeSelector.SKIP_DEDICATED_CLUSTER_MANAGERS);
+        assertThat(NodeSelectors.of(OpensearchProperties.NodeRouting.BY_ROLE, true))
+            .isSameAs(NodeSelectors.WRITE);
+        assertThat(NodeSelectors.of(OpensearchProperties.NodeRouting.BY_ROLE, false))
+            .isSameAs(NodeSelectors.SEARCH);
+    }
+
+    private static List<Node> select(NodeSelector selector, Node... nodes) {
+        var selected = new ArrayList<>(List.of(nodes));
+        selector.select(selected);
+        return selected;
+    }
+
+    private static Node node(String name, String... roles) {
+        return new Node(new HttpHost(name, 9200), null, name, "3.3.0",
+            new Node.Roles(Set.of(roles)), null);
+    }
+}
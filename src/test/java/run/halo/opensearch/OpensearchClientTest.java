@@ -0,0 +1,176 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.opensearch.OpenSearchStatusException;
+import org.opensearch.client.Cancellable;
+import org.opensearch.client.RequestOptions;
+import org.opensearch.core.rest.RestStatus;
+
+class OpensearchClientTest {
+
+    private HttpServer server;
+    private final OpensearchClient opensearchClient = new OpensearchClient();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        opensearchClient.destroy();
+        server.stop(0);
+    }
+
+    private OpensearchProperties properties() {
+        var properties = new OpensearchProperties();
+        properties.setHost("127.0.0.1");
+        properties.setPort(server.getAddress().getPort());
+        properties.setIndexName("halo");
+        return properties;
+    }
+
+    @Test
+    void prepare_shouldReuseClientWhenConnectionSettingsUnchanged() throws IOException {
+        var first = opensearchClient.prepare(properties());
+        opensearchClient.activate(first);
+
+        var properties = properties();
+        properties.setBulkActions(10);
+        assertThat(opensearchClient.prepare(properties)).isSameAs(first);
+    }
+
+    @Test
+    void activate_shouldCloseReplacedClientAfterLeasesAreReleased() throws IOException {
+        var first = opensearchClient.prepare(properties());
+        opensearchClient.activate(first);
+        var lease = opensearchClient.lease();
+
+        var properties = properties();
+        properties.setMaxConnTotal(10);
+        var second = opensearchClient.prepare(properties);
+        assertThat(second).isNotSameAs(first);
+        opensearchClient.activate(second);
+
+        assertThat(first.isClosed()).isFalse();
+        assertThat(opensearchClient.lease()).isSameAs(second);
+        lease.release();
+        assertThat(first.isClosed()).isTrue();
+        assertThat(second.isClosed()).isFalse();
+    }
+
+    @Test
+    void release_shouldNotDecrementBelowClosed() throws IOException {
+        var first = opensearchClient.prepare(properties());
+        opensearchClient.activate(first);
+        var lease = opensearchClient.lease();
+
+        var properties = properties();
+        properties.setMaxConnTotal(10);
+        opensearchClient.activate(opensearchClient.prepare(properties));
+        lease.release();
+        assertThat(first.isClosed()).isTrue();
+
+        // 强制关闭后迟到的归还不应使计数越过 CLOSED
+        lease.release();
+        assertThat(first.isClosed()).isTrue();
+    }
+
+    @Test
+    void prepare_shouldFailAndKeepCurrentClientWhenUnreachable() throws IOException {
+        var first = opensearchClient.prepare(properties());
+        opensearchClient.activate(first);
+
+        var properties = properties();
+        properties.setPort(unusedPort());
+        properties.setConnectTimeoutMillis(500);
+        assertThatThrownBy(() -> opensearchClient.prepare(properties))
+            .isInstanceOf(IOException.class);
+        assertThat(opensearchClient.lease()).isSameAs(first);
+    }
+
+    @Test
+    void prepare_shouldFailOverToLiveEndpoint() throws IOException {
+        var properties = properties();
+        properties.setPort(unusedPort());
+        properties.setEndpoints("127.0.0.1:" + server.getAddress().getPort());
+        properties.setConnectTimeoutMillis(500);
+
+        var managed = opensearchClient.prepare(properties);
+        opensearchClient.activate(managed);
+        for (int i = 0; i < 4; i++) {
+            assertThat(managed.client().ping(RequestOptions.DEFAULT)).isTrue();
+        }
+    }
+
+    @Test
+    void prepare_shouldUseSeparateWriteClientWhenRoutingByRole() throws IOException {
+        var managed = opensearchClient.prepare(properties());
+        assertThat(managed.writeClient()).isSameAs(managed.client());
+
+        var properties = properties();
+        properties.setNodeRouting(OpensearchProperties.NodeRouting.BY_ROLE);
+        var byRole = opensearchClient.prepare(properties);
+        assertThat(byRole.writeClient()).isNotSameAs(byRole.client());
+        assertThat(byRole.writeClient().ping(RequestOptions.DEFAULT)).isTrue();
+        opensearchClient.discard(managed);
+        opensearchClient.discard(byRole);
+        assertThat(byRole.isClosed()).isTrue();
+    }
+
+    @Test
+    void execute_shouldFailFastWhileCircuitBreakerIsOpen() throws IOException {
+        opensearchClient.activate(opensearchClient.prepare(properties()));
+        var breaker = opensearchClient.circuitBreaker();
+        for (int i = 0; i < CircuitBreaker.DEFAULT_FAILURE_THRESHOLD; i++) {
+            breaker.onFailure();
+        }
+        var calls = new AtomicInteger();
+
+        assertThatThrownBy(() -> opensearchClient.<Boolean>execute((client, listener) -> {
+            calls.incrementAndGet();
+            return mock(Cancellable.class);
+        }).block())
+            .isInstanceOfSatisfying(OpenSearchStatusException.class,
+                e -> assertThat(e.status()).isEqualTo(RestStatus.SERVICE_UNAVAILABLE));
+        assertThat(calls).hasValue(0);
+
+        assertThat(opensearchClient.ping(Duration.ofSeconds(5)).block()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+    }
+
+    @Test
+    void connectionKey_shouldNormalizeEndpoints() {
+        var properties = properties();
+        properties.setHost("http://node1:9201");
+        properties.setPort(9200);
+        properties.setEndpoints("node2, https://node3\nnode4:9300\n\nhttp://node1:9201");
+
+        assertThat(OpensearchClient.ConnectionKey.of(properties).endpoints())
+            .containsExactly("http://node1:9201", "http://node2:9200", "https://node3:9200",
+                "http://node4:9300");
+    }
+
+    private static int unusedPort() throws IOException {
+        try (var socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
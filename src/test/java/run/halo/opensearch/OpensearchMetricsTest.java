@@ -0,0 +1,67 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class OpensearchMetricsTest {
+
+    private final SimpleMeterRegistry hostRegistry = new SimpleMeterRegistry();
+    private final OpensearchMetrics metrics =
+        new OpensearchMetrics(hostRegistry, ObservationRegistry.create());
+
+    @Test
+    void observe_shouldRecordLatencyByOutcome() {
+        metrics.observe("search", Mono.just("ok")).block();
+        assertThatThrownBy(() -> metrics.observe("search",
+            Mono.error(new IllegalStateException("boom"))).block())
+            .isInstanceOf(IllegalStateException.class);
+
+        var success = hostRegistry.get("halo.opensearch.operation.latency")
+            .tags("operation", "search", "outcome", "success").timer();
+        var error = hostRegistry.get("halo.opensearch.operation.latency")
+            .tags("operation", "search", "outcome", "error").timer();
+        assertThat(success.count()).isEqualTo(1);
+        assertThat(error.count()).isEqualTo(1);
+    }
+
+    @Test
+    void snapshot_shouldIncludePercentilesAndRemoveMetersOnDestroy() {
+        for (int i = 1; i <= 10; i++) {
+            metrics.recordBulk(i, i * 100L, 1_000_000L * i, i, 0);
+        }
+        metrics.recordItemFailure(429);
+
+        var snapshot = metrics.snapshot();
+        var documents = snapshot.stream()
+            .filter(meter -> meter.name().equals("halo.opensearch.bulk.documents"))
+            .findFirst()
+            .orElseThrow();
+        assertThat(documents.count()).isEqualTo(10);
+        assertThat(documents.max()).isEqualTo(10);
+        assertThat(documents.percentiles()).containsKeys("p50", "p95", "p99");
+        assertThat(snapshot).anySatisfy(meter -> {
+            assertThat(meter.name()).isEqualTo("halo.opensearch.bulk.failures");
+            assertThat(meter.tags()).containsEntry("status", "429");
+            assertThat(meter.count()).isEqualTo(1);
+        });
+
+        metrics.destroy();
+        assertThat(hostRegistry.find("halo.opensearch.bulk.documents").meters()).isEmpty();
+    }
+
+    @Test
+    void destroy_shouldLeaveHostRegistryOpen() {
+        metrics.recordSearchTook(5);
+
+        metrics.destroy();
+
+        assertThat(hostRegistry.isClosed()).isFalse();
+        hostRegistry.counter("host.requests").increment();
+        assertThat(hostRegistry.get("host.requests").counter().count()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,238 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.opensearch.client.RequestOptions;
+import org.opensearch.client.RestClient;
+import org.opensearch.client.RestHighLevelClient;
+import run.halo.app.extension.ExtensionClient;
+import run.halo.app.infra.utils.JsonUtils;
+import run.halo.app.search.HaloDocument;
+import run.halo.app.search.SearchOption;
+
+class OpensearchSearchEngineTest {
+
+    private static final String SUGGEST_RESPONSE = """
+        {"took":1,"timed_out":false,
+         "_shards":{"total":1,"successful":1,"skipped":0,"failed":0},
+         "hits":{"max_score":null,"hits":[]},
+         "suggest":{"completion#title":[{"text":"hel","offset":0,"length":3,"options":[
+           {"text":"Hello World","_index":"halo","_id":"hello","_score":1.0,
+            "_source":{"title":"Hello World","permalink":"/archives/hello",
+                       "type":"post.content.halo.run"},
+            "contexts":{"visibility":["visible"]}},
+           {"text":"Help","_index":"halo","_id":"help","_score":1.0}]}]}}
+        """;
+
+    private HttpServer server;
+    private RestHighLevelClient client;
+    private final AtomicReference<String> requestBody = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requestBody.set(new String(exchange.getRequestBody().readAllBytes(),
+                StandardCharsets.UTF_8));
+            var body = SUGGEST_RESPONSE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        client = new RestHighLevelClient(RestClient.builder(
+            new HttpHost("http", "127.0.0.1", server.getAddress().getPort())));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        client.close();
+        server.stop(0);
+    }
+
+    @Test
+    void suggest_shouldQueryVisibleCompletionsAndReadSources() throws IOException {
+        var request = OpensearchSearchEngine.buildSuggestRequest("halo", "hel", 5);
+        var response = client.search(request, RequestOptions.DEFAULT);
+
+        var completion = JsonUtils.mapper().readTree(requestBody.get())
+            .path("suggest").path("title").path("completion");
+        assertThat(completion.path("field").asText()).isEqualTo(DocumentSerializer.SUGGEST_FIELD);
+        assertThat(completion.path("size").asInt()).isEqualTo(5);
+        assertThat(completion.path("contexts").path(DocumentSerializer.VISIBILITY_CONTEXT)
+            .get(0).path("context").asText()).isEqualTo(DocumentSerializer.VISIBLE);
+
+        assertThat(OpensearchSearchEngine.toSuggestions(response)).containsExactly(
+            new Suggestion("Hello World", "/archives/hello", "post.content.halo.run"),
+            new Suggestion("Help", null, null));
+    }
+
+    @Test
+    void fallback_shouldServeSearchesAndLogWritesWhileClusterIsUnreachable(@TempDir Path root)
+        throws Exception {
+        var engine = new OpensearchSearchEngine(mock(ExtensionClient.class),
+            mock(DeadLetterStore.class), new OpensearchClient(),
+            new OpensearchMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP), root);
+        var properties = new OpensearchProperties();
+        properties.setHost("127.0.0.1");
+        try (var socket = new ServerSocket(0)) {
+            properties.setPort(socket.getLocalPort());
+        }
+        properties.setIndexName("halo");
+        properties.setConnectTimeoutMillis(500);
+        properties.setFallbackEnabled(true);
+        try {
+            engine.onApplicationEvent(new ConfigUpdatedEvent(this, properties));
+            // 备用索引可以提供搜索，引擎仍对 Halo 报告可用
+            assertThat(engine.available()).isTrue();
+
+            var document = new HaloDocument();
+            document.setId("post.content.halo.run-hello");
+            document.setMetadataName("hello");
+            document.setTitle("Hello Halo");
+            document.setPublished(true);
+            document.setExposed(true);
+            engine.addOrUpdate(List.of(document));
+
+            var option = new SearchOption();
+            option.setKeyword("halo");
+            assertThat(engine.search(option).getHits()).extracting(HaloDocument::getMetadataName)
+                .containsExactly("hello");
+            assertThat(root.resolve("halo").resolve(FallbackIndex.REPLAY_LOG_FILE))
+                .hasContent("U hello");
+        } finally {
+            engine.destroy();
+        }
+    }
+
+    @Test
+    void deleteByMetadataNames_shouldKeepHyphensInNames(@TempDir Path root) throws Exception {
+        var engine = new OpensearchSearchEngine(mock(ExtensionClient.class),
+            mock(DeadLetterStore.class), new OpensearchClient(),
+            new OpensearchMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP), root);
+        var properties = new OpensearchProperties();
+        properties.setHost("127.0.0.1");
+        try (var socket = new ServerSocket(0)) {
+            properties.setPort(socket.getLocalPort());
+        }
+        properties.setIndexName("halo");
+        properties.setConnectTimeoutMillis(500);
+        properties.setFallbackEnabled(true);
+        try {
+            engine.onApplicationEvent(new ConfigUpdatedEvent(this, properties));
+            var document = new HaloDocument();
+            document.setId("post.content.halo.run-hello-world");
+            document.setMetadataName("hello-world");
+            document.setTitle("Hello Halo");
+            document.setPublished(true);
+            document.setExposed(true);
+            engine.addOrUpdate(List.of(document));
+
+            // 全量重建的清理阶段传入的是不带类型前缀的 metadataName
+            engine.deleteByMetadataNamesAsync(List.of("hello-world")).block();
+
+            var option = new SearchOption();
+            option.setKeyword("halo");
+            assertThat(engine.search(option).getHits()).isEmpty();
+            assertThat(root.resolve("halo").resolve(FallbackIndex.REPLAY_LOG_FILE))
+                .hasContent("U hello-world\nD hello-world");
+        } finally {
+            engine.destroy();
+        }
+    }
+
+    @Test
+    void fallback_shouldLogWritesDuringOutageAndReplayWhenHealthRecovers(@TempDir Path root)
+        throws Exception {
+        var down = new AtomicBoolean();
+        var bulkRequests = new AtomicInteger();
+        var cluster = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        cluster.createContext("/", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            var path = exchange.getRequestURI().getPath();
+            if (down.get()) {
+                exchange.sendResponseHeaders(503, -1);
+                exchange.close();
+                return;
+            }
+            if (path.endsWith("/_bulk")) {
+                bulkRequests.incrementAndGet();
+            }
+            var body = (path.endsWith("/_bulk")
+                ? "{\"took\":1,\"errors\":false,\"items\":[]}"
+                : "{\"acknowledged\":true}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+            } else {
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        cluster.start();
+
+        var opensearchClient = new OpensearchClient();
+        var engine = new OpensearchSearchEngine(mock(ExtensionClient.class),
+            mock(DeadLetterStore.class), opensearchClient,
+            new OpensearchMetrics(new SimpleMeterRegistry(), ObservationRegistry.NOOP), root);
+        var properties = new OpensearchProperties();
+        properties.setHost("127.0.0.1");
+        properties.setPort(cluster.getAddress().getPort());
+        properties.setIndexName("halo");
+        properties.setFallbackEnabled(true);
+        properties.setFingerprintEnabled(false);
+        properties.setIndexDebounceMillis(0);
+        properties.setBulkFlushIntervalSeconds(1);
+        properties.setHealthCheckIntervalSeconds(1);
+        var replayLog = root.resolve("halo").resolve(FallbackIndex.REPLAY_LOG_FILE);
+        try {
+            engine.onApplicationEvent(new ConfigUpdatedEvent(this, properties));
+
+            // 初始化成功后集群宕机，熔断打开
+            down.set(true);
+            for (int i = 0; i < CircuitBreaker.DEFAULT_FAILURE_THRESHOLD; i++) {
+                opensearchClient.circuitBreaker().onFailure();
+            }
+            var document = new HaloDocument();
+            document.setId("post.content.halo.run-hello");
+            document.setMetadataName("hello");
+            document.setTitle("Hello Halo");
+            engine.addOrUpdate(List.of(document));
+            assertThat(replayLog).hasContent("U hello");
+
+            down.set(false);
+            var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while ((Files.exists(replayLog) || bulkRequests.get() == 0)
+                && System.nanoTime() < deadline) {
+                Thread.sleep(100);
+            }
+            assertThat(replayLog).doesNotExist();
+            assertThat(bulkRequests.get()).isPositive();
+        } finally {
+            engine.destroy();
+            cluster.stop(0);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import run.halo.app.infra.utils.JsonUtils;
+
+class OpensearchStatsCollectorTest {
+
+    @Test
+    void toIndexStats_shouldReadPrimaryDocsAndTotalOperations() throws Exception {
+        var json = JsonUtils.mapper().readTree("""
+            {
+              "primaries": {
+                "docs": {"count": 120, "deleted": 3},
+                "store": {"size_in_bytes": 4096}
+              },
+              "total": {
+                "store": {"size_in_bytes": 8192},
+                "segments": {"count": 7},
+                "indexing": {"index_total": 200, "index_time_in_millis": 500,
+                             "index_current": 2, "index_failed": 1},
+                "search": {"query_total": 40, "query_time_in_millis": 80, "query_current": 0,
+                           "fetch_total": 0, "fetch_time_in_millis": 0, "fetch_current": 0},
+                "refresh": {"total": 10, "total_time_in_millis": 30},
+                "merges": {"total": 2, "total_time_in_millis": 100, "current": 1}
+              }
+            }
+            """);
+
+        var stats = OpensearchStatsCollector.toIndexStats("halo", json);
+
+        assertThat(stats.documents()).isEqualTo(120);
+        assertThat(stats.deletedDocuments()).isEqualTo(3);
+        assertThat(stats.storeSizeBytes()).isEqualTo(8192);
+        assertThat(stats.primaryStoreSizeBytes()).isEqualTo(4096);
+        assertThat(stats.segments()).isEqualTo(7);
+        assertThat(stats.indexing()).isEqualTo(new OpensearchStats.Operation(200, 500, 2, 2.5));
+        assertThat(stats.query().avgMillis()).isEqualTo(2.0);
+        assertThat(stats.fetch().avgMillis()).isZero();
+        assertThat(stats.merge().current()).isEqualTo(1);
+        assertThat(stats.indexFailed()).isEqualTo(1);
+    }
+
+    @Test
+    void toNodeStats_shouldKeepOnlyReturnedThreadPools() throws Exception {
+        var json = JsonUtils.mapper().readTree("""
+            {
+              "nodes": {
+                "n1": {
+                  "name": "node-1",
+                  "thread_pool": {
+                    "write": {"threads": 4, "active": 1, "queue": 5, "rejected": 9,
+                              "completed": 100},
+                    "search": {"threads": 7, "active": 0, "queue": 0, "rejected": 0,
+                               "completed": 50}
+                  }
+                }
+              }
+            }
+            """);
+
+        var nodes = OpensearchStatsCollector.toNodeStats(json);
+
+        assertThat(nodes).hasSize(1);
+        assertThat(nodes.get(0).name()).isEqualTo("node-1");
+        assertThat(nodes.get(0).threadPools())
+            .containsExactly(new OpensearchStats.ThreadPool("write", 4, 1, 5, 9, 100),
+                new OpensearchStats.ThreadPool("search", 7, 0, 0, 0, 50));
+    }
+}
@@ -0,0 +1,61 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class PointInTimeQuotaTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final PointInTimeQuota quota = new PointInTimeQuota(2, now::get);
+
+    @Test
+    void tryReserve_shouldCountPendingAndOpenPits() {
+        assertThat(quota.tryReserve()).isTrue();
+        assertThat(quota.tryReserve()).isTrue();
+        assertThat(quota.tryReserve()).isFalse();
+
+        quota.opened("pit-1", 100);
+        quota.abandon();
+
+        assertThat(quota.open()).isEqualTo(1);
+        assertThat(quota.tryReserve()).isTrue();
+        assertThat(quota.tryReserve()).isFalse();
+    }
+
+    @Test
+    void closed_shouldReleaseSlot() {
+        quota.tryReserve();
+        quota.opened("pit-1", 100);
+        quota.tryReserve();
+        quota.opened("pit-2", 100);
+
+        quota.closed("pit-1");
+
+        assertThat(quota.tryReserve()).isTrue();
+    }
+
+    @Test
+    void expiredPit_shouldReleaseSlotUnlessTouched() {
+        quota.tryReserve();
+        quota.opened("pit-1", 100);
+        quota.tryReserve();
+        quota.opened("pit-2", 100);
+
+        now.set(50);
+        quota.touch("pit-1", "pit-1b", 100);
+        now.set(100);
+
+        assertThat(quota.open()).isEqualTo(1);
+        now.set(150);
+        assertThat(quota.open()).isZero();
+    }
+
+    @Test
+    void touch_shouldIgnoreUnknownPit() {
+        quota.touch("forged", "forged", 100);
+
+        assertThat(quota.open()).isZero();
+    }
+}
@@ -0,0 +1,268 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import run.halo.app.extension.Metadata;
+import run.halo.app.extension.ReactiveExtensionClient;
+import run.halo.app.plugin.extensionpoint.ExtensionGetter;
+import run.halo.app.search.HaloDocument;
+import run.halo.app.search.HaloDocumentsProvider;
+
+class ReindexJobTest {
+
+    private static final String SHARDS =
+        "\"_shards\":{\"total\":1,\"successful\":1,\"skipped\":0,\"failed\":0}";
+
+    private HttpServer server;
+    private final OpensearchClient opensearchClient = new OpensearchClient();
+    private final OpensearchSearchEngine searchEngine = mock(OpensearchSearchEngine.class);
+    private final ReactiveExtensionClient client = mock(ReactiveExtensionClient.class);
+    private final AtomicReference<ReindexCheckpoint> stored = new AtomicReference<>();
+    private final List<List<String>> writes = Collections.synchronizedList(new ArrayList<>());
+    private final List<String> deletes = Collections.synchronizedList(new ArrayList<>());
+    private final HaloDocumentsProvider provider = mock(HaloDocumentsProvider.class);
+    private ReindexJob job;
+
+    @TempDir
+    Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            var path = exchange.getRequestURI().getPath();
+            String body;
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+                return;
+            } else if (path.endsWith("/_count")) {
+                body = "{\"count\":3," + SHARDS + "}";
+            } else if ("DELETE".equals(exchange.getRequestMethod())) {
+                body = "{\"succeeded\":true,\"num_freed\":1}";
+            } else if (path.equals("/_search/scroll")) {
+                body = searchResponse();
+            } else {
+                body = searchResponse("doc-1", "stale-post");
+            }
+            var bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+
+        var properties = new OpensearchProperties();
+        properties.setHost("127.0.0.1");
+        properties.setPort(server.getAddress().getPort());
+        properties.setIndexName("halo");
+        properties.setReindexChunkSize(2);
+        properties.setReindexMaxDocsPerSecond(0);
+        opensearchClient.activate(opensearchClient.prepare(properties));
+
+        when(searchEngine.connected()).thenReturn(true);
+        when(searchEngine.indexName()).thenReturn("halo");
+        when(searchEngine.properties()).thenReturn(properties);
+        when(searchEngine.reindexDirectory()).thenReturn(directory);
+        when(searchEngine.addOrUpdateAsync(any())).thenAnswer(invocation -> {
+            Iterable<HaloDocument> documents = invocation.getArgument(0);
+            var names = new ArrayList<String>();
+            documents.forEach(document -> names.add(document.getMetadataName()));
+            writes.add(names);
+            return Mono.empty();
+        });
+        when(searchEngine.deleteByMetadataNamesAsync(any())).thenAnswer(invocation -> {
+            List<String> names = invocation.getArgument(0);
+            names.forEach(deletes::add);
+            return Mono.empty();
+        });
+
+        when(client.fetch(ReindexCheckpoint.class, ReindexJob.CHECKPOINT_NAME))
+            .thenAnswer(invocation -> Mono.justOrEmpty(stored.get()));
+        when(client.create(any(ReindexCheckpoint.class))).thenAnswer(invocation -> {
+            stored.set(invocation.getArgument(0));
+            return Mono.just(invocation.getArgument(0));
+        });
+        when(client.update(any(ReindexCheckpoint.class))).thenAnswer(invocation -> {
+            stored.set(invocation.getArgument(0));
+            return Mono.just(invocation.getArgument(0));
+        });
+
+        when(provider.getType()).thenReturn("post.content.halo.run");
+        when(provider.fetchAll()).thenAnswer(invocation -> Flux.range(1, 5)
+            .map(i -> document("doc-" + i)));
+        var extensionGetter = mock(ExtensionGetter.class);
+        when(extensionGetter.getExtensions(HaloDocumentsProvider.class))
+            .thenReturn(Flux.just(provider));
+
+        job = new ReindexJob(searchEngine, opensearchClient, extensionGetter, client);
+    }
+
+    @AfterEach
+    void tearDown() {
+        job.destroy();
+        opensearchClient.destroy();
+        server.stop(0);
+    }
+
+    @Test
+    void start_shouldWriteInChunksAndDeleteStaleDocuments() {
+        var started = job.start(false).block();
+        assertThat(started.phase()).isEqualTo(ReindexCheckpoint.Phase.INDEXING);
+        assertThat(started.estimatedTotal()).isEqualTo(3);
+
+        var status = awaitCompletion();
+
+        assertThat(writes).containsExactly(List.of("doc-1", "doc-2"), List.of("doc-3", "doc-4"),
+            List.of("doc-5"));
+        assertThat(deletes).containsExactly("stale-post");
+        assertThat(status.processedDocuments()).isEqualTo(5);
+        assertThat(status.deletedDocuments()).isEqualTo(1);
+        assertThat(stored.get().getSpec().getOffsets())
+            .containsEntry("post.content.halo.run", 5L);
+        assertThat(directory).isEmptyDirectory();
+    }
+
+    @Test
+    void startSweep_shouldDeleteStaleDocumentsWithoutWriting() {
+        var started = job.startSweep().block();
+        assertThat(started.phase()).isEqualTo(ReindexCheckpoint.Phase.INDEXING);
+
+        var status = awaitCompletion();
+
+        // 文档由 Halo 自带的重建提交，清扫任务只对照名称
+        assertThat(writes).isEmpty();
+        assertThat(deletes).containsExactly("stale-post");
+        assertThat(status.processedDocuments()).isZero();
+        assertThat(stored.get().getSpec().isSweepOnly()).isTrue();
+    }
+
+    @Test
+    void start_shouldResumeSkippingWrittenDocumentsByName() throws IOException {
+        var startedAt = storeInterruptedCheckpoint();
+        ReindexJournal.of(directory, "halo", startedAt).append(List.of("doc-1", "doc-2"));
+        // 恢复时文档的顺序与中断前不同，并新增了 doc-6
+        doReturn(Flux.just("doc-2", "doc-5", "doc-6", "doc-1", "doc-3", "doc-4")
+            .map(ReindexJobTest::document)).when(provider).fetchAll();
+
+        job.start(false).block();
+        var status = awaitCompletion();
+
+        assertThat(writes).containsExactly(List.of("doc-5", "doc-6"), List.of("doc-3", "doc-4"));
+        // 此前已写入的文档仍被识别为存在，不会被删除
+        assertThat(deletes).containsExactly("stale-post");
+        assertThat(status.processedDocuments()).isEqualTo(6);
+    }
+
+    @Test
+    void start_shouldRewriteAllDocumentsWhenJournalIsMissing() {
+        storeInterruptedCheckpoint();
+
+        job.start(false).block();
+        var status = awaitCompletion();
+
+        assertThat(writes).containsExactly(List.of("doc-1", "doc-2"), List.of("doc-3", "doc-4"),
+            List.of("doc-5"));
+        assertThat(status.processedDocuments()).isEqualTo(5);
+    }
+
+    @Test
+    void start_shouldRejectConcurrentJobs() {
+        doReturn(Mono.never()).when(searchEngine).addOrUpdateAsync(any());
+        job.start(false).block();
+
+        var second = job.start(false).onErrorResume(IllegalStateException.class,
+            e -> Mono.empty()).block();
+        assertThat(second).isNull();
+
+        var cancelled = job.cancel().block();
+        assertThat(cancelled.phase()).isEqualTo(ReindexCheckpoint.Phase.CANCELLED);
+        assertThat(cancelled.running()).isFalse();
+        assertThat(stored.get().getSpec().getPhase())
+            .isEqualTo(ReindexCheckpoint.Phase.CANCELLED);
+    }
+
+    @Test
+    void estimateBytes_shouldCountUtf8Bytes() {
+        var document = document("doc");
+        document.setTitle("ab");
+        document.setContent("检索");
+
+        assertThat(ReindexJob.estimateBytes(document)).isEqualTo(8);
+    }
+
+    private Instant storeInterruptedCheckpoint() {
+        var spec = new ReindexCheckpoint.Spec();
+        spec.setPhase(ReindexCheckpoint.Phase.INDEXING);
+        spec.setIndexName("halo");
+        spec.setOffsets(Map.of("post.content.halo.run", 2L));
+        spec.setProcessedDocuments(2);
+        spec.setStartedAt(Instant.now());
+        var metadata = new Metadata();
+        metadata.setName(ReindexJob.CHECKPOINT_NAME);
+        var checkpoint = new ReindexCheckpoint();
+        checkpoint.setMetadata(metadata);
+        checkpoint.setSpec(spec);
+        stored.set(checkpoint);
+        return spec.getStartedAt();
+    }
+
+    private ReindexJob.Status awaitCompletion() {
+        var deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            var status = job.status().block();
+            if (status != null && status.phase() == ReindexCheckpoint.Phase.COMPLETED) {
+                return status;
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        throw new AssertionError("Reindex did not complete: " + job.status().block());
+    }
+
+    private static HaloDocument document(String name) {
+        var document = new HaloDocument();
+        document.setId("post.content.halo.run-" + name);
+        document.setMetadataName(name);
+        document.setTitle(name);
+        return document;
+    }
+
+    private static String searchResponse(String... ids) {
+        var hits = IntStream.range(0, ids.length)
+            .mapToObj(i -> "{\"_index\":\"halo\",\"_id\":\"" + ids[i]
+                + "\",\"_score\":null,\"sort\":[" + i + "]}")
+            .toList();
+        return "{\"_scroll_id\":\"scroll-1\",\"took\":1,\"timed_out\":false," + SHARDS
+            + ",\"hits\":{\"total\":{\"value\":" + ids.length + ",\"relation\":\"eq\"},"
+            + "\"max_score\":null,\"hits\":[" + String.join(",", hits) + "]}}";
+    }
+}
@@ -0,0 +1,41 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReindexJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void load_shouldReturnAppendedNames() throws IOException {
+        var journal = ReindexJournal.of(directory.resolve("reindex"), "halo", Instant.now());
+        assertThat(journal.load()).isEmpty();
+
+        journal.append(List.of("a", "b"));
+        journal.append(List.of("c"));
+
+        assertThat(journal.load()).containsExactlyInAnyOrder("a", "b", "c");
+    }
+
+    @Test
+    void clear_shouldDeleteJournalsOfAllJobs() throws IOException {
+        var first = ReindexJournal.of(directory, "halo", Instant.ofEpochMilli(1));
+        var second = ReindexJournal.of(directory, "halo", Instant.ofEpochMilli(2));
+        first.append(List.of("a"));
+        second.append(List.of("b"));
+
+        ReindexJournal.clear(directory);
+
+        assertThat(first.load()).isEmpty();
+        assertThat(second.load()).isEmpty();
+        assertThat(directory).isEmptyDirectory();
+    }
+}
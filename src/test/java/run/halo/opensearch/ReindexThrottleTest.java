@@ -0,0 +1,48 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class ReindexThrottleTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void reserve_shouldPaceByDocuments() {
+        var throttle = new ReindexThrottle(100, 0, now::get);
+
+        assertThat(throttle.reserve(50, 1_000_000)).isZero();
+        assertThat(throttle.reserve(50, 0)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+        assertThat(throttle.reserve(10, 0)).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void reserve_shouldUseTheSlowerLimit() {
+        var throttle = new ReindexThrottle(1000, 1024, now::get);
+
+        throttle.reserve(1, 2048);
+
+        assertThat(throttle.reserve(1, 0)).isEqualTo(TimeUnit.SECONDS.toNanos(2));
+    }
+
+    @Test
+    void reserve_shouldNotAccumulateIdleTime() {
+        var throttle = new ReindexThrottle(10, 0, now::get);
+        throttle.reserve(10, 0);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        assertThat(throttle.reserve(10, 0)).isZero();
+        assertThat(throttle.reserve(10, 0)).isEqualTo(TimeUnit.SECONDS.toNanos(1));
+    }
+
+    @Test
+    void reserve_shouldNotWaitWhenUnlimited() {
+        var throttle = new ReindexThrottle(0, 0, now::get);
+
+        assertThat(throttle.reserve(1000, 1_000_000)).isZero();
+        assertThat(throttle.reserve(1000, 1_000_000)).isZero();
+    }
+}
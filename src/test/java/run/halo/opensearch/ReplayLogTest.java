@@ -0,0 +1,47 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ReplayLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void drain_shouldKeepLastOperationPerDocumentInOrder() throws IOException {
+        var log = new ReplayLog(directory.resolve("replay.log"));
+        assertThat(log.hasPending()).isFalse();
+        log.append(ReplayLog.Operation.UPSERT, List.of("a", "b"));
+        log.append(ReplayLog.Operation.DELETE, List.of("a"));
+        log.append(ReplayLog.Operation.UPSERT, List.of("c"));
+
+        assertThat(log.drain()).containsExactly(
+            Map.entry("b", ReplayLog.Operation.UPSERT),
+            Map.entry("a", ReplayLog.Operation.DELETE),
+            Map.entry("c", ReplayLog.Operation.UPSERT));
+        assertThat(log.hasPending()).isTrue();
+        log.complete();
+        assertThat(log.hasPending()).isFalse();
+        assertThat(log.drain()).isEmpty();
+    }
+
+    @Test
+    void drain_shouldMergeChangesOfUnfinishedReplay() throws IOException {
+        var log = new ReplayLog(directory.resolve("replay.log"));
+        log.append(ReplayLog.Operation.UPSERT, List.of("a"));
+        assertThat(log.drain()).containsOnlyKeys("a");
+
+        // 上一次重放没有完成，期间又有新的变更
+        log.append(ReplayLog.Operation.DELETE, List.of("b"));
+        assertThat(log.drain()).containsExactly(
+            Map.entry("a", ReplayLog.Operation.UPSERT),
+            Map.entry("b", ReplayLog.Operation.DELETE));
+    }
+}
@@ -0,0 +1,42 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import org.junit.jupiter.api.Test;
+import run.halo.app.search.SearchOption;
+
+class SearchCursorTest {
+
+    @Test
+    void encode_shouldRoundTripSortValuesAndOption() {
+        var option = new SearchOption();
+        option.setKeyword("halo 搜索");
+        option.setLimit(20);
+        var cursor = SearchCursor.first("pit-1", option)
+            .next("pit-2", new Object[] {1.5f, "hello"});
+
+        var decoded = SearchCursor.decode(cursor.encode());
+
+        assertThat(decoded.pitId()).isEqualTo("pit-2");
+        assertThat(decoded.searchAfter()).containsExactly(1.5, "hello");
+        assertThat(decoded.toSearchOption().getKeyword()).isEqualTo("halo 搜索");
+        assertThat(decoded.toSearchOption().getLimit()).isEqualTo(20);
+        assertThat(decoded.toSearchOption().getHighlightPreTag()).isEqualTo("<B>");
+    }
+
+    @Test
+    void decode_shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> SearchCursor.decode("not a cursor"))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> SearchCursor.decode("e30"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void decode_shouldClampForgedLimit() {
+        var forged = new SearchCursor("pit-1", null, "halo", 100_000, null, null).encode();
+
+        assertThat(SearchCursor.decode(forged).limit()).isEqualTo(SearchCursor.MAX_LIMIT);
+    }
+}
@@ -0,0 +1,78 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import run.halo.app.search.SearchOption;
+import run.halo.app.search.SearchResult;
+
+class SearchResultCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Mono<SearchResult> load(SearchOption option) {
+        loads.incrementAndGet();
+        var result = new SearchResult();
+        result.setKeyword(option.getKeyword());
+        return Mono.just(result);
+    }
+
+    private static SearchOption option(String keyword) {
+        var option = new SearchOption();
+        option.setKeyword(keyword);
+        option.setLimit(10);
+        option.setIncludeTypes(List.of("post.content.halo.run"));
+        return option;
+    }
+
+    @Test
+    void get_shouldHitCacheForEqualOptions() {
+        var cache = new SearchResultCache(100, 60);
+        cache.get(option("halo"), this::load).block();
+        var result = cache.get(option("halo"), this::load).block();
+
+        assertThat(result.getKeyword()).isEqualTo("halo");
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    void get_shouldMissForDifferentOptions() {
+        var cache = new SearchResultCache(100, 60);
+        cache.get(option("halo"), this::load).block();
+        var other = option("halo");
+        other.setLimit(20);
+        cache.get(other, this::load).block();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void invalidate_shouldReloadOnNextGet() {
+        var cache = new SearchResultCache(100, 60);
+        cache.get(option("halo"), this::load).block();
+        cache.invalidate();
+        cache.get(option("halo"), this::load).block();
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.stats().generation()).isEqualTo(1);
+    }
+
+    @Test
+    void get_shouldNotCacheFailures() {
+        var cache = new SearchResultCache(100, 60);
+        var error = cache.get(option("halo"),
+                o -> Mono.<SearchResult>error(new IllegalStateException("boom")))
+            .onErrorResume(e -> Mono.empty())
+            .block();
+        var result = cache.get(option("halo"), this::load).block();
+
+        assertThat(error).isNull();
+        assertThat(result).isNotNull();
+        assertThat(loads).hasValue(1);
+    }
+}
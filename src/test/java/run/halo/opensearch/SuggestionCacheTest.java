@@ -0,0 +1,52 @@
+package run.halo.opensearch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+class SuggestionCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Mono<List<Suggestion>> load(String prefix, int limit) {
+        loads.incrementAndGet();
+        return Mono.just(List.of(new Suggestion(prefix + " world", "/archives/" + prefix, null)));
+    }
+
+    @Test
+    void get_shouldLoadEachPrefixOnce() {
+        var cache = new SuggestionCache(100, 60);
+        cache.get("hello", 5, this::load).block();
+        var suggestions = cache.get("hello", 5, this::load).block();
+        cache.get("hello", 10, this::load).block();
+
+        assertThat(suggestions).extracting(Suggestion::title).containsExactly("hello world");
+        assertThat(loads).hasValue(2);
+        assertThat(cache.size()).isEqualTo(2);
+    }
+
+    @Test
+    void get_shouldNotCacheErrors() {
+        var cache = new SuggestionCache(100, 60);
+        var failed = cache.get("hello", 5,
+            (prefix, limit) -> Mono.<List<Suggestion>>error(new IllegalStateException()))
+            .onErrorReturn(List.of())
+            .block();
+        var suggestions = cache.get("hello", 5, this::load).block();
+
+        assertThat(failed).isEmpty();
+        assertThat(suggestions).hasSize(1);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void normalize_shouldTrimLowercaseAndTruncate() {
+        assertThat(SuggestionCache.normalize("  Hello ")).isEqualTo("hello");
+        assertThat(SuggestionCache.normalize(null)).isEmpty();
+        assertThat(SuggestionCache.normalize("搜".repeat(80)))
+            .hasSize(SuggestionCache.MAX_PREFIX_LENGTH);
+    }
+}
@@ -28,7 +28,11 @@ import {
 // @ts-ignore
 import { BASE_PATH, BaseAPI, RequiredError, operationServerMap, type RequestArgs } from '../base'
 // @ts-ignore
-import type { IndexStats } from '../models'
+import type { MeterSnapshot } from '../models'
+// @ts-ignore
+import type { OpensearchStats } from '../models'
+// @ts-ignore
+import type { ReindexStatus } from '../models'
 /**
  * OpensearchConsoleV1alpha1Api - axios parameter creator
  * @export
@@ -38,7 +42,124 @@ export const OpensearchConsoleV1alpha1ApiAxiosParamCreator = function (
 ) {
   return {
     /**
-     * Get Opensearch index statistics
+     * Cancel the running reindex job, keeping its checkpoint
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     */
+    cancelOpensearchReindex: async (options: RawAxiosRequestConfig = {}): Promise<RequestArgs> => {
+      const localVarPath = `/apis/console.api.opensearch.halo.run/v1alpha1/reindex/-/cancel`
+      // use dummy base URL string because the URL constructor only accepts absolute URLs.
+      const localVarUrlObj = new URL(localVarPath, DUMMY_BASE_URL)
+      let baseOptions
+      if (configuration) {
+        baseOptions = configuration.baseOptions
+      }
+
+      const localVarRequestOptions = { method: 'POST', ...baseOptions, ...options }
+      const localVarHeaderParameter = {} as any
+      const localVarQueryParameter = {} as any
+
+      // authentication basicAuth required
+      // http basic authentication required
+      setBasicAuthToObject(localVarRequestOptions, configuration)
+
+      // authentication bearerAuth required
+      // http bearer authentication required
+      await setBearerAuthToObject(localVarHeaderParameter, configuration)
+
+      setSearchParams(localVarUrlObj, localVarQueryParameter)
+      let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {}
+      localVarRequestOptions.headers = {
+        ...localVarHeaderParameter,
+        ...headersFromBaseOptions,
+        ...options.headers,
+      }
+
+      return {
+        url: toPathString(localVarUrlObj),
+        options: localVarRequestOptions,
+      }
+    },
+    /**
+     * Get latency percentiles, bulk sizes and failure counts recorded by the plugin
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     */
+    getOpensearchMetrics: async (options: RawAxiosRequestConfig = {}): Promise<RequestArgs> => {
+      const localVarPath = `/apis/console.api.opensearch.halo.run/v1alpha1/stats/metrics`
+      // use dummy base URL string because the URL constructor only accepts absolute URLs.
+      const localVarUrlObj = new URL(localVarPath, DUMMY_BASE_URL)
+      let baseOptions
+      if (configuration) {
+        baseOptions = configuration.baseOptions
+      }
+
+      const localVarRequestOptions = { method: 'GET', ...baseOptions, ...options }
+      const localVarHeaderParameter = {} as any
+      const localVarQueryParameter = {} as any
+
+      // authentication basicAuth required
+      // http basic authentication required
+      setBasicAuthToObject(localVarRequestOptions, configuration)
+
+      // authentication bearerAuth required
+      // http bearer authentication required
+      await setBearerAuthToObject(localVarHeaderParameter, configuration)
+
+      setSearchParams(localVarUrlObj, localVarQueryParameter)
+      let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {}
+      localVarRequestOptions.headers = {
+        ...localVarHeaderParameter,
+        ...headersFromBaseOptions,
+        ...options.headers,
+      }
+
+      return {
+        url: toPathString(localVarUrlObj),
+        options: localVarRequestOptions,
+      }
+    },
+    /**
+     * Get progress, throughput and ETA of the current or last reindex job
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     */
+    getOpensearchReindexStatus: async (options: RawAxiosRequestConfig = {}): Promise<RequestArgs> => {
+      const localVarPath = `/apis/console.api.opensearch.halo.run/v1alpha1/reindex`
+      // use dummy base URL string because the URL constructor only accepts absolute URLs.
+      const localVarUrlObj = new URL(localVarPath, DUMMY_BASE_URL)
+      let baseOptions
+      if (configuration) {
+        baseOptions = configuration.baseOptions
+      }
+
+      const localVarRequestOptions = { method: 'GET', ...baseOptions, ...options }
+      const localVarHeaderParameter = {} as any
+      const localVarQueryParameter = {} as any
+
+      // authentication basicAuth required
+      // http basic authentication required
+      setBasicAuthToObject(localVarRequestOptions, configuration)
+
+      // authentication bearerAuth required
+      // http bearer authentication required
+      await setBearerAuthToObject(localVarHeaderParameter, configuration)
+
+      setSearchParams(localVarUrlObj, localVarQueryParameter)
+      let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {}
+      localVarRequestOptions.headers = {
+        ...localVarHeaderParameter,
+        ...headersFromBaseOptions,
+        ...options.headers,
+      }
+
+      return {
+        url: toPathString(localVarUrlObj),
+        options: localVarRequestOptions,
+      }
+    },
+    /**
+     * Get index, cluster health and thread pool statistics, cached for a few seconds
      * @param {*} [options] Override http request option.
      * @throws {RequiredError}
      */
@@ -71,6 +192,53 @@ export const OpensearchConsoleV1alpha1ApiAxiosParamCreator = function (
         ...options.headers,
       }
 
+      return {
+        url: toPathString(localVarUrlObj),
+        options: localVarRequestOptions,
+      }
+    },
+    /**
+     * Start a throttled full reindex. An unfinished job on the same index is resumed from its checkpoint unless restart is true.
+     * @param {boolean} [restart]
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     */
+    startOpensearchReindex: async (
+      restart?: boolean,
+      options: RawAxiosRequestConfig = {},
+    ): Promise<RequestArgs> => {
+      const localVarPath = `/apis/console.api.opensearch.halo.run/v1alpha1/reindex/-/start`
+      // use dummy base URL string because the URL constructor only accepts absolute URLs.
+      const localVarUrlObj = new URL(localVarPath, DUMMY_BASE_URL)
+      let baseOptions
+      if (configuration) {
+        baseOptions = configuration.baseOptions
+      }
+
+      const localVarRequestOptions = { method: 'POST', ...baseOptions, ...options }
+      const localVarHeaderParameter = {} as any
+      const localVarQueryParameter = {} as any
+
+      // authentication basicAuth required
+      // http basic authentication required
+      setBasicAuthToObject(localVarRequestOptions, configuration)
+
+      // authentication bearerAuth required
+      // http bearer authentication required
+      await setBearerAuthToObject(localVarHeaderParameter, configuration)
+
+      if (restart !== undefined) {
+        localVarQueryParameter['restart'] = restart
+      }
+
+      setSearchParams(localVarUrlObj, localVarQueryParameter)
+      let headersFromBaseOptions = baseOptions && baseOptions.headers ? baseOptions.headers : {}
+      localVarRequestOptions.headers = {
+        ...localVarHeaderParameter,
+        ...headersFromBaseOptions,
+        ...options.headers,
+      }
+
       return {
         url: toPathString(localVarUrlObj),
         options: localVarRequestOptions,
@@ -87,13 +255,79 @@ export const OpensearchConsoleV1alpha1ApiFp = function (configuration?: Configur
   const localVarAxiosParamCreator = OpensearchConsoleV1alpha1ApiAxiosParamCreator(configuration)
   return {
     /**
-     * Get Opensearch index statistics
+     * Cancel the running reindex job, keeping its checkpoint
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     */
+    async cancelOpensearchReindex(
+      options?: RawAxiosRequestConfig,
+    ): Promise<(axios?: AxiosInstance, basePath?: string) => AxiosPromise<ReindexStatus>> {
+      const localVarAxiosArgs = await localVarAxiosParamCreator.cancelOpensearchReindex(options)
+      const localVarOperationServerIndex = configuration?.serverIndex ?? 0
+      const localVarOperationServerBasePath =
+        operationServerMap['OpensearchConsoleV1alpha1Api.cancelOpensearchReindex']?.[
+          localVarOperationServerIndex
+        ]?.url
+      return (axios, basePath) =>
+        createRequestFunction(
+          localVarAxiosArgs,
+          globalAxios,
+          BASE_PATH,
+          configuration,
+        )(axios, localVarOperationServerBasePath || basePath)
+    },
+    /**
+     * Get latency percentiles, bulk sizes and failure counts recorded by the plugin
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     */
+    async getOpensearchMetrics(
+      options?: RawAxiosRequestConfig,
+    ): Promise<(axios?: AxiosInstance, basePath?: string) => AxiosPromise<Array<MeterSnapshot>>> {
+      const localVarAxiosArgs = await localVarAxiosParamCreator.getOpensearchMetrics(options)
+      const localVarOperationServerIndex = configuration?.serverIndex ?? 0
+      const localVarOperationServerBasePath =
+        operationServerMap['OpensearchConsoleV1alpha1Api.getOpensearchMetrics']?.[
+          localVarOperationServerIndex
+        ]?.url
+      return (axios, basePath) =>
+        createRequestFunction(
+          localVarAxiosArgs,
+          globalAxios,
+          BASE_PATH,
+          configuration,
+        )(axios, localVarOperationServerBasePath || basePath)
+    },
+    /**
+     * Get progress, throughput and ETA of the current or last reindex job
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     */
+    async getOpensearchReindexStatus(
+      options?: RawAxiosRequestConfig,
+    ): Promise<(axios?: AxiosInstance, basePath?: string) => AxiosPromise<ReindexStatus>> {
+      const localVarAxiosArgs = await localVarAxiosParamCreator.getOpensearchReindexStatus(options)
+      const localVarOperationServerIndex = configuration?.serverIndex ?? 0
+      const localVarOperationServerBasePath =
+        operationServerMap['OpensearchConsoleV1alpha1Api.getOpensearchReindexStatus']?.[
+          localVarOperationServerIndex
+        ]?.url
+      return (axios, basePath) =>
+        createRequestFunction(
+          localVarAxiosArgs,
+          globalAxios,
+          BASE_PATH,
+          configuration,
+        )(axios, localVarOperationServerBasePath || basePath)
+    },
+    /**
+     * Get index, cluster health and thread pool statistics, cached for a few seconds
      * @param {*} [options] Override http request option.
      * @throws {RequiredError}
      */
     async getOpensearchStats(
       options?: RawAxiosRequestConfig,
-    ): Promise<(axios?: AxiosInstance, basePath?: string) => AxiosPromise<IndexStats>> {
+    ): Promise<(axios?: AxiosInstance, basePath?: string) => AxiosPromise<OpensearchStats>> {
       const localVarAxiosArgs = await localVarAxiosParamCreator.getOpensearchStats(options)
       const localVarOperationServerIndex = configuration?.serverIndex ?? 0
       const localVarOperationServerBasePath =
@@ -108,6 +342,33 @@ export const OpensearchConsoleV1alpha1ApiFp = function (configuration?: Configur
           configuration,
         )(axios, localVarOperationServerBasePath || basePath)
     },
+    /**
+     * Start a throttled full reindex. An unfinished job on the same index is resumed from its checkpoint unless restart is true.
+     * @param {boolean} [restart]
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     */
+    async startOpensearchReindex(
+      restart?: boolean,
+      options?: RawAxiosRequestConfig,
+    ): Promise<(axios?: AxiosInstance, basePath?: string) => AxiosPromise<ReindexStatus>> {
+      const localVarAxiosArgs = await localVarAxiosParamCreator.startOpensearchReindex(
+        restart,
+        options,
+      )
+      const localVarOperationServerIndex = configuration?.serverIndex ?? 0
+      const localVarOperationServerBasePath =
+        operationServerMap['OpensearchConsoleV1alpha1Api.startOpensearchReindex']?.[
+          localVarOperationServerIndex
+        ]?.url
+      return (axios, basePath) =>
+        createRequestFunction(
+          localVarAxiosArgs,
+          globalAxios,
+          BASE_PATH,
+          configuration,
+        )(axios, localVarOperationServerBasePath || basePath)
+    },
   }
 }
 
@@ -123,16 +384,68 @@ export const OpensearchConsoleV1alpha1ApiFactory = function (
   const localVarFp = OpensearchConsoleV1alpha1ApiFp(configuration)
   return {
     /**
-     * Get Opensearch index statistics
+     * Cancel the running reindex job, keeping its checkpoint
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     */
+    cancelOpensearchReindex(options?: RawAxiosRequestConfig): AxiosPromise<ReindexStatus> {
+      return localVarFp.cancelOpensearchReindex(options).then((request) => request(axios, basePath))
+    },
+    /**
+     * Get latency percentiles, bulk sizes and failure counts recorded by the plugin
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     */
+    getOpensearchMetrics(options?: RawAxiosRequestConfig): AxiosPromise<Array<MeterSnapshot>> {
+      return localVarFp.getOpensearchMetrics(options).then((request) => request(axios, basePath))
+    },
+    /**
+     * Get progress, throughput and ETA of the current or last reindex job
      * @param {*} [options] Override http request option.
      * @throws {RequiredError}
      */
-    getOpensearchStats(options?: RawAxiosRequestConfig): AxiosPromise<IndexStats> {
+    getOpensearchReindexStatus(options?: RawAxiosRequestConfig): AxiosPromise<ReindexStatus> {
+      return localVarFp.getOpensearchReindexStatus(options).then((request) => request(axios, basePath))
+    },
+    /**
+     * Get index, cluster health and thread pool statistics, cached for a few seconds
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     */
+    getOpensearchStats(options?: RawAxiosRequestConfig): AxiosPromise<OpensearchStats> {
       return localVarFp.getOpensearchStats(options).then((request) => request(axios, basePath))
     },
+    /**
+     * Start a throttled full reindex. An unfinished job on the same index is resumed from its checkpoint unless restart is true.
+     * @param {OpensearchConsoleV1alpha1ApiStartOpensearchReindexRequest} requestParameters Request parameters.
+     * @param {*} [options] Override http request option.
+     * @throws {RequiredError}
+     */
+    startOpensearchReindex(
+      requestParameters: OpensearchConsoleV1alpha1ApiStartOpensearchReindexRequest = {},
+      options?: RawAxiosRequestConfig,
+    ): AxiosPromise<ReindexStatus> {
+      return localVarFp
+        .startOpensearchReindex(requestParameters.restart, options)
+        .then((request) => request(axios, basePath))
+    },
   }
 }
 
+/**
+ * Request parameters for startOpensearchReindex operation in OpensearchConsoleV1alpha1Api.
+ * @export
+ * @interface OpensearchConsoleV1alpha1ApiStartOpensearchReindexRequest
+ */
+export interface OpensearchConsoleV1alpha1ApiStartOpensearchReindexRequest {
+  /**
+   *
+   * @type {boolean}
+   * @memberof OpensearchConsoleV1alpha1ApiStartOpensearchReindex
+   */
+  readonly restart?: boolean
+}
+
 /**
  * OpensearchConsoleV1alpha1Api - object-oriented interface
  * @export
@@ -141,7 +454,40 @@ export const OpensearchConsoleV1alpha1ApiFactory = function (
  */
 export class OpensearchConsoleV1alpha1Api extends BaseAPI {
   /**
-   * Get Opensearch index statistics
+   * Cancel the running reindex job, keeping its checkpoint
+   * @param {*} [options] Override http request option.
+   * @throws {RequiredError}
+   * @memberof OpensearchConsoleV1alpha1Api
+   */
+  public cancelOpensearchReindex(options?: RawAxiosRequestConfig) {
+    return OpensearchConsoleV1alpha1ApiFp(this.configuration)
+      .cancelOpensearchReindex(options)
+      .then((request) => request(this.axios, this.basePath))
+  }
+  /**
+   * Get latency percentiles, bulk sizes and failure counts recorded by the plugin
+   * @param {*} [options] Override http request option.
+   * @throws {RequiredError}
+   * @memberof OpensearchConsoleV1alpha1Api
+   */
+  public getOpensearchMetrics(options?: RawAxiosRequestConfig) {
+    return OpensearchConsoleV1alpha1ApiFp(this.configuration)
+      .getOpensearchMetrics(options)
+      .then((request) => request(this.axios, this.basePath))
+  }
+  /**
+   * Get progress, throughput and ETA of the current or last reindex job
+   * @param {*} [options] Override http request option.
+   * @throws {RequiredError}
+   * @memberof OpensearchConsoleV1alpha1Api
+   */
+  public getOpensearchReindexStatus(options?: RawAxiosRequestConfig) {
+    return OpensearchConsoleV1alpha1ApiFp(this.configuration)
+      .getOpensearchReindexStatus(options)
+      .then((request) => request(this.axios, this.basePath))
+  }
+  /**
+   * Get index, cluster health and thread pool statistics, cached for a few seconds
    * @param {*} [options] Override http request option.
    * @throws {RequiredError}
    * @memberof OpensearchConsoleV1alpha1Api
@@ -151,4 +497,19 @@ export class OpensearchConsoleV1alpha1Api extends BaseAPI {
       .getOpensearchStats(options)
       .then((request) => request(this.axios, this.basePath))
   }
+  /**
+   * Start a throttled full reindex. An unfinished job on the same index is resumed from its checkpoint unless restart is true.
+   * @param {OpensearchConsoleV1alpha1ApiStartOpensearchReindexRequest} requestParameters Request parameters.
+   * @param {*} [options] Override http request option.
+   * @throws {RequiredError}
+   * @memberof OpensearchConsoleV1alpha1Api
+   */
+  public startOpensearchReindex(
+    requestParameters: OpensearchConsoleV1alpha1ApiStartOpensearchReindexRequest = {},
+    options?: RawAxiosRequestConfig,
+  ) {
+    return OpensearchConsoleV1alpha1ApiFp(this.configuration)
+      .startOpensearchReindex(requestParameters.restart, options)
+      .then((request) => request(this.axios, this.basePath))
+  }
 }
@@ -12,6 +12,10 @@
  * Do not edit the class manually.
  */
 
+// May contain unused imports in some cases
+// @ts-ignore
+import type { Operation } from './operation'
+
 /**
  *
  * @export
@@ -23,41 +27,71 @@ export interface IndexStats {
    * @type {number}
    * @memberof IndexStats
    */
-  avgDocumentSize?: number
+  deletedDocuments?: number
   /**
    *
-   * @type {{ [key: string]: number; }}
+   * @type {number}
    * @memberof IndexStats
    */
-  fieldDistribution?: { [key: string]: number }
+  documents?: number
   /**
    *
-   * @type {boolean}
+   * @type {Operation}
    * @memberof IndexStats
    */
-  indexing?: boolean
+  fetch?: Operation
   /**
    *
    * @type {number}
    * @memberof IndexStats
    */
-  numberOfDocuments?: number
+  indexFailed?: number
+  /**
+   *
+   * @type {Operation}
+   * @memberof IndexStats
+   */
+  indexing?: Operation
+  /**
+   *
+   * @type {Operation}
+   * @memberof IndexStats
+   */
+  merge?: Operation
+  /**
+   *
+   * @type {string}
+   * @memberof IndexStats
+   */
+  name?: string
   /**
    *
    * @type {number}
    * @memberof IndexStats
    */
-  numberOfEmbeddedDocuments?: number
+  primaryStoreSizeBytes?: number
+  /**
+   *
+   * @type {Operation}
+   * @memberof IndexStats
+   */
+  query?: Operation
+  /**
+   *
+   * @type {Operation}
+   * @memberof IndexStats
+   */
+  refresh?: Operation
   /**
    *
    * @type {number}
    * @memberof IndexStats
    */
-  numberOfEmbeddings?: number
+  segments?: number
   /**
    *
    * @type {number}
    * @memberof IndexStats
    */
-  rawDocumentDbSize?: number
+  storeSizeBytes?: number
 }
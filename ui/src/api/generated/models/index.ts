@@ -1,8 +1,15 @@
 export * from './add-operation'
+export * from './cluster-health'
 export * from './copy-operation'
 export * from './index-stats'
 export * from './json-patch-inner'
+export * from './meter-snapshot'
 export * from './move-operation'
+export * from './node-stats'
+export * from './opensearch-stats'
+export * from './operation'
+export * from './reindex-status'
 export * from './remove-operation'
 export * from './replace-operation'
 export * from './test-operation'
+export * from './thread-pool'
@@ -38,6 +38,15 @@ export default definePlugin({
           }),
           permissions: ['*'],
         },
+        {
+          id: 'reindex',
+          label: '全量重建',
+          component: defineAsyncComponent({
+            loader: () => import('./components/ReindexTab.vue'),
+            loadingComponent: VLoading,
+          }),
+          permissions: ['*'],
+        },
       ]
     },
   },